@@ -27,8 +27,8 @@ import com.fongmi.android.tv.ui.base.BaseActivity;
 import com.fongmi.android.tv.ui.presenter.VodPresenter;
 import com.fongmi.android.tv.utils.ResUtil;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 演职人员作品列表页面（TV版本）
@@ -39,7 +39,6 @@ public class CastWorksActivity extends BaseActivity implements VodPresenter.OnCl
     private ActivityCastWorksBinding mBinding;
     private ArrayObjectAdapter mAdapter;
     private SiteViewModel mViewModel;
-    private ExecutorService mExecutor;
     private String mCastName;
     private CastMember.CastType mCastType;
     
@@ -104,34 +103,17 @@ public class CastWorksActivity extends BaseActivity implements VodPresenter.OnCl
         // 停止之前的搜索
         stopSearch();
         
-        // 创建线程池并发搜索
-        mExecutor = Executors.newFixedThreadPool(20);
-        for (Site site : VodConfig.get().getSites()) {
-            if (site.isSearchable()) {
-                mExecutor.execute(() -> search(site));
-            }
-        }
-    }
-    
-    /**
-     * 在指定视频源中搜索
-     */
-    private void search(Site site) {
-        try {
-            mViewModel.searchContent(site, mCastName, false);
-        } catch (Throwable e) {
-            e.printStackTrace();
-        }
+        // 在共享调度器上并发搜索
+        List<Site> sites = new ArrayList<>();
+        for (Site site : VodConfig.get().getSites()) if (site.isSearchable()) sites.add(site);
+        mViewModel.searchContent(sites, mCastName, false);
     }
     
     /**
      * 停止搜索
      */
     private void stopSearch() {
-        if (mExecutor != null) {
-            mExecutor.shutdownNow();
-            mExecutor = null;
-        }
+        mViewModel.stopSearch();
     }
     
     /**
@@ -30,7 +30,6 @@ import com.fongmi.android.tv.model.SiteViewModel;
 import com.fongmi.android.tv.ui.base.BaseActivity;
 import com.fongmi.android.tv.ui.fragment.CollectFragment;
 import com.fongmi.android.tv.ui.presenter.CollectPresenter;
-import com.fongmi.android.tv.utils.PauseExecutor;
 import com.fongmi.android.tv.utils.ResUtil;
 import com.google.gson.reflect.TypeToken;
 
@@ -42,7 +41,6 @@ public class CollectActivity extends BaseActivity {
     private ActivityCollectBinding mBinding;
     private ArrayObjectAdapter mAdapter;
     private SiteViewModel mViewModel;
-    private PauseExecutor mExecutor;
     private List<Site> mSites;
     private View mOldView;
 
@@ -130,18 +128,9 @@ public class CollectActivity extends BaseActivity {
 
     private void search() {
         mAdapter.add(Collect.all());
-        if (mExecutor != null) stop();
         mBinding.pager.getAdapter().notifyDataSetChanged();
-        mExecutor = new PauseExecutor(10);
         mBinding.result.setText(getString(R.string.collect_result, getKeyword()));
-        for (Site site : mSites) mExecutor.execute(() -> search(site));
-    }
-
-    private void search(Site site) {
-        try {
-            mViewModel.searchContent(site, getKeyword(), false);
-        } catch (Throwable ignored) {
-        }
+        mViewModel.searchContent(mSites, getKeyword(), false);
     }
 
     private void saveKeyword() {
@@ -153,9 +142,7 @@ public class CollectActivity extends BaseActivity {
     }
 
     private void stop() {
-        if (mExecutor == null) return;
-        mExecutor.shutdownNow();
-        mExecutor = null;
+        mViewModel.stopSearch();
     }
 
     private void onChildSelected(@Nullable RecyclerView.ViewHolder child) {
@@ -176,13 +163,13 @@ public class CollectActivity extends BaseActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        if (mExecutor != null) mExecutor.resume();
+        mViewModel.resumeSearch();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        if (mExecutor != null) mExecutor.pause();
+        mViewModel.pauseSearch();
     }
 
     @Override
@@ -36,6 +36,7 @@ import com.fongmi.android.tv.bean.Style;
 import com.fongmi.android.tv.bean.Vod;
 import com.fongmi.android.tv.databinding.ActivityHomeBinding;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.CastEvent;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.event.ServerEvent;
@@ -160,9 +161,12 @@ public class HomeActivity extends BaseActivity implements CustomTitleView.Listen
 
     private void initConfig() {
         if (isLoading()) return;
-        WallConfig.get().init();
-        LiveConfig.get().init().load();
-        VodConfig.get().init().load(getCallback());
+        Repository.execute(() -> {
+            VodConfig.get().init();
+            WallConfig.get().init();
+            LiveConfig.get().init().load();
+            VodConfig.get().load(getCallback());
+        });
         setLoading(true);
     }
 
@@ -194,12 +198,12 @@ public class HomeActivity extends BaseActivity implements CustomTitleView.Listen
     }
 
     private void loadLive(String url) {
-        LiveConfig.load(Config.find(url, 1), new Callback() {
+        Repository.execute(() -> LiveConfig.load(Config.find(url, 1), new Callback() {
             @Override
             public void success() {
                 LiveActivity.start(getActivity());
             }
-        });
+        }));
     }
 
     private void setFocus() {
@@ -245,24 +249,10 @@ public class HomeActivity extends BaseActivity implements CustomTitleView.Listen
     }
 
     private void getHistory(boolean renew) {
-        // 获取所有视频源的观看记录（最近60天）
-        List<History> items = History.getAll();
-        com.github.catvod.utils.Logger.d("HomeActivity: 获取观看记录，共 " + items.size() + " 条");
-        
-        // 对比一下数据库中所有记录
-        List<com.fongmi.android.tv.bean.History> allInDb = com.fongmi.android.tv.db.AppDatabase.get().getHistoryDao().findAllRecent(0);
-        com.github.catvod.utils.Logger.d("HomeActivity: 数据库总记录数: " + allInDb.size() + " 条（包含所有时间）");
-        
-        if (items.size() < allInDb.size()) {
-            com.github.catvod.utils.Logger.w("HomeActivity: 有 " + (allInDb.size() - items.size()) + " 条记录因为时间过滤被隐藏");
-        }
-        
-        for (History h : items) {
-            com.github.catvod.utils.Logger.d("HomeActivity: 记录 - " + h.getVodName() + 
-                                            " (cid=" + h.getCid() + 
-                                            ", createTime=" + h.getCreateTime() + ")");
-        }
-        
+        Repository.getAllHistory(Long.MAX_VALUE, items -> setHistory(items, renew));
+    }
+
+    private void setHistory(List<History> items, boolean renew) {
         int historyIndex = getHistoryIndex();
         int recommendIndex = getRecommendIndex();
         boolean exist = recommendIndex - historyIndex == 2;
@@ -289,7 +279,7 @@ public class HomeActivity extends BaseActivity implements CustomTitleView.Listen
 
     private void clearHistory() {
         mAdapter.removeItems(getHistoryIndex(), 1);
-        History.delete(VodConfig.getCid());
+        Repository.deleteHistory(VodConfig.getCid());
         mPresenter.setDelete(false);
         mHistoryAdapter.clear();
     }
@@ -375,7 +365,7 @@ public class HomeActivity extends BaseActivity implements CustomTitleView.Listen
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onCastEvent(CastEvent event) {
         if (VodConfig.get().getConfig().equals(event.getConfig())) {
-            VideoActivity.cast(this, event.getHistory().update(VodConfig.getCid()));
+            Repository.load(() -> event.getHistory().update(VodConfig.getCid()), history -> VideoActivity.cast(this, history));
         } else {
             VodConfig.load(event.getConfig(), getCallback(event));
         }
@@ -11,20 +11,26 @@ import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.bean.Config;
 import com.fongmi.android.tv.bean.Keep;
 import com.fongmi.android.tv.databinding.ActivityKeepBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.impl.Callback;
 import com.fongmi.android.tv.ui.adapter.KeepAdapter;
 import com.fongmi.android.tv.ui.base.BaseActivity;
+import com.fongmi.android.tv.ui.custom.CustomScroller;
 import com.fongmi.android.tv.ui.custom.SpaceItemDecoration;
 import com.fongmi.android.tv.utils.Notify;
 
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 
-public class KeepActivity extends BaseActivity implements KeepAdapter.OnClickListener {
+import java.util.List;
+
+public class KeepActivity extends BaseActivity implements KeepAdapter.OnClickListener, CustomScroller.Callback {
 
     private ActivityKeepBinding mBinding;
+    private CustomScroller mScroller;
     private KeepAdapter mAdapter;
+    private long mLast;
 
     public static void start(Activity activity) {
         activity.startActivity(new Intent(activity, KeepActivity.class));
@@ -45,12 +51,34 @@ public class KeepActivity extends BaseActivity implements KeepAdapter.OnClickLis
         mBinding.recycler.setHasFixedSize(true);
         mBinding.recycler.setItemAnimator(null);
         mBinding.recycler.setAdapter(mAdapter = new KeepAdapter(this));
+        mBinding.recycler.addOnScrollListener(mScroller = new CustomScroller(this));
         mBinding.recycler.setLayoutManager(new GridLayoutManager(this, Product.getColumn()));
         mBinding.recycler.addItemDecoration(new SpaceItemDecoration(Product.getColumn(), 16));
     }
 
     private void getKeep() {
-        mAdapter.addAll(Keep.getVod());
+        mScroller.reset();
+        mScroller.setLoading(true);
+        Repository.getKeep(Long.MAX_VALUE, items -> {
+            mAdapter.addAll(items);
+            endLoading(1, items);
+        });
+    }
+
+    private void endLoading(int page, List<Keep> items) {
+        if (!items.isEmpty()) mLast = items.get(items.size() - 1).getCreateTime();
+        mScroller.setEnable(items.size() < Repository.PAGE ? page : 0);
+        mScroller.setLoading(false);
+    }
+
+    @Override
+    public void onLoadMore(String page) {
+        int index = Integer.parseInt(page);
+        mScroller.setLoading(true);
+        Repository.getKeep(mLast, items -> {
+            mAdapter.add(items);
+            endLoading(index, items);
+        });
     }
 
     private void loadConfig(Config config, Keep item) {
@@ -77,10 +105,11 @@ public class KeepActivity extends BaseActivity implements KeepAdapter.OnClickLis
 
     @Override
     public void onItemClick(Keep item) {
-        Config config = Config.find(item.getCid());
-        if (config == null) CollectActivity.start(this, item.getVodName());
-        else if (item.getCid() != VodConfig.getCid()) loadConfig(config, item);
-        else VideoActivity.start(this, item.getSiteKey(), item.getVodId(), item.getVodName(), item.getVodPic());
+        Repository.load(() -> Config.find(item.getCid()), config -> {
+            if (config == null) CollectActivity.start(this, item.getVodName());
+            else if (item.getCid() != VodConfig.getCid()) loadConfig(config, item);
+            else VideoActivity.start(this, item.getSiteKey(), item.getVodId(), item.getVodName(), item.getVodPic());
+        });
     }
 
     @Override
@@ -34,6 +34,7 @@ import com.fongmi.android.tv.bean.Keep;
 import com.fongmi.android.tv.bean.Live;
 import com.fongmi.android.tv.bean.Track;
 import com.fongmi.android.tv.databinding.ActivityLiveBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.ActionEvent;
 import com.fongmi.android.tv.event.ErrorEvent;
 import com.fongmi.android.tv.event.PlayerEvent;
@@ -227,7 +228,7 @@ public class LiveActivity extends BaseActivity implements GroupPresenter.OnClick
 
     private void checkLive() {
         if (isEmpty()) {
-            LiveConfig.get().init().load(getCallback());
+            Repository.execute(() -> LiveConfig.get().init().load(getCallback()));
         } else {
             getLive();
         }
@@ -549,7 +550,7 @@ public class LiveActivity extends BaseActivity implements GroupPresenter.OnClick
     @Override
     public boolean onLongClick(Channel item) {
         if (mGroup.isHidden()) return false;
-        boolean exist = Keep.exist(item.getName());
+        boolean exist = getKeep().getChannel().contains(item);
         Notify.show(exist ? R.string.keep_del : R.string.keep_add);
         if (exist) delKeep(item);
         else addKeep(item);
@@ -15,11 +15,13 @@ import com.fongmi.android.tv.Updater;
 import com.fongmi.android.tv.api.config.LiveConfig;
 import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.api.config.WallConfig;
+import com.fongmi.android.tv.api.search.SearchCache;
 import com.fongmi.android.tv.bean.Config;
 import com.fongmi.android.tv.bean.Live;
 import com.fongmi.android.tv.bean.Site;
 import com.fongmi.android.tv.databinding.ActivitySettingBinding;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.event.ServerEvent;
 import com.fongmi.android.tv.impl.Callback;
@@ -29,6 +31,7 @@ import com.fongmi.android.tv.impl.LiveCallback;
 import com.fongmi.android.tv.impl.ProxyCallback;
 import com.fongmi.android.tv.impl.SiteCallback;
 import com.fongmi.android.tv.player.Source;
+import com.fongmi.android.tv.player.exo.CacheManager;
 import com.fongmi.android.tv.ui.base.BaseActivity;
 import com.fongmi.android.tv.ui.dialog.ConfigDialog;
 import com.fongmi.android.tv.ui.dialog.DohDialog;
@@ -42,10 +45,13 @@ import com.fongmi.android.tv.utils.FileChooser;
 import com.fongmi.android.tv.utils.FileUtil;
 import com.fongmi.android.tv.utils.Notify;
 import com.fongmi.android.tv.utils.ResUtil;
+import com.fongmi.android.tv.utils.Trace;
 import com.fongmi.android.tv.utils.UrlUtil;
+import com.fongmi.quickjs.utils.Module;
 import com.github.catvod.bean.Doh;
 import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Path;
+import com.google.common.primitives.Ints;
 import com.permissionx.guolindev.PermissionX;
 
 import org.greenrobot.eventbus.Subscribe;
@@ -58,8 +64,14 @@ import javax.annotation.Nullable;
 
 public class SettingActivity extends BaseActivity implements ConfigCallback, SiteCallback, LiveCallback, DohCallback, ProxyCallback {
 
+    private static final int[] SEARCH_CACHE = {0, 5, 10, 30, 60};
+    private static final int[] SEARCH_CACHE_SIZE = {4, 8, 16, 32};
+
     private ActivitySettingBinding mBinding;
+    private String[] connection;
     private String[] quality;
+    private String[] searchCacheSize;
+    private String[] searchCache;
     private String[] size;
     private int type;
 
@@ -105,8 +117,13 @@ public class SettingActivity extends BaseActivity implements ConfigCallback, Sit
         mBinding.dohText.setText(getDohList()[getDohIndex()]);
         mBinding.proxyText.setText(getProxy(Setting.getProxy()));
         mBinding.incognitoText.setText(getSwitch(Setting.isIncognito()));
+        mBinding.offlineFirstText.setText(getSwitch(Setting.isOfflineFirst()));
+        mBinding.searchCacheDiskText.setText(getSwitch(Setting.isSearchCacheDisk()));
+        mBinding.searchCacheText.setText((searchCache = ResUtil.getStringArray(R.array.select_search_cache))[getIndex(SEARCH_CACHE, Setting.getSearchCacheTtl())]);
+        mBinding.searchCacheSizeText.setText((searchCacheSize = ResUtil.getStringArray(R.array.select_search_cache_size))[getIndex(SEARCH_CACHE_SIZE, Setting.getSearchCacheSize())]);
         mBinding.liveTabVisibleText.setText(getSwitch(Setting.isLiveTabVisible()));
         mBinding.sizeText.setText((size = ResUtil.getStringArray(R.array.select_size))[Setting.getSize()]);
+        mBinding.connectionText.setText((connection = ResUtil.getStringArray(R.array.select_connection))[Setting.getConnection()]);
         mBinding.qualityText.setText((quality = ResUtil.getStringArray(R.array.select_quality))[Setting.getQuality()]);
         setLiveSettingsVisibility();
     }
@@ -134,6 +151,7 @@ public class SettingActivity extends BaseActivity implements ConfigCallback, Sit
         mBinding.wall.setOnClickListener(this::onWall);
         mBinding.proxy.setOnClickListener(this::onProxy);
         mBinding.cache.setOnClickListener(this::onCache);
+        mBinding.cache.setOnLongClickListener(this::onTrace);
         mBinding.backup.setOnClickListener(this::onBackup);
         mBinding.player.setOnClickListener(this::onPlayer);
         mBinding.restore.setOnClickListener(this::onRestore);
@@ -149,6 +167,11 @@ public class SettingActivity extends BaseActivity implements ConfigCallback, Sit
         mBinding.wallDefault.setOnClickListener(this::setWallDefault);
         mBinding.wallRefresh.setOnClickListener(this::setWallRefresh);
         mBinding.incognito.setOnClickListener(this::setIncognito);
+        mBinding.connection.setOnClickListener(this::setConnection);
+        mBinding.offlineFirst.setOnClickListener(this::setOfflineFirst);
+        mBinding.searchCache.setOnClickListener(this::setSearchCache);
+        mBinding.searchCacheSize.setOnClickListener(this::setSearchCacheSize);
+        mBinding.searchCacheDisk.setOnClickListener(this::setSearchCacheDisk);
         mBinding.liveTabVisible.setOnClickListener(this::setLiveTabVisible);
         mBinding.quality.setOnClickListener(this::setQuality);
         mBinding.size.setOnClickListener(this::setSize);
@@ -320,6 +343,41 @@ public class SettingActivity extends BaseActivity implements ConfigCallback, Sit
         mBinding.incognitoText.setText(getSwitch(Setting.isIncognito()));
     }
 
+    private void setConnection(View view) {
+        int index = Setting.getConnection();
+        Setting.putConnection(index = index == connection.length - 1 ? 0 : ++index);
+        mBinding.connectionText.setText(connection[index]);
+        OkHttp.get().setProfile(OkHttp.profile().maxRequestsPerHost(4 << index));
+    }
+
+    private void setOfflineFirst(View view) {
+        Setting.putOfflineFirst(!Setting.isOfflineFirst());
+        OkHttp.cache().setOffline(Setting.isOfflineFirst());
+        mBinding.offlineFirstText.setText(getSwitch(Setting.isOfflineFirst()));
+    }
+
+    private int getIndex(int[] values, int value) {
+        return Math.max(0, Ints.indexOf(values, value));
+    }
+
+    private void setSearchCache(View view) {
+        int index = getIndex(SEARCH_CACHE, Setting.getSearchCacheTtl());
+        Setting.putSearchCacheTtl(SEARCH_CACHE[index = index == searchCache.length - 1 ? 0 : ++index]);
+        mBinding.searchCacheText.setText(searchCache[index]);
+    }
+
+    private void setSearchCacheSize(View view) {
+        int index = getIndex(SEARCH_CACHE_SIZE, Setting.getSearchCacheSize());
+        Setting.putSearchCacheSize(SEARCH_CACHE_SIZE[index = index == searchCacheSize.length - 1 ? 0 : ++index]);
+        mBinding.searchCacheSizeText.setText(searchCacheSize[index]);
+        SearchCache.get().resize();
+    }
+
+    private void setSearchCacheDisk(View view) {
+        Setting.putSearchCacheDisk(!Setting.isSearchCacheDisk());
+        mBinding.searchCacheDiskText.setText(getSwitch(Setting.isSearchCacheDisk()));
+    }
+
     private void setLiveTabVisible(View view) {
         boolean isChecked = !Setting.isLiveTabVisible();
         Setting.putLiveTabVisible(isChecked);
@@ -353,7 +411,7 @@ public class SettingActivity extends BaseActivity implements ConfigCallback, Sit
         Notify.progress(getActivity());
         Setting.putDoh(doh.toString());
         mBinding.dohText.setText(doh.getName());
-        VodConfig.load(Config.vod(), getCallback(0));
+        VodConfig.load(VodConfig.get().getConfig(), getCallback(0));
     }
 
     private void onProxy(View view) {
@@ -367,7 +425,13 @@ public class SettingActivity extends BaseActivity implements ConfigCallback, Sit
         OkHttp.get().setProxy(proxy);
         Notify.progress(getActivity());
         mBinding.proxyText.setText(getProxy(proxy));
-        VodConfig.load(Config.vod(), getCallback(0));
+        VodConfig.load(VodConfig.get().getConfig(), getCallback(0));
+    }
+
+    private boolean onTrace(View view) {
+        String trace = Trace.get().toString();
+        Notify.show((trace.isEmpty() ? "" : trace + "\n") + CacheManager.get().getStat() + "\n" + Module.get().getStat());
+        return true;
     }
 
     private void onCache(View view) {
@@ -411,9 +475,12 @@ public class SettingActivity extends BaseActivity implements ConfigCallback, Sit
     }
 
     private void initConfig() {
-        WallConfig.get().init();
-        LiveConfig.get().init().load();
-        VodConfig.get().init().load(getCallback(0));
+        Repository.execute(() -> {
+            VodConfig.get().init();
+            WallConfig.get().init();
+            LiveConfig.get().init().load();
+            VodConfig.get().load(getCallback(0));
+        });
     }
 
     @Override
@@ -441,6 +508,7 @@ public class SettingActivity extends BaseActivity implements ConfigCallback, Sit
     public void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
         if (resultCode != Activity.RESULT_OK || requestCode != FileChooser.REQUEST_PICK_FILE) return;
-        setConfig(Config.find("file:/" + FileChooser.getPathFromUri(this, data.getData()).replace(Path.rootPath(), ""), type));
+        String url = "file:/" + FileChooser.getPathFromUri(this, data.getData()).replace(Path.rootPath(), "");
+        Repository.load(() -> Config.find(url, type), this::setConfig);
     }
 }
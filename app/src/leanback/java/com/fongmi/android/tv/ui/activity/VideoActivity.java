@@ -54,12 +54,14 @@ import com.fongmi.android.tv.bean.Track;
 import com.fongmi.android.tv.bean.Vod;
 import com.fongmi.android.tv.databinding.ActivityVideoBinding;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.ActionEvent;
 import com.fongmi.android.tv.event.ErrorEvent;
 import com.fongmi.android.tv.event.PlayerEvent;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.model.SiteViewModel;
 import com.fongmi.android.tv.player.Players;
+import com.fongmi.android.tv.player.Prefetch;
 import com.fongmi.android.tv.player.exo.ExoUtil;
 import com.fongmi.android.tv.service.PlaybackService;
 import com.fongmi.android.tv.ui.adapter.QualityAdapter;
@@ -102,8 +104,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 
 public class VideoActivity extends BaseActivity implements CustomKeyDownVod.Listener, TrackDialog.Listener, ArrayPresenter.OnClickListener, Clock.Callback {
@@ -124,11 +124,11 @@ public class VideoActivity extends BaseActivity implements CustomKeyDownVod.List
     private FlagPresenter mFlagPresenter;
     private PartPresenter mPartPresenter;
     private CustomKeyDownVod mKeyDown;
-    private ExecutorService mExecutor;
     private SiteViewModel mViewModel;
     private List<String> mBroken;
     private History mHistory;
     private Players mPlayers;
+    private String mPrefetch;
     private boolean fullscreen;
     private boolean initAuto;
     private boolean autoMode;
@@ -471,8 +471,11 @@ public class VideoActivity extends BaseActivity implements CustomKeyDownVod.List
         mBinding.video.requestFocus();
         setArtwork(item.getVodPic());
         App.removeCallbacks(mR4);
-        checkHistory(item);
-        checkFlag(item);
+        String key = getHistoryKey();
+        Repository.load(() -> findHistory(key, item), history -> {
+            checkHistory(item, history);
+            checkFlag(item);
+        });
         checkKeep();
     }
 
@@ -683,12 +686,14 @@ public class VideoActivity extends BaseActivity implements CustomKeyDownVod.List
     }
 
     private void onKeep() {
-        Keep keep = Keep.find(getHistoryKey());
-        Notify.show(keep != null ? R.string.keep_del : R.string.keep_add);
-        if (keep != null) keep.delete();
-        else createKeep();
-        RefreshEvent.keep();
-        checkKeep();
+        String key = getHistoryKey();
+        Repository.load(() -> Keep.find(key), keep -> {
+            Notify.show(keep != null ? R.string.keep_del : R.string.keep_add);
+            if (keep != null) keep.delete();
+            else createKeep();
+            RefreshEvent.keep();
+            checkKeep();
+        });
     }
 
     private void onVideo() {
@@ -962,9 +967,13 @@ public class VideoActivity extends BaseActivity implements CustomKeyDownVod.List
         }
     }
 
-    private void checkHistory(Vod item) {
-        mHistory = History.find(getHistoryKey());
-        mHistory = mHistory == null ? createHistory(item) : mHistory;
+    private History findHistory(String key, Vod item) {
+        History history = History.find(key);
+        return history == null ? createHistory(key, item) : history;
+    }
+
+    private void checkHistory(Vod item, History history) {
+        mHistory = history;
         if (!TextUtils.isEmpty(getMark())) mHistory.setVodRemarks(getMark());
         if (Setting.isIncognito() && mHistory.getKey().equals(getHistoryKey())) mHistory.delete();
         mBinding.control.opening.setText(mHistory.getOpening() <= 0 ? getString(R.string.play_op) : mPlayers.stringToTime(mHistory.getOpening()));
@@ -974,9 +983,9 @@ public class VideoActivity extends BaseActivity implements CustomKeyDownVod.List
         setScale(getScale());
     }
 
-    private History createHistory(Vod item) {
+    private History createHistory(String key, Vod item) {
         History history = new History();
-        history.setKey(getHistoryKey());
+        history.setKey(key);
         history.setCid(VodConfig.getCid());
         history.setVodName(item.getVodName());
         history.findEpisode(item.getVodFlags());
@@ -997,7 +1006,8 @@ public class VideoActivity extends BaseActivity implements CustomKeyDownVod.List
     }
 
     private void checkKeep() {
-        mBinding.keep.setCompoundDrawablesWithIntrinsicBounds(Keep.find(getHistoryKey()) == null ? R.drawable.ic_detail_keep_off : R.drawable.ic_detail_keep_on, 0, 0, 0);
+        String key = getHistoryKey();
+        Repository.load(() -> Keep.find(key), keep -> mBinding.keep.setCompoundDrawablesWithIntrinsicBounds(keep == null ? R.drawable.ic_detail_keep_off : R.drawable.ic_detail_keep_on, 0, 0, 0));
     }
 
     private void createKeep() {
@@ -1026,6 +1036,16 @@ public class VideoActivity extends BaseActivity implements CustomKeyDownVod.List
         if (mHistory.getEnding() > 0 && duration > 0 && mHistory.getEnding() + position >= duration) {
             checkEnded(false);
         }
+        checkPrefetch(position, duration);
+    }
+
+    private void checkPrefetch(long position, long duration) {
+        if (!Prefetch.isTime(position, duration)) return;
+        int current = getEpisodePosition() + (mHistory.isRevPlay() ? -1 : 1);
+        if (current < 0 || current >= mEpisodeAdapter.size()) return;
+        Episode item = (Episode) mEpisodeAdapter.get(current);
+        if (item.getUrl().equals(mPrefetch)) return;
+        mViewModel.prefetch(mPlayers, getKey(), getFlag().getFlag(), mPrefetch = item.getUrl(), isUseParse());
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
@@ -1173,22 +1193,12 @@ public class VideoActivity extends BaseActivity implements CustomKeyDownVod.List
     private void startSearch(String keyword) {
         mQuickAdapter.clear();
         List<Site> sites = new ArrayList<>();
-        mExecutor = Executors.newFixedThreadPool(10);
         for (Site site : VodConfig.get().getSites()) if (isPass(site)) sites.add(site);
-        for (Site site : sites) mExecutor.execute(() -> search(site, keyword));
+        mViewModel.searchContent(sites, keyword, true);
     }
 
     private void stopSearch() {
-        if (mExecutor == null) return;
-        mExecutor.shutdownNow();
-        mExecutor = null;
-    }
-
-    private void search(Site site, String keyword) {
-        try {
-            mViewModel.searchContent(site, keyword, true);
-        } catch (Throwable ignored) {
-        }
+        mViewModel.stopSearch();
     }
 
     private void setSearch(Result result) {
@@ -29,8 +29,8 @@ public class ConfigAdapter extends RecyclerView.Adapter<ConfigAdapter.ViewHolder
         void onDeleteClick(Config item);
     }
 
-    public ConfigAdapter addAll(int type) {
-        mItems = Config.getAll(type);
+    public ConfigAdapter addAll(List<Config> items, int type) {
+        mItems = items;
         mItems.remove(type == 0 ? VodConfig.get().getConfig() : LiveConfig.get().getConfig());
         return this;
     }
@@ -51,6 +51,12 @@ public class KeepAdapter extends RecyclerView.Adapter<KeepAdapter.ViewHolder> {
         notifyDataSetChanged();
     }
 
+    public void add(List<Keep> items) {
+        int position = mItems.size();
+        mItems.addAll(items);
+        notifyItemRangeInserted(position, items.size());
+    }
+
     public void delete(Keep item) {
         int index = mItems.indexOf(item);
         if (index == -1) return;
@@ -19,6 +19,7 @@ import com.fongmi.android.tv.bean.Config;
 import com.fongmi.android.tv.bean.Device;
 import com.fongmi.android.tv.bean.History;
 import com.fongmi.android.tv.databinding.DialogSyncSettingsBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.ScanEvent;
 import com.fongmi.android.tv.event.ServerEvent;
 import com.fongmi.android.tv.impl.Callback;
@@ -48,7 +49,6 @@ import okhttp3.Response;
  */
 public class SyncSettingsDialog extends BaseDialog implements DeviceAdapter.OnClickListener, ScanTask.Listener {
 
-    private final FormBody.Builder body;
     private final OkHttpClient client;
     private final ScanTask scanTask;
     private final TypedArray mode;
@@ -61,7 +61,6 @@ public class SyncSettingsDialog extends BaseDialog implements DeviceAdapter.OnCl
     }
 
     public SyncSettingsDialog() {
-        body = new FormBody.Builder();
         scanTask = new ScanTask(this);
         client = OkHttp.client(Constant.TIMEOUT_SYNC);
         mode = ResUtil.getTypedArray(R.array.cast_mode);
@@ -100,8 +99,10 @@ public class SyncSettingsDialog extends BaseDialog implements DeviceAdapter.OnCl
     }
 
     private void getDevice() {
-        adapter.addAll(Device.getAll());
-        if (adapter.getItemCount() == 0) App.post(this::onRefresh, 1000);
+        Repository.load(Device::getAll, items -> {
+            adapter.addAll(items);
+            if (adapter.getItemCount() == 0) App.post(this::onRefresh, 1000);
+        });
     }
 
     private void setMode() {
@@ -192,17 +193,12 @@ public class SyncSettingsDialog extends BaseDialog implements DeviceAdapter.OnCl
 
     @Override
     public void onItemClick(Device item) {
-        // 构建同步数据
-        body.add("device", Device.get().toString());
-        body.add("config", Config.vod().toString());
-        body.add("targets", App.gson().toJson(History.get()));
-
         // 发送同步请求
         String url = String.format(Locale.getDefault(), 
             "%s/action?do=sync&mode=%s&type=history", 
             item.getIp(), binding.mode.getTag().toString());
         
-        OkHttp.newCall(client, url, body.build()).enqueue(getCallback());
+        Repository.load(this::getBody, body -> OkHttp.newCall(client, url, body).enqueue(getCallback()));
     }
 
     @Override
@@ -211,20 +207,23 @@ public class SyncSettingsDialog extends BaseDialog implements DeviceAdapter.OnCl
         if (modeStr.equals("0")) return false;
         if (modeStr.equals("2")) History.delete(VodConfig.getCid());
         
-        // 构建同步数据
-        body.add("device", Device.get().toString());
-        body.add("config", Config.vod().toString());
-        body.add("targets", App.gson().toJson(History.get()));
-        
         // 发送强制同步请求
         String url = String.format(Locale.getDefault(), 
             "%s/action?do=sync&mode=%s&type=history&force=true", 
             item.getIp(), binding.mode.getTag().toString());
         
-        OkHttp.newCall(client, url, body.build()).enqueue(getCallback());
+        Repository.load(this::getBody, body -> OkHttp.newCall(client, url, body).enqueue(getCallback()));
         return true;
     }
 
+    private FormBody getBody() {
+        FormBody.Builder body = new FormBody.Builder();
+        body.add("device", Device.get().toString());
+        body.add("config", Config.vod().toString());
+        body.add("targets", App.gson().toJson(History.get()));
+        return body.build();
+    }
+
     private Callback getCallback() {
         return new Callback() {
             @Override
@@ -136,6 +136,8 @@ public class App extends Application {
         Logger.addLogAdapter(getLogAdapter());
         OkHttp.get().setProxy(Setting.getProxy());
         OkHttp.get().setDoh(Doh.objectFrom(Setting.getDoh()));
+        OkHttp.get().setProfile(OkHttp.profile().maxRequestsPerHost(4 << Setting.getConnection()));
+        OkHttp.cache().setOffline(Setting.isOfflineFirst());
         // EventBus.builder().addIndex(new EventIndex()).installDefaultEventBus(); // 暂时注释，如果EventIndex不存在则删除
         EventBus.getDefault(); // 使用默认EventBus
         CaocConfig.Builder.create().backgroundMode(CaocConfig.BACKGROUND_MODE_SILENT).errorActivity(CrashActivity.class).apply();
@@ -7,7 +7,10 @@ public class Constant {
     public static final long INTERVAL_SEEK = TimeUnit.SECONDS.toMillis(10);
     public static final long INTERVAL_HIDE = TimeUnit.SECONDS.toMillis(5);
     public static final long INTERVAL_TRAFFIC = TimeUnit.SECONDS.toMillis(1);
+    public static final long INTERVAL_SEARCH = 300;
     public static final long TIMEOUT_VOD = TimeUnit.SECONDS.toMillis(30);
+    public static final long TIMEOUT_SEARCH = TimeUnit.SECONDS.toMillis(30);
+    public static final long TIMEOUT_SEARCH_SITE = TimeUnit.SECONDS.toMillis(10);
     public static final long TIMEOUT_LIVE = TimeUnit.SECONDS.toMillis(30);
     public static final long TIMEOUT_EPG = TimeUnit.SECONDS.toMillis(5);
     public static final long TIMEOUT_XML = TimeUnit.SECONDS.toMillis(15);
@@ -20,4 +23,5 @@ public class Constant {
     public static final long HISTORY_TIME = TimeUnit.DAYS.toMillis(60);
     public static final long OPED_LIMIT = TimeUnit.MINUTES.toMillis(5);
     public static final int THREAD_POOL = 10;
+    public static final int THREAD_SEARCH = 8;
 }
@@ -367,4 +367,84 @@ public class Setting {
     public static void putHistoryVisible(boolean visible) {
         Prefers.put("history_visible", visible);
     }
+
+    public static int getSearchCacheTtl() {
+        return Prefers.getInt("search_cache_ttl", 10);
+    }
+
+    public static void putSearchCacheTtl(int minutes) {
+        Prefers.put("search_cache_ttl", minutes);
+    }
+
+    public static int getSearchCacheSize() {
+        return Prefers.getInt("search_cache_size", 8);
+    }
+
+    public static void putSearchCacheSize(int size) {
+        Prefers.put("search_cache_size", size);
+    }
+
+    public static boolean isSearchCacheDisk() {
+        return Prefers.getBoolean("search_cache_disk", false);
+    }
+
+    public static void putSearchCacheDisk(boolean disk) {
+        Prefers.put("search_cache_disk", disk);
+    }
+
+    public static boolean isAdFilter() {
+        return Prefers.getBoolean("ad_filter", false);
+    }
+
+    public static void putAdFilter(boolean adFilter) {
+        Prefers.put("ad_filter", adFilter);
+    }
+
+    public static int getPrefetch() {
+        return Prefers.getInt("prefetch", 80);
+    }
+
+    public static void putPrefetch(int prefetch) {
+        Prefers.put("prefetch", prefetch);
+    }
+
+    public static boolean isAdaptive() {
+        return Prefers.getBoolean("adaptive", true);
+    }
+
+    public static void putAdaptive(boolean adaptive) {
+        Prefers.put("adaptive", adaptive);
+    }
+
+    public static int getAccelerate() {
+        return Prefers.getInt("accelerate", 0);
+    }
+
+    public static void putAccelerate(int accelerate) {
+        Prefers.put("accelerate", accelerate);
+    }
+
+    public static int getMediaCache() {
+        return Prefers.getInt("media_cache_size", 512);
+    }
+
+    public static void putMediaCache(int size) {
+        Prefers.put("media_cache_size", size);
+    }
+
+    public static boolean isOfflineFirst() {
+        return Prefers.getBoolean("offline_first", true);
+    }
+
+    public static void putOfflineFirst(boolean offlineFirst) {
+        Prefers.put("offline_first", offlineFirst);
+    }
+
+    public static int getConnection() {
+        return Prefers.getInt("connection", 2);
+    }
+
+    public static void putConnection(int connection) {
+        Prefers.put("connection", connection);
+    }
 }
@@ -1,5 +1,10 @@
 package com.fongmi.android.tv.api;
 
+import com.fongmi.android.tv.api.config.LiveConfig;
+import com.fongmi.android.tv.api.config.VodConfig;
+import com.github.catvod.net.HostMatcher;
+
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -177,6 +182,11 @@ public class AdBlocker {
             ".*\\.googletagmanager\\.com"
     );
 
+    /**
+     * 编译后的匹配器：精确域名、后缀树、子串、合并正则
+     */
+    private static volatile HostMatcher<Boolean> matcher = HostMatcher.of(getBuiltinHosts());
+
     /**
      * 获取所有内置广告域名
      * @return 完整的广告域名列表
@@ -235,36 +245,33 @@ public class AdBlocker {
         return TRACKING_ADS;
     }
 
+    private static List<String> getBuiltinHosts() {
+        List<String> rules = new ArrayList<>();
+        rules.addAll(GAMBLING_ADS);
+        rules.addAll(GENERAL_ADS);
+        rules.addAll(VIDEO_ADS);
+        rules.addAll(POPUP_ADS);
+        rules.addAll(MALICIOUS_ADS);
+        rules.addAll(TRACKING_ADS);
+        return rules;
+    }
+
     /**
-     * 检查是否应该拦截该域名
-     * @param host 要检查的域名
-     * @return true=应该拦截, false=不拦截
+     * 合并用户自定义规则并重新编译
      */
-    public static boolean shouldBlock(String host) {
-        if (host == null || host.isEmpty()) return false;
-        
-        // 检查所有分类
-        return checkInList(host, GAMBLING_ADS) ||
-               checkInList(host, GENERAL_ADS) ||
-               checkInList(host, VIDEO_ADS) ||
-               checkInList(host, POPUP_ADS) ||
-               checkInList(host, MALICIOUS_ADS) ||
-               checkInList(host, TRACKING_ADS);
+    public static void update() {
+        List<String> rules = getBuiltinHosts();
+        rules.addAll(VodConfig.get().getAds());
+        rules.addAll(LiveConfig.get().getAds());
+        matcher = HostMatcher.of(rules);
     }
 
     /**
-     * 检查域名是否在列表中（支持正则）
+     * 检查是否应该拦截该域名
+     * @param host 要检查的域名
+     * @return true=应该拦截, false=不拦截
      */
-    private static boolean checkInList(String host, List<String> list) {
-        for (String pattern : list) {
-            if (host.matches(pattern.replace("*", ".*"))) {
-                return true;
-            }
-            if (host.contains(pattern.replace(".*", ""))) {
-                return true;
-            }
-        }
-        return false;
+    public static boolean shouldBlock(String host) {
+        return matcher.matches(host);
     }
 }
-
@@ -3,6 +3,7 @@ package com.fongmi.android.tv.api;
 import android.util.Base64;
 
 import com.fongmi.android.tv.utils.UrlUtil;
+import com.github.catvod.net.OkCache;
 import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Json;
 import com.github.catvod.utils.Util;
@@ -15,20 +16,19 @@ import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
+import okhttp3.Headers;
 import okhttp3.HttpUrl;
-import okhttp3.Response;
 
 public class Decoder {
 
     private static final Pattern JS_URI = Pattern.compile("\"(\\.|\\.\\.)/(.?|.+?)\\.js\\?(.?|.+?)\"");
 
     public static String getJson(String url, String tag) throws Exception {
-        try (Response res = OkHttp.newCall(url, tag).execute()) {
-            HttpUrl httpUrl = res.request().url();
-            int size = HttpUrl.parse(url).querySize();
-            if (httpUrl.querySize() == size) url = httpUrl.toString();
-            return verify(url, res.body().string());
-        }
+        OkCache.Entry entry = OkHttp.cache().fetch(OkCache.Type.CONFIG, url, Headers.of(), tag);
+        HttpUrl httpUrl = HttpUrl.parse(entry.getUrl());
+        int size = HttpUrl.parse(url).querySize();
+        if (httpUrl != null && httpUrl.querySize() == size) url = httpUrl.toString();
+        return verify(url, entry.string());
     }
 
     private static String verify(String url, String data) throws Exception {
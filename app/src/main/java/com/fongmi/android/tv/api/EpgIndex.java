@@ -0,0 +1,127 @@
+package com.fongmi.android.tv.api;
+
+import com.fongmi.android.tv.bean.Epg;
+import com.fongmi.android.tv.bean.EpgData;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class EpgIndex {
+
+    private static final int MAGIC = 0x45504731;
+    private static final int HEADER = 4 + 8 + 8 + 8 + 4 + 8;
+
+    private final Map<String, Integer> offsets;
+    private final Map<String, String> srcs;
+    private MappedByteBuffer buffer;
+
+    private EpgIndex() {
+        this.offsets = new HashMap<>();
+        this.srcs = new HashMap<>();
+    }
+
+    static EpgIndex open(File index, File source, long day, int hash) {
+        if (!index.exists()) return null;
+        try (RandomAccessFile raf = new RandomAccessFile(index, "r"); FileChannel channel = raf.getChannel()) {
+            EpgIndex item = new EpgIndex();
+            item.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!item.header(source, day, hash)) return null;
+            return item;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static void write(File index, File source, long day, int hash, Map<String, String> srcs, Map<String, List<EpgData>> items) throws IOException {
+        File temp = new File(index.getPath() + ".tmp");
+        Map<String, Integer> offsets = new LinkedHashMap<>();
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            os.writeInt(MAGIC);
+            os.writeLong(source.lastModified());
+            os.writeLong(source.length());
+            os.writeLong(day);
+            os.writeInt(hash);
+            os.writeLong(0);
+            for (Map.Entry<String, List<EpgData>> entry : items.entrySet()) {
+                offsets.put(entry.getKey(), os.size());
+                os.writeInt(entry.getValue().size());
+                for (EpgData data : entry.getValue()) {
+                    os.writeLong(data.getStartTime());
+                    os.writeLong(data.getEndTime());
+                    writeString(os, data.getTitle());
+                }
+            }
+            long directory = os.size();
+            os.writeInt(offsets.size());
+            for (Map.Entry<String, Integer> entry : offsets.entrySet()) {
+                writeString(os, entry.getKey());
+                writeString(os, srcs.containsKey(entry.getKey()) ? srcs.get(entry.getKey()) : "");
+                os.writeInt(entry.getValue());
+            }
+            os.flush();
+            try (RandomAccessFile raf = new RandomAccessFile(temp, "rw")) {
+                raf.seek(HEADER - 8);
+                raf.writeLong(directory);
+            }
+        }
+        if (!temp.renameTo(index)) throw new IOException("rename failed: " + index);
+    }
+
+    private boolean header(File source, long day, int hash) {
+        if (buffer.capacity() < HEADER || buffer.getInt() != MAGIC) return false;
+        if (buffer.getLong() != source.lastModified() || buffer.getLong() != source.length()) return false;
+        if (buffer.getLong() != day || buffer.getInt() != hash) return false;
+        buffer.position((int) buffer.getLong());
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            String key = readString();
+            String src = readString();
+            offsets.put(key, buffer.getInt());
+            if (!src.isEmpty()) srcs.put(key, src);
+        }
+        return true;
+    }
+
+    boolean contains(String key) {
+        return offsets.containsKey(key);
+    }
+
+    String getSrc(String key) {
+        return srcs.get(key);
+    }
+
+    Epg read(String key, String date, EpgParser.Formats formats) {
+        Epg epg = Epg.create(key, date);
+        buffer.position(offsets.get(key));
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            long start = buffer.getLong();
+            long end = buffer.getLong();
+            epg.getList().add(formats.create(readString(), start, end));
+        }
+        return epg;
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream os, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        os.writeInt(bytes.length);
+        os.write(bytes);
+    }
+}
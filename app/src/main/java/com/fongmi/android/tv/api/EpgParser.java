@@ -1,6 +1,7 @@
 package com.fongmi.android.tv.api;
 
 import android.net.Uri;
+import android.util.Xml;
 
 import com.fongmi.android.tv.bean.Channel;
 import com.fongmi.android.tv.bean.Epg;
@@ -9,34 +10,47 @@ import com.fongmi.android.tv.bean.Group;
 import com.fongmi.android.tv.bean.Live;
 import com.fongmi.android.tv.bean.Tv;
 import com.fongmi.android.tv.utils.Download;
-import com.fongmi.android.tv.utils.FileUtil;
 import com.github.catvod.utils.Path;
 import com.github.catvod.utils.Trans;
 
 import org.simpleframework.xml.core.Persister;
+import org.xmlpull.v1.XmlPullParser;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 public class EpgParser {
 
-    private static final SimpleDateFormat formatTime = new SimpleDateFormat("HH:mm", Locale.getDefault());
-    private static final SimpleDateFormat formatDate = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-    private static final SimpleDateFormat formatFull = new SimpleDateFormat("yyyyMMddHHmmss Z", Locale.getDefault());
+    private static final ThreadLocal<Formats> formats = ThreadLocal.withInitial(Formats::new);
 
     public static boolean start(Live live, String url) throws Exception {
         File file = Path.epg(Uri.parse(url).getLastPathSegment());
         if (shouldDownload(file)) Download.create(url, file).start();
-        if (file.getName().endsWith(".gz")) readGzip(live, file);
-        else readXml(live, file);
+        Set<String> exist = new HashSet<>();
+        for (Group group : live.getGroups()) for (Channel channel : group.getChannel()) exist.add(channel.getTvgId());
+        long day = getDay();
+        int hash = exist.hashCode();
+        File index = Path.epg(file.getName() + ".idx");
+        EpgIndex item = EpgIndex.open(index, file, day, hash);
+        if (item == null) readXml(file, index, exist, day, hash);
+        if (item == null) item = EpgIndex.open(index, file, day, hash);
+        if (item != null) apply(live, item);
         return true;
     }
 
@@ -50,36 +64,97 @@ public class EpgParser {
         return calendar.get(Calendar.DAY_OF_MONTH) == Calendar.getInstance().get(Calendar.DAY_OF_MONTH);
     }
 
-    private static void readGzip(Live live, File file) throws Exception {
-        File xml = Path.epg(file.getName().replace(".gz", ""));
-        if (!xml.exists()) FileUtil.gzipDecompress(file, xml);
-        readXml(live, xml);
+    private static long getDay() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
     }
 
-    private static void readXml(Live live, File file) throws Exception {
-        Set<String> exist = new HashSet<>();
-        Map<String, Epg> epgMap = new HashMap<>();
+    private static InputStream open(File file) throws IOException {
+        InputStream is = new BufferedInputStream(new FileInputStream(file), 64 * 1024);
+        return file.getName().endsWith(".gz") ? new GZIPInputStream(is, 64 * 1024) : is;
+    }
+
+    private static void readXml(File file, File index, Set<String> exist, long day, int hash) throws Exception {
         Map<String, String> srcMap = new HashMap<>();
         Map<String, Tv.Channel> mapping = new HashMap<>();
-        String today = formatDate.format(new Date());
-        Tv tv = new Persister().read(Tv.class, Path.read(file), false);
-        for (Group group : live.getGroups()) for (Channel channel : group.getChannel()) exist.add(channel.getTvgId());
-        for (Tv.Channel channel : tv.getChannel()) mapping.put(channel.getId(), channel);
-        for (Tv.Programme programme : tv.getProgramme()) {
-            String key = programme.getChannel();
-            Tv.Channel channel = mapping.get(key);
-            if (!exist.contains(key)) key = find(exist, channel);
-            Date startDate = parse(formatFull, programme.getStart());
-            Date endDate = parse(formatFull, programme.getStop());
-            if (!exist.contains(key) || !isToday(startDate.getTime())) continue;
-            if (!epgMap.containsKey(key)) epgMap.put(key, Epg.create(key, today));
-            epgMap.get(key).getList().add(getEpgData(startDate, endDate, programme));
-            if (channel != null && channel.hasSrc()) srcMap.put(key, channel.getSrc());
+        Map<String, List<EpgData>> epgMap = new HashMap<>();
+        try (InputStream is = open(file)) {
+            XmlPullParser parser = Xml.newPullParser();
+            parser.setInput(is, null);
+            int event;
+            while ((event = parser.next()) != XmlPullParser.END_DOCUMENT) {
+                if (event != XmlPullParser.START_TAG) continue;
+                if ("channel".equals(parser.getName())) readChannel(parser, mapping);
+                else if ("programme".equals(parser.getName())) readProgramme(parser, exist, day, mapping, srcMap, epgMap);
+            }
         }
+        EpgIndex.write(index, file, day, hash, srcMap, epgMap);
+    }
+
+    private static void readChannel(XmlPullParser parser, Map<String, Tv.Channel> mapping) throws Exception {
+        Tv.Channel channel = new Tv.Channel(parser.getAttributeValue(null, "id"));
+        int depth = parser.getDepth();
+        int event;
+        while ((event = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (event == XmlPullParser.END_TAG && parser.getDepth() == depth) break;
+            if (event != XmlPullParser.START_TAG) continue;
+            if ("display-name".equals(parser.getName())) channel.addDisplayName(parser.nextText().trim());
+            else if ("icon".equals(parser.getName())) channel.setIcon(parser.getAttributeValue(null, "src"));
+        }
+        mapping.put(channel.getId(), channel);
+    }
+
+    private static void readProgramme(XmlPullParser parser, Set<String> exist, long day, Map<String, Tv.Channel> mapping, Map<String, String> srcMap, Map<String, List<EpgData>> epgMap) throws Exception {
+        String key = parser.getAttributeValue(null, "channel");
+        Tv.Channel channel = mapping.get(key);
+        if (!exist.contains(key)) key = find(exist, channel);
+        long start = Formats.parse(parser.getAttributeValue(null, "start"));
+        long end = Formats.parse(parser.getAttributeValue(null, "stop"));
+        if (!exist.contains(key) || start < day || start >= day + TimeUnit.DAYS.toMillis(1)) {
+            skip(parser);
+            return;
+        }
+        String title = "";
+        int depth = parser.getDepth();
+        int event;
+        while ((event = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (event == XmlPullParser.END_TAG && parser.getDepth() == depth) break;
+            if (event == XmlPullParser.START_TAG && "title".equals(parser.getName()) && title.isEmpty()) title = parser.nextText().trim();
+        }
+        if (!epgMap.containsKey(key)) epgMap.put(key, new ArrayList<>());
+        epgMap.get(key).add(getEpgData(title, start, end));
+        if (channel != null && channel.hasSrc()) srcMap.put(key, channel.getSrc());
+    }
+
+    private static EpgData getEpgData(String title, long start, long end) {
+        EpgData epgData = new EpgData();
+        epgData.setTitle(title);
+        epgData.setStartTime(start);
+        epgData.setEndTime(end);
+        return epgData;
+    }
+
+    private static void skip(XmlPullParser parser) throws Exception {
+        int depth = 1;
+        while (depth > 0) {
+            int event = parser.next();
+            if (event == XmlPullParser.END_DOCUMENT) return;
+            if (event == XmlPullParser.START_TAG) depth++;
+            else if (event == XmlPullParser.END_TAG) depth--;
+        }
+    }
+
+    private static void apply(Live live, EpgIndex index) {
+        Formats format = formats.get();
+        String today = format.date.format(new Date());
         for (Group group : live.getGroups()) {
             for (Channel channel : group.getChannel()) {
-                if (epgMap.containsKey(channel.getTvgId())) channel.setData(epgMap.get(channel.getTvgId()));
-                if (srcMap.containsKey(channel.getTvgId())) channel.setLogo(srcMap.get(channel.getTvgId()));
+                if (index.contains(channel.getTvgId())) channel.setData(index.read(channel.getTvgId(), today, format));
+                if (index.getSrc(channel.getTvgId()) != null) channel.setLogo(index.getSrc(channel.getTvgId()));
             }
         }
     }
@@ -91,39 +166,70 @@ public class EpgParser {
     }
 
     public static Epg getEpg(String xml, String key) throws Exception {
+        Formats format = formats.get();
         Tv tv = new Persister().read(Tv.class, xml, false);
-        Epg epg = Epg.create(key, formatDate.format(parse(formatFull, tv.getDate())));
-        for (Tv.Programme programme : tv.getProgramme()) epg.getList().add(getEpgData(programme));
+        Epg epg = Epg.create(key, format.date.format(new Date(Formats.parse(tv.getDate()))));
+        for (Tv.Programme programme : tv.getProgramme()) epg.getList().add(format.create(programme.getTitle(), Formats.parse(programme.getStart()), Formats.parse(programme.getStop())));
         return epg;
     }
 
-    private static EpgData getEpgData(Tv.Programme programme) {
-        Date startDate = parse(formatFull, programme.getStart());
-        Date endDate = parse(formatFull, programme.getStop());
-        return getEpgData(startDate, endDate, programme);
-    }
+    static class Formats {
+
+        private final SimpleDateFormat time;
+        private final SimpleDateFormat date;
+
+        Formats() {
+            this.time = new SimpleDateFormat("HH:mm", Locale.getDefault());
+            this.date = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        }
 
-    private static EpgData getEpgData(Date startDate, Date endDate, Tv.Programme programme) {
-        try {
+        EpgData create(String title, long start, long end) {
             EpgData epgData = new EpgData();
-            epgData.setTitle(Trans.s2t(programme.getTitle()));
-            epgData.setStart(formatTime.format(startDate));
-            epgData.setEnd(formatTime.format(endDate));
-            epgData.setStartTime(startDate.getTime());
-            epgData.setEndTime(endDate.getTime());
+            epgData.setTitle(Trans.s2t(title));
+            epgData.setStart(time.format(new Date(start)));
+            epgData.setEnd(time.format(new Date(end)));
+            epgData.setStartTime(start);
+            epgData.setEndTime(end);
             return epgData;
-        } catch (Exception e) {
-            return new EpgData();
         }
-    }
 
-    private static Date parse(SimpleDateFormat format, String source) {
-        try {
-            return format.parse(source);
-        } catch (Exception e) {
-            Date date = new Date();
-            date.setTime(0);
-            return date;
+        static long parse(String source) {
+            if (source == null || source.length() < 14) return 0;
+            try {
+                int year = number(source, 0, 4);
+                int month = number(source, 4, 6);
+                int day = number(source, 6, 8);
+                long millis = TimeUnit.DAYS.toMillis(days(year, month, day));
+                millis += TimeUnit.HOURS.toMillis(number(source, 8, 10));
+                millis += TimeUnit.MINUTES.toMillis(number(source, 10, 12));
+                millis += TimeUnit.SECONDS.toMillis(number(source, 12, 14));
+                int zone = source.indexOf('+', 14);
+                if (zone < 0) zone = source.indexOf('-', 14);
+                if (zone < 0 || source.length() < zone + 5) return millis - TimeZone.getDefault().getOffset(millis);
+                long offset = TimeUnit.HOURS.toMillis(number(source, zone + 1, zone + 3)) + TimeUnit.MINUTES.toMillis(number(source, zone + 3, zone + 5));
+                return source.charAt(zone) == '+' ? millis - offset : millis + offset;
+            } catch (Exception e) {
+                return 0;
+            }
+        }
+
+        private static int number(String source, int start, int end) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                char c = source.charAt(i);
+                if (c < '0' || c > '9') throw new NumberFormatException(source);
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        private static long days(int year, int month, int day) {
+            year -= month <= 2 ? 1 : 0;
+            long era = (year >= 0 ? year : year - 399) / 400;
+            long yoe = year - era * 400;
+            long doy = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+            long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+            return era * 146097 + doe - 719468;
         }
     }
-}
\ No newline at end of file
+}
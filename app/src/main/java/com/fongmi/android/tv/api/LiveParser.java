@@ -12,66 +12,85 @@ import com.fongmi.android.tv.utils.UrlUtil;
 import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Json;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import okhttp3.Headers;
+import okhttp3.Response;
+
 public class LiveParser {
 
     private static final Pattern M3U = Pattern.compile("^(?!.*#genre#).*#EXT(?:M3U|INF).*", Pattern.MULTILINE);
-    private static final Pattern CATCHUP_REPLACE = Pattern.compile(".*catchup-replace=\"(.?|.+?)\".*");
-    private static final Pattern CATCHUP_SOURCE = Pattern.compile(".*catchup-source=\"(.?|.+?)\".*");
-    private static final Pattern CATCHUP = Pattern.compile(".*catchup=\"(.?|.+?)\".*");
-    private static final Pattern TVG_CHNO = Pattern.compile(".*tvg-chno=\"(.?|.+?)\".*");
-    private static final Pattern TVG_LOGO = Pattern.compile(".*tvg-logo=\"(.?|.+?)\".*");
-    private static final Pattern TVG_NAME = Pattern.compile(".*tvg-name=\"(.?|.+?)\".*");
-    private static final Pattern TVG_URL = Pattern.compile(".*tvg-url=\"(.?|.+?)\".*");
-    private static final Pattern TVG_ID = Pattern.compile(".*tvg-id=\"(.?|.+?)\".*");
-    private static final Pattern URL_TVG = Pattern.compile(".*url-tvg=\"(.?|.+?)\".*");
-    private static final Pattern GROUP = Pattern.compile(".*group-title=\"(.?|.+?)\".*");
-    private static final Pattern NAME = Pattern.compile(".*,(.+?)$");
-
-    private static String extract(String line, Pattern pattern) {
-        Matcher matcher = pattern.matcher(line.trim());
-        if (matcher.matches()) return matcher.group(1).trim();
-        return "";
-    }
-
-    private static String extract(String line, String... keywords) {
-        String[] splits = line.split(" ");
-        for (String split : splits) for (String keyword : keywords) if (split.contains(keyword)) return split.split("=")[1].replace("\"", "");
-        return "";
-    }
+    private static final int PEEK = 64 * 1024;
 
     public static void start(Live live) throws Exception {
         if (!live.getGroups().isEmpty()) return;
-        String text = getText(live);
+        try {
+            if (!live.getApi().isEmpty()) parse(live, live.spider().liveContent(live.getUrl()));
+            else stream(live, UrlUtil.convert(live.getUrl()));
+        } catch (Exception e) {
+            live.getGroups().clear();
+            throw e;
+        }
+    }
+
+    private static void parse(Live live, String text) {
         if (Json.isArray(text)) json(live, text);
         else text(live, text);
     }
 
-    private static String getText(Live live) throws Exception {
-        if (!live.getApi().isEmpty()) return live.spider().liveContent(live.getUrl());
-        return OkHttp.string(UrlUtil.convert(live.getUrl()), live.getHeaders());
+    private static void stream(Live live, String url) throws IOException {
+        if (!url.startsWith("http")) return;
+        try (Response res = OkHttp.newCall(url, Headers.of(live.getHeaders())).execute(); BufferedReader reader = new BufferedReader(res.body().charStream(), PEEK)) {
+            String head = peek(reader);
+            if (head.trim().startsWith("[")) parse(live, read(reader));
+            else if (M3U.matcher(head).find()) m3u(live, reader);
+            else txt(live, reader);
+            number(live);
+        }
+    }
+
+    private static String peek(BufferedReader reader) throws IOException {
+        int read, count = 0;
+        char[] buffer = new char[PEEK];
+        reader.mark(PEEK);
+        while (count < PEEK && (read = reader.read(buffer, count, PEEK - count)) != -1) count += read;
+        reader.reset();
+        return new String(buffer, 0, count);
+    }
+
+    private static String read(BufferedReader reader) throws IOException {
+        int read;
+        char[] buffer = new char[8192];
+        StringBuilder sb = new StringBuilder();
+        while ((read = reader.read(buffer)) != -1) sb.append(buffer, 0, read);
+        return sb.toString();
     }
 
     public static void text(Live live, String text) {
-        int number = 0;
         if (!live.getGroups().isEmpty()) return;
-        if (M3U.matcher(text).find()) m3u(live, text); else txt(live, text);
-        for (Group group : live.getGroups()) {
-            for (Channel channel : group.getChannel()) {
-                if (channel.getNumber().isEmpty()) channel.setNumber(++number);
-                channel.live(live);
-            }
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            if (M3U.matcher(text).find()) m3u(live, reader); else txt(live, reader);
+        } catch (IOException e) {
+            live.getGroups().clear();
         }
+        number(live);
     }
 
     private static void json(Live live, String text) {
-        int number = 0;
         live.getGroups().addAll(Group.arrayFrom(text));
+        number(live);
+    }
+
+    private static void number(Live live) {
+        int number = 0;
         for (Group group : live.getGroups()) {
             for (Channel channel : group.getChannel()) {
                 if (channel.getNumber().isEmpty()) channel.setNumber(++number);
@@ -80,33 +99,41 @@ public class LiveParser {
         }
     }
 
-    private static void m3u(Live live, String text) {
+    private static String clean(String line) {
+        return line.indexOf('\r') < 0 ? line : line.replace("\r", "");
+    }
+
+    private static void m3u(Live live, BufferedReader reader) throws IOException {
+        String line;
+        Index index = new Index(live);
+        Extinf extinf = new Extinf();
         Setting setting = Setting.create();
         Catchup catchup = Catchup.create();
         Channel channel = Channel.create("");
-        text = text.replace("\r\n", "\n").replace("\r", "");
-        for (String line : text.split("\n")) {
-            if (Thread.interrupted()) break;
+        while ((line = reader.readLine()) != null) {
+            if (Thread.interrupted()) throw new InterruptedIOException();
+            line = clean(line);
             if (setting.find(line)) {
                 setting.check(line);
             } else if (line.startsWith("#EXTM3U")) {
-                catchup.setType(extract(line, CATCHUP));
-                catchup.setSource(extract(line, CATCHUP_SOURCE));
-                catchup.setReplace(extract(line, CATCHUP_REPLACE));
-                if (live.getEpg().isEmpty()) live.setEpg(extract(line, TVG_URL).replace("\"", ""));
-                if (live.getEpg().isEmpty()) live.setEpg(extract(line, URL_TVG).replace("\"", ""));
-                if (live.getEpg().isEmpty()) live.setEpg(extract(line, "tvg-url=", "url-tvg="));
+                extinf.parse(line);
+                catchup.setType(extinf.get("catchup"));
+                catchup.setSource(extinf.get("catchup-source"));
+                catchup.setReplace(extinf.get("catchup-replace"));
+                if (live.getEpg().isEmpty()) live.setEpg(extinf.get("tvg-url"));
+                if (live.getEpg().isEmpty()) live.setEpg(extinf.get("url-tvg"));
             } else if (line.startsWith("#EXTINF:")) {
-                Group group = live.find(Group.create(extract(line, GROUP), live.isPass()));
-                channel = group.find(Channel.create(extract(line, NAME)));
-                channel.setTvgName(extract(line, TVG_NAME));
-                channel.setNumber(extract(line, TVG_CHNO));
-                channel.setLogo(extract(line, TVG_LOGO));
-                channel.setTvgId(extract(line, TVG_ID));
+                extinf.parse(line);
+                Group group = index.find(Group.create(extinf.get("group-title"), live.isPass()));
+                channel = index.find(group, Channel.create(extinf.getName()));
+                channel.setTvgName(extinf.get("tvg-name"));
+                channel.setNumber(extinf.get("tvg-chno"));
+                channel.setLogo(extinf.get("tvg-logo"));
+                channel.setTvgId(extinf.get("tvg-id"));
                 Catchup unknown = Catchup.create();
-                unknown.setType(extract(line, CATCHUP));
-                unknown.setSource(extract(line, CATCHUP_SOURCE));
-                unknown.setReplace(extract(line, CATCHUP_REPLACE));
+                unknown.setType(extinf.get("catchup"));
+                unknown.setSource(extinf.get("catchup-source"));
+                unknown.setReplace(extinf.get("catchup-replace"));
                 channel.setCatchup(Catchup.decide(unknown, catchup));
             } else if (!line.startsWith("#") && line.contains("://")) {
                 String[] split = line.split("\\|");
@@ -117,11 +144,13 @@ public class LiveParser {
         }
     }
 
-    private static void txt(Live live, String text) {
+    private static void txt(Live live, BufferedReader reader) throws IOException {
+        String line;
+        Index index = new Index(live);
         Setting setting = Setting.create();
-        text = text.replace("\r\n", "\n").replace("\r", "");
-        for (String line : text.split("\n")) {
-            if (Thread.interrupted()) break;
+        while ((line = reader.readLine()) != null) {
+            if (Thread.interrupted()) throw new InterruptedIOException();
+            line = clean(line);
             String[] split = line.split(",", 2);
             if (setting.find(line)) setting.check(line);
             if (line.contains("#genre#")) setting.clear();
@@ -129,13 +158,105 @@ public class LiveParser {
             if (split.length > 1 && live.getGroups().isEmpty()) live.getGroups().add(Group.create());
             if (split.length > 1 && split[1].contains("://")) {
                 Group group = live.getGroups().get(live.getGroups().size() - 1);
-                Channel channel = group.find(Channel.create(split[0]));
+                Channel channel = index.find(group, Channel.create(split[0]));
                 channel.addUrls(split[1].split("#"));
                 setting.copy(channel);
             }
         }
     }
 
+    private static class Index {
+
+        private final Map<Group, Map<String, Channel>> channels;
+        private final Map<String, Group> groups;
+        private final Live live;
+
+        public Index(Live live) {
+            this.live = live;
+            this.groups = new HashMap<>();
+            this.channels = new IdentityHashMap<>();
+            for (Group group : live.getGroups()) groups.putIfAbsent(group.getName(), group);
+        }
+
+        public Group find(Group item) {
+            Group group = groups.get(item.getName());
+            if (group != null) return group;
+            groups.put(item.getName(), item);
+            live.getGroups().add(item);
+            return item;
+        }
+
+        public Channel find(Group group, Channel item) {
+            if (item.getName().isEmpty()) return group.find(item);
+            Map<String, Channel> map = channels.get(group);
+            if (map == null) channels.put(group, map = create(group));
+            Channel channel = map.get(item.getName());
+            if (channel != null) return channel;
+            map.put(item.getName(), item);
+            group.getChannel().add(item);
+            return item;
+        }
+
+        private Map<String, Channel> create(Group group) {
+            Map<String, Channel> map = new HashMap<>();
+            for (Channel channel : group.getChannel()) if (!channel.getName().isEmpty()) map.putIfAbsent(channel.getName(), channel);
+            return map;
+        }
+    }
+
+    private static class Extinf {
+
+        private final Map<String, String> attrs;
+        private String name;
+
+        public Extinf() {
+            this.attrs = new HashMap<>();
+        }
+
+        public String get(String key) {
+            String value = attrs.get(key);
+            return value == null ? "" : value;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void parse(String line) {
+            int i = 0;
+            int n = line.length();
+            while (i < n && line.charAt(i) != ':' && line.charAt(i) != ' ') i++;
+            attrs.clear();
+            name = "";
+            i++;
+            while (i < n) {
+                char c = line.charAt(i);
+                if (c == ',') {
+                    name = line.substring(i + 1).trim();
+                    return;
+                }
+                if (c == ' ' || c == '\t') {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                while (i < n && (c = line.charAt(i)) != '=' && c != ' ' && c != '\t' && c != ',') i++;
+                if (i >= n || c != '=') continue;
+                String key = line.substring(start, i++);
+                if (i < n && line.charAt(i) == '"') {
+                    int end = line.indexOf('"', ++i);
+                    if (end < 0) end = n;
+                    attrs.put(key, line.substring(i, end).trim());
+                    i = end + 1;
+                } else {
+                    start = i;
+                    while (i < n && (c = line.charAt(i)) != ' ' && c != '\t' && c != ',') i++;
+                    attrs.put(key, line.substring(start, i).trim());
+                }
+            }
+        }
+    }
+
     private static class Setting {
 
         private String ua;
@@ -6,6 +6,7 @@ import android.text.TextUtils;
 import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.R;
 import com.fongmi.android.tv.Setting;
+import com.fongmi.android.tv.api.AdBlocker;
 import com.fongmi.android.tv.api.Decoder;
 import com.fongmi.android.tv.api.LiveParser;
 import com.fongmi.android.tv.api.loader.BaseLoader;
@@ -20,6 +21,7 @@ import com.fongmi.android.tv.db.AppDatabase;
 import com.fongmi.android.tv.impl.Callback;
 import com.fongmi.android.tv.ui.activity.LiveActivity;
 import com.fongmi.android.tv.utils.Notify;
+import com.fongmi.android.tv.utils.Sniffer;
 import com.fongmi.android.tv.utils.UrlUtil;
 import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Json;
@@ -220,8 +222,20 @@ public class LiveConfig {
         LiveActivity.start(App.get());
     }
 
-    public void parse(JsonObject object) {
-        parseConfig(object, null);
+    public void parseLive(JsonObject object) {
+        try {
+            initLive(object);
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void parseOther(JsonObject object) {
+        try {
+            initOther(object);
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
     }
 
     public void setKeep(Channel channel) {
@@ -273,18 +287,19 @@ public class LiveConfig {
 
     public void setRules(List<Rule> rules) {
         this.rules = rules;
+        Sniffer.setRules();
     }
 
     public void setHeaders(List<JsonElement> items) {
-        OkHttp.responseInterceptor().setHeaders(items);
+        OkHttp.router().addHeaders(items);
     }
 
     public void setHosts(List<String> hosts) {
-        OkHttp.dns().addAll(hosts);
+        OkHttp.router().addDns(hosts);
     }
 
     public void setProxy(List<String> hosts) {
-        OkHttp.selector().addAll(hosts);
+        OkHttp.router().addProxy(hosts);
     }
 
     public List<String> getAds() {
@@ -293,6 +308,7 @@ public class LiveConfig {
 
     private void setAds(List<String> ads) {
         this.ads = ads;
+        AdBlocker.update();
     }
 
     public List<Live> getLives() {
@@ -300,7 +316,7 @@ public class LiveConfig {
     }
 
     public Config getConfig() {
-        return config == null ? Config.live() : config;
+        return config == null ? Config.create(1) : config;
     }
 
     public Live getHome() {
@@ -4,6 +4,7 @@ import android.text.TextUtils;
 
 import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.R;
+import com.fongmi.android.tv.api.AdBlocker;
 import com.fongmi.android.tv.api.Decoder;
 import com.fongmi.android.tv.api.loader.BaseLoader;
 import com.fongmi.android.tv.bean.Config;
@@ -13,7 +14,10 @@ import com.fongmi.android.tv.bean.Rule;
 import com.fongmi.android.tv.bean.Site;
 import com.fongmi.android.tv.impl.Callback;
 import com.fongmi.android.tv.utils.Notify;
+import com.fongmi.android.tv.utils.Sniffer;
+import com.fongmi.android.tv.utils.Trace;
 import com.fongmi.android.tv.utils.UrlUtil;
+import com.fongmi.quickjs.utils.Module;
 import com.github.catvod.bean.Doh;
 import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Json;
@@ -23,6 +27,9 @@ import com.google.gson.JsonObject;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class VodConfig {
 
@@ -37,6 +44,7 @@ public class VodConfig {
     private Parse parse;
     private String wall;
     private Site home;
+    private final ExecutorService executor;
     private volatile boolean isLoading = false; // 添加加载状态标记
 
     private VodConfig() {
@@ -47,6 +55,7 @@ public class VodConfig {
         this.sites = new ArrayList<>();
         this.flags = new ArrayList<>();
         this.parses = new ArrayList<>();
+        this.executor = Executors.newFixedThreadPool(3);
     }
 
     private static class Loader {
@@ -160,11 +169,14 @@ public class VodConfig {
     private void loadConfig(Callback callback) {
         try {
             OkHttp.cancel("vod");
-            checkJson(Json.parse(Decoder.getJson(UrlUtil.convert(config.getUrl()), "vod")).getAsJsonObject(), callback);
+            Trace.get().start();
+            long time = Trace.now();
+            JsonObject object = Json.parse(Decoder.getJson(UrlUtil.convert(config.getUrl()), "vod")).getAsJsonObject();
+            Trace.get().add("json", time);
+            checkJson(object, callback);
         } catch (Throwable e) {
             if (TextUtils.isEmpty(config.getUrl())) {
-                isLoading = false;
-                App.post(() -> callback.error(""));
+                error(callback, "");
             } else {
                 loadCache(callback, e);
             }
@@ -176,14 +188,13 @@ public class VodConfig {
         if (!TextUtils.isEmpty(config.getJson())) {
             checkJson(Json.parse(config.getJson()).getAsJsonObject(), callback);
         } else {
-            isLoading = false;
-            App.post(() -> callback.error(Notify.getError(R.string.error_config_get, e)));
+            error(callback, Notify.getError(R.string.error_config_get, e));
         }
     }
 
     private void checkJson(JsonObject object, Callback callback) {
         if (object.has("msg")) {
-            App.post(() -> callback.error(object.get("msg").getAsString()));
+            error(callback, object.get("msg").getAsString());
         } else if (object.has("urls")) {
             parseDepot(object, callback);
         } else {
@@ -202,13 +213,25 @@ public class VodConfig {
 
     private void parseConfig(JsonObject object, Callback callback) {
         try {
+            Future<?> jar = stage("jar", () -> initSpider(object));
+            boolean lives = loadLive && object.has("lives");
+            boolean sync = lives && LiveConfig.get().needSync(config.getUrl());
+            Future<?> live = lives ? stage("live", () -> initLive(object, sync)) : null;
+            long time = Trace.now();
             initSite(object);
             initParse(object);
             initOther(object);
-            if (loadLive && object.has("lives")) initLive(object);
+            Trace.get().add("site", time);
+            initModule();
+            await(jar);
+            executor.execute(() -> getHome().spider());
+            await(live);
+            if (sync) LiveConfig.get().parseOther(object);
+            Trace.get().end();
             String notice = Json.safeString(object, "notice");
             config.logo(Json.safeString(object, "logo"));
             config.json(object.toString()).update();
+            BaseLoader.get().trim(sites, LiveConfig.get().getLives());
             
             // 重置加载状态
             isLoading = false;
@@ -221,15 +244,38 @@ public class VodConfig {
             }
         } catch (Throwable e) {
             e.printStackTrace();
-            // 重置加载状态
-            isLoading = false;
-            App.post(() -> callback.error(Notify.getError(R.string.error_config_parse, e)));
+            error(callback, Notify.getError(R.string.error_config_parse, e));
         }
     }
 
-    private void initSite(JsonObject object) {
+    private void error(Callback callback, String msg) {
+        BaseLoader.get().trim(sites, LiveConfig.get().getLives());
+        isLoading = false;
+        App.post(() -> callback.error(msg));
+    }
+
+    private Future<?> stage(String name, Runnable runnable) {
+        return executor.submit(() -> {
+            long time = Trace.now();
+            try {
+                runnable.run();
+            } finally {
+                Trace.get().add(name, time);
+            }
+        });
+    }
+
+    private void await(Future<?> future) {
+        try {
+            if (future != null) future.get();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void initSpider(JsonObject object) {
         if (object.has("video")) {
-            initSite(object.getAsJsonObject("video"));
+            initSpider(object.getAsJsonObject("video"));
             return;
         }
         String spider = Json.safeString(object, "spider");
@@ -239,7 +285,20 @@ public class VodConfig {
             android.util.Log.e("VodConfig", "Failed to parse spider jar: " + spider, e);
             e.printStackTrace();
         }
-        
+    }
+
+    private void initModule() {
+        List<String> apis = new ArrayList<>();
+        for (Site site : sites) if (site.getApi().startsWith("http") && site.getApi().contains(".js")) apis.add(site.getApi());
+        Module.get().prefetch(apis);
+    }
+
+    private void initSite(JsonObject object) {
+        if (object.has("video")) {
+            initSite(object.getAsJsonObject("video"));
+            return;
+        }
+        String spider = Json.safeString(object, "spider");
         for (JsonElement element : Json.safeListElement(object, "sites")) {
             try {
                 Site site = Site.objectFrom(element);
@@ -254,6 +313,7 @@ public class VodConfig {
                 // 继续处理下一个站点
             }
         }
+        prefetch(spider);
         for (Site site : sites) {
             if (site.getKey().equals(config.getHome())) {
                 setHome(site);
@@ -261,10 +321,15 @@ public class VodConfig {
         }
     }
 
-    private void initLive(JsonObject object) {
+    private void prefetch(String spider) {
+        List<String> jars = new ArrayList<>();
+        for (Site site : sites) if (site.getApi().startsWith("csp_") && !site.getJar().equals(spider)) jars.add(site.getJar());
+        BaseLoader.get().prefetch(jars);
+    }
+
+    private void initLive(JsonObject object, boolean sync) {
         Config temp = Config.find(config, 1).save();
-        boolean sync = LiveConfig.get().needSync(config.getUrl());
-        if (sync) LiveConfig.get().clear().config(temp).parse(object);
+        if (sync) LiveConfig.get().clear().config(temp).parseLive(object);
     }
 
     private void initParse(JsonObject object) {
@@ -311,6 +376,7 @@ public class VodConfig {
 
     public void setRules(List<Rule> rules) {
         this.rules = rules;
+        Sniffer.setRules();
     }
 
     public List<Site> getSites() {
@@ -335,7 +401,7 @@ public class VodConfig {
     }
 
     public void setHeaders(List<JsonElement> items) {
-        OkHttp.responseInterceptor().setHeaders(items);
+        OkHttp.router().addHeaders(items);
     }
 
     public List<String> getFlags() {
@@ -347,11 +413,11 @@ public class VodConfig {
     }
 
     public void setHosts(List<String> hosts) {
-        OkHttp.dns().addAll(hosts);
+        OkHttp.router().addDns(hosts);
     }
 
     public void setProxy(List<String> hosts) {
-        OkHttp.selector().addAll(hosts);
+        OkHttp.router().addProxy(hosts);
     }
 
     public List<String> getAds() {
@@ -360,10 +426,11 @@ public class VodConfig {
 
     private void setAds(List<String> ads) {
         this.ads = ads;
+        AdBlocker.update();
     }
 
     public Config getConfig() {
-        return config == null ? Config.vod() : config;
+        return config == null ? Config.create(0) : config;
     }
 
     public Parse getParse() {
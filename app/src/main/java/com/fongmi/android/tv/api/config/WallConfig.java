@@ -63,7 +63,7 @@ public class WallConfig {
     }
 
     public Config getConfig() {
-        return config == null ? Config.wall() : config;
+        return config == null ? Config.create(2) : config;
     }
 
     public void load(Callback callback) {
@@ -13,8 +13,11 @@ import com.github.catvod.utils.Util;
 import org.json.JSONObject;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import dalvik.system.DexClassLoader;
 
@@ -44,6 +47,13 @@ public class BaseLoader {
         this.jsLoader.clear();
     }
 
+    public void trim(List<Site> sites, List<Live> lives) {
+        Set<String> keys = new HashSet<>();
+        for (Site site : sites) keys.add(Util.md5(site.getJar()) + site.getKey());
+        for (Live live : lives) keys.add(Util.md5(live.getJar()) + live.getName());
+        this.jarLoader.trim(keys);
+    }
+
     public Spider getSpider(String key, String api, String ext, String jar) {
         boolean js = api.contains(".js");
         boolean py = api.contains(".py");
@@ -88,6 +98,10 @@ public class BaseLoader {
         if (recent) jarLoader.setRecent(Util.md5(jar));
     }
 
+    public void prefetch(List<String> jars) {
+        jarLoader.prefetch(jars);
+    }
+
     public DexClassLoader dex(String jar) {
         return jarLoader.dex(jar);
     }
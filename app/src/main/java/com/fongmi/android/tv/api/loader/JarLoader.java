@@ -1,11 +1,13 @@
 package com.fongmi.android.tv.api.loader;
 
 import android.content.Context;
+import android.text.TextUtils;
 
 import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.utils.UrlUtil;
 import com.github.catvod.crawler.Spider;
 import com.github.catvod.crawler.SpiderNull;
+import com.github.catvod.net.OkCache;
 import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Path;
 import com.github.catvod.utils.Util;
@@ -15,8 +17,11 @@ import org.json.JSONObject;
 import java.io.File;
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import dalvik.system.DexClassLoader;
@@ -24,21 +29,42 @@ import dalvik.system.DexClassLoader;
 public class JarLoader {
 
     private final ConcurrentHashMap<String, DexClassLoader> loaders;
+    private final ConcurrentHashMap<String, DexClassLoader> dexes;
     private final ConcurrentHashMap<String, Method> methods;
     private final ConcurrentHashMap<String, Spider> spiders;
+    private final ConcurrentHashMap<String, String> signs;
+    private final ConcurrentHashMap<String, String> md5s;
+    private final ConcurrentHashMap<String, Object> locks;
+    private final ConcurrentHashMap<String, Warm> warms;
     private String recent;
 
     public JarLoader() {
         loaders = new ConcurrentHashMap<>();
         methods = new ConcurrentHashMap<>();
         spiders = new ConcurrentHashMap<>();
+        dexes = new ConcurrentHashMap<>();
+        signs = new ConcurrentHashMap<>();
+        locks = new ConcurrentHashMap<>();
+        warms = new ConcurrentHashMap<>();
+        md5s = new ConcurrentHashMap<>();
     }
 
     public void clear() {
-        for (Spider spider : spiders.values()) App.execute(spider::destroy);
+        dexes.values().retainAll(loaders.values());
+        for (Map.Entry<String, Spider> entry : spiders.entrySet()) warms.put(entry.getKey(), new Warm(entry.getValue(), signs.get(entry.getKey())));
         loaders.clear();
         methods.clear();
         spiders.clear();
+        signs.clear();
+        md5s.clear();
+    }
+
+    public void trim(Set<String> keys) {
+        for (Map.Entry<String, Warm> entry : warms.entrySet()) {
+            if (keys.contains(entry.getKey())) continue;
+            App.execute(entry.getValue().spider::destroy);
+            warms.remove(entry.getKey());
+        }
     }
 
     public void setRecent(String recent) {
@@ -47,9 +73,16 @@ public class JarLoader {
 
     private void load(String key, File file) {
         try {
-            if (!file.setReadOnly()) return;
-            loaders.put(key, dex(file));
-            invokeInit(key);
+            String md5 = Util.md5(file);
+            DexClassLoader loader = dexes.get(md5);
+            if (loader == null) {
+                if (!file.setReadOnly()) return;
+                loader = dex(file);
+                invokeInit(loader);
+                dexes.put(md5, loader);
+            }
+            loaders.put(key, loader);
+            md5s.put(key, md5);
             putProxy(key);
         } catch (Throwable e) {
             android.util.Log.e("JarLoader", "Failed to load jar for key: " + key, e);
@@ -61,9 +94,9 @@ public class JarLoader {
         return new DexClassLoader(file.getAbsolutePath(), Path.jar().getAbsolutePath(), null, App.get().getClassLoader());
     }
 
-    private void invokeInit(String key) {
+    private void invokeInit(DexClassLoader loader) {
         try {
-            Class<?> clz = loaders.get(key).loadClass("com.github.catvod.spider.Init");
+            Class<?> clz = loader.loadClass("com.github.catvod.spider.Init");
             Method method = clz.getMethod("init", Context.class);
             method.invoke(clz, App.get());
         } catch (Throwable e) {
@@ -83,13 +116,34 @@ public class JarLoader {
 
     private File download(String url) {
         try {
-            return Path.write(Path.jar(url), OkHttp.bytes(url));
+            OkCache.Entry entry = OkHttp.cache().fetch(OkCache.Type.JAR, url);
+            if (entry.getFile() != null) return entry.getFile();
+            File file = Path.jar(url);
+            return file.exists() ? file : Path.write(file, entry.bytes());
         } catch (Exception e) {
             return Path.jar(url);
         }
     }
 
-    public synchronized void parseJar(String key, String jar) {
+    private Object lock(String key) {
+        Object lock = locks.get(key);
+        if (lock != null) return lock;
+        locks.putIfAbsent(key, new Object());
+        return locks.get(key);
+    }
+
+    public void prefetch(List<String> jars) {
+        for (String jar : new HashSet<>(jars)) if (!TextUtils.isEmpty(jar)) App.execute(() -> parseJar(Util.md5(jar), jar));
+    }
+
+    public void parseJar(String key, String jar) {
+        if (loaders.containsKey(key)) return;
+        synchronized (lock(key)) {
+            parse(key, jar);
+        }
+    }
+
+    private void parse(String key, String jar) {
         try {
             if (loaders.containsKey(key)) return;
             String[] texts = jar.split(";md5;");
@@ -128,16 +182,32 @@ public class JarLoader {
             String spKey = jaKey + key;
             if (spiders.containsKey(spKey)) return spiders.get(spKey);
             if (!loaders.containsKey(jaKey)) parseJar(jaKey, jar);
-            Spider spider = (Spider) loaders.get(jaKey).loadClass("com.github.catvod.spider." + api.split("csp_")[1]).newInstance();
-            spider.init(App.get(), ext);
-            spiders.put(spKey, spider);
-            return spider;
+            synchronized (lock(spKey)) {
+                if (spiders.containsKey(spKey)) return spiders.get(spKey);
+                String sign = api + "\n" + ext + "\n" + md5s.get(jaKey);
+                Spider spider = reuse(spKey, sign);
+                if (spider == null) {
+                    spider = (Spider) loaders.get(jaKey).loadClass("com.github.catvod.spider." + api.split("csp_")[1]).newInstance();
+                    spider.init(App.get(), ext);
+                }
+                spiders.put(spKey, spider);
+                signs.put(spKey, sign);
+                return spider;
+            }
         } catch (Throwable e) {
             e.printStackTrace();
             return new SpiderNull();
         }
     }
 
+    private Spider reuse(String key, String sign) {
+        Warm warm = warms.remove(key);
+        if (warm == null) return null;
+        if (sign.equals(warm.sign)) return warm.spider;
+        App.execute(warm.spider::destroy);
+        return null;
+    }
+
     public JSONObject jsonExt(String key, LinkedHashMap<String, String> jxs, String url) throws Throwable {
         Class<?> clz = loaders.get(recent).loadClass("com.github.catvod.parser.Json" + key);
         Method method = clz.getMethod("parse", LinkedHashMap.class, String.class);
@@ -172,4 +242,15 @@ public class JarLoader {
             return null;
         }
     }
+
+    private static class Warm {
+
+        private final Spider spider;
+        private final String sign;
+
+        Warm(Spider spider, String sign) {
+            this.spider = spider;
+            this.sign = sign;
+        }
+    }
 }
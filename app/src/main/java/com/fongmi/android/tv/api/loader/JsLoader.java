@@ -1,6 +1,7 @@
 package com.fongmi.android.tv.api.loader;
 
 import com.fongmi.android.tv.App;
+import com.fongmi.quickjs.utils.Module;
 import com.github.catvod.crawler.Spider;
 import com.github.catvod.crawler.SpiderNull;
 
@@ -10,28 +11,41 @@ import java.util.concurrent.ConcurrentHashMap;
 public class JsLoader {
 
     private final ConcurrentHashMap<String, Spider> spiders;
+    private final ConcurrentHashMap<String, Object> locks;
     private String recent;
 
     public JsLoader() {
         spiders = new ConcurrentHashMap<>();
+        locks = new ConcurrentHashMap<>();
     }
 
     public void clear() {
         for (Spider spider : spiders.values()) App.execute(spider::destroy);
         spiders.clear();
+        Module.get().clear();
     }
 
     public void setRecent(String recent) {
         this.recent = recent;
     }
 
+    private Object lock(String key) {
+        Object lock = locks.get(key);
+        if (lock != null) return lock;
+        locks.putIfAbsent(key, new Object());
+        return locks.get(key);
+    }
+
     public Spider getSpider(String key, String api, String ext, String jar) {
         try {
             if (spiders.containsKey(key)) return spiders.get(key);
-            Spider spider = new com.fongmi.quickjs.crawler.Spider(key, api, BaseLoader.get().dex(jar));
-            spider.init(App.get(), ext);
-            spiders.put(key, spider);
-            return spider;
+            synchronized (lock(key)) {
+                if (spiders.containsKey(key)) return spiders.get(key);
+                Spider spider = new com.fongmi.quickjs.crawler.Spider(key, api, BaseLoader.get().dex(jar));
+                spider.init(App.get(), ext);
+                spiders.put(key, spider);
+                return spider;
+            }
         } catch (Throwable e) {
             e.printStackTrace();
             return new SpiderNull();
@@ -0,0 +1,175 @@
+package com.fongmi.android.tv.api.search;
+
+import androidx.annotation.NonNull;
+import androidx.collection.LruCache;
+
+import com.fongmi.android.tv.App;
+import com.fongmi.android.tv.Setting;
+import com.fongmi.android.tv.bean.Result;
+import com.fongmi.android.tv.bean.Site;
+import com.github.catvod.utils.Path;
+import com.github.catvod.utils.Trans;
+import com.github.catvod.utils.Util;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class SearchCache {
+
+    private static final int STALE = 6;
+
+    private final LruCache<String, Entry> memory;
+    private final Set<String> refreshing;
+
+    private static class Loader {
+        static volatile SearchCache INSTANCE = new SearchCache();
+    }
+
+    public static SearchCache get() {
+        return Loader.INSTANCE;
+    }
+
+    private SearchCache() {
+        this.refreshing = ConcurrentHashMap.newKeySet();
+        this.memory = new LruCache<>(getBudget()) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull Entry value) {
+                return value.getSize();
+            }
+        };
+    }
+
+    public static String key(Site site, String keyword, boolean quick, String page) {
+        return site.getKey() + "\n" + Util.md5(site.getApi() + site.getExt()) + "\n" + Trans.t2s(keyword).trim().toLowerCase() + "\n" + quick + "\n" + page;
+    }
+
+    public void resize() {
+        memory.resize(getBudget());
+    }
+
+    private static int getBudget() {
+        return Math.max(1, Setting.getSearchCacheSize()) * 1024 * 1024;
+    }
+
+    private static long getTtl() {
+        return TimeUnit.MINUTES.toMillis(Math.max(0, Setting.getSearchCacheTtl()));
+    }
+
+    private File getDir() {
+        return Path.cache("search");
+    }
+
+    private File getFile(String key) {
+        return new File(getDir(), Util.md5(key));
+    }
+
+    public Result get(String key) {
+        Entry entry = find(key);
+        return entry == null || getAge(entry) >= getTtl() * STALE ? null : entry.getResult();
+    }
+
+    public boolean isFresh(String key) {
+        Entry entry = find(key);
+        return entry != null && getAge(entry) < getTtl();
+    }
+
+    public Result fetch(String key, Callable<Result> loader) throws Exception {
+        Entry entry = find(key);
+        long age = entry == null ? Long.MAX_VALUE : getAge(entry);
+        if (age < getTtl()) return entry.getResult();
+        if (age < getTtl() * STALE) {
+            refresh(key, loader);
+            return entry.getResult();
+        }
+        return put(key, loader.call());
+    }
+
+    private void refresh(String key, Callable<Result> loader) {
+        if (!refreshing.add(key)) return;
+        App.execute(() -> {
+            try {
+                put(key, loader.call());
+            } catch (Exception ignored) {
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    public Result put(String key, Result result) {
+        if (getTtl() == 0 || result.getList().isEmpty()) return result;
+        Entry entry = new Entry(System.currentTimeMillis(), result.toString());
+        memory.put(key, entry);
+        if (Setting.isSearchCacheDisk()) App.execute(() -> write(key, entry));
+        return result;
+    }
+
+    private long getAge(Entry entry) {
+        return System.currentTimeMillis() - entry.getTime();
+    }
+
+    private Entry find(String key) {
+        Entry entry = memory.get(key);
+        if (entry != null || !Setting.isSearchCacheDisk()) return entry;
+        File file = getFile(key);
+        if (!file.exists()) return null;
+        entry = Entry.objectFrom(Path.read(file));
+        if (entry != null) memory.put(key, entry);
+        return entry;
+    }
+
+    private synchronized void write(String key, Entry entry) {
+        Path.write(getFile(key), App.gson().toJson(entry).getBytes());
+        trim();
+    }
+
+    private void trim() {
+        long size = 0;
+        List<File> files = Path.list(getDir());
+        files.sort((o1, o2) -> Long.compare(o2.lastModified(), o1.lastModified()));
+        for (File file : files) if ((size += file.length()) > getBudget()) Path.clear(file);
+    }
+
+    public void clear() {
+        memory.evictAll();
+        Path.clear(getDir());
+    }
+
+    static class Entry {
+
+        @SerializedName("time")
+        private long time;
+        @SerializedName("json")
+        private String json;
+
+        static Entry objectFrom(String str) {
+            try {
+                return App.gson().fromJson(str, Entry.class);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        Entry(long time, String json) {
+            this.time = time;
+            this.json = json;
+        }
+
+        long getTime() {
+            return time;
+        }
+
+        int getSize() {
+            return json == null ? 0 : json.length() * 2;
+        }
+
+        Result getResult() {
+            return Result.objectFrom(json);
+        }
+    }
+}
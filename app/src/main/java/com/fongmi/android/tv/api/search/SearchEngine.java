@@ -0,0 +1,55 @@
+package com.fongmi.android.tv.api.search;
+
+import com.fongmi.android.tv.Constant;
+import com.fongmi.android.tv.bean.Result;
+import com.fongmi.android.tv.bean.Site;
+import com.fongmi.android.tv.impl.SearchCallback;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SearchEngine {
+
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger id;
+
+    private static class Loader {
+        static volatile SearchEngine INSTANCE = new SearchEngine();
+    }
+
+    public static SearchEngine get() {
+        return Loader.INSTANCE;
+    }
+
+    private SearchEngine() {
+        this.id = new AtomicInteger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.executor = new ThreadPoolExecutor(Constant.THREAD_SEARCH, Constant.THREAD_SEARCH, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public interface Task {
+
+        Result search(Site site, String tag, long timeout) throws Exception;
+    }
+
+    public SearchSession start(List<Site> sites, String keyword, boolean quick, Task task, SearchCallback callback) {
+        SearchSession session = new SearchSession(this, "search_" + id.incrementAndGet(), sites, keyword, quick, task, callback);
+        session.start();
+        return session;
+    }
+
+    ThreadPoolExecutor executor() {
+        return executor;
+    }
+
+    ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+}
@@ -0,0 +1,226 @@
+package com.fongmi.android.tv.api.search;
+
+import com.fongmi.android.tv.App;
+import com.fongmi.android.tv.Constant;
+import com.fongmi.android.tv.bean.Result;
+import com.fongmi.android.tv.bean.Site;
+import com.fongmi.android.tv.bean.Vod;
+import com.fongmi.android.tv.impl.SearchCallback;
+import com.fongmi.quickjs.crawler.Pool;
+import com.github.catvod.net.OkHttp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class SearchSession {
+
+    private final Map<String, Future<?>> running;
+    private final SearchCallback callback;
+    private final SearchEngine engine;
+    private final SearchEngine.Task task;
+    private final List<Result> buffer;
+    private final Queue<Site> pending;
+    private final Map<String, Set<String>> seen;
+    private final String keyword;
+    private final boolean quick;
+    private final String tag;
+
+    private ScheduledFuture<?> deadline;
+    private ScheduledFuture<?> flush;
+    private boolean cancelled;
+    private boolean finished;
+    private boolean held;
+    private boolean posted;
+    private boolean paused;
+    private long remaining;
+
+    SearchSession(SearchEngine engine, String tag, List<Site> sites, String keyword, boolean quick, SearchEngine.Task task, SearchCallback callback) {
+        this.pending = new ArrayDeque<>(filter(sites));
+        this.keyword = keyword.trim().toLowerCase();
+        this.buffer = new ArrayList<>();
+        this.running = new HashMap<>();
+        this.callback = callback;
+        this.quick = quick;
+        this.seen = new HashMap<>();
+        this.engine = engine;
+        this.task = task;
+        this.tag = tag;
+    }
+
+    private List<Site> filter(List<Site> sites) {
+        List<Site> items = new ArrayList<>();
+        for (Site site : sites) if (!SiteHealth.get().isOpen(site.getKey())) items.add(site);
+        SiteHealth.get().sort(items);
+        return items;
+    }
+
+    synchronized void start() {
+        held = true;
+        Pool.get().hold();
+        deadline = engine.scheduler().schedule(this::finish, Constant.TIMEOUT_SEARCH, TimeUnit.MILLISECONDS);
+        dispatch();
+        if (running.isEmpty()) finish();
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    public synchronized void pause() {
+        if (paused || cancelled || finished) return;
+        paused = true;
+        if (deadline == null) return;
+        remaining = Math.max(0, deadline.getDelay(TimeUnit.MILLISECONDS));
+        deadline.cancel(false);
+        deadline = null;
+    }
+
+    public synchronized void resume() {
+        if (!paused) return;
+        paused = false;
+        if (cancelled || finished) return;
+        deadline = engine.scheduler().schedule(this::finish, remaining, TimeUnit.MILLISECONDS);
+        dispatch();
+    }
+
+    public synchronized void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+        stop();
+        buffer.clear();
+    }
+
+    private void dispatch() {
+        while (!paused && !cancelled && !finished && running.size() < Constant.THREAD_SEARCH && !pending.isEmpty()) submit(pending.poll());
+    }
+
+    private void submit(Site site) {
+        String key = site.getKey();
+        String cache = SearchCache.key(site, keyword, quick, "1");
+        long timeout = SiteHealth.get().getTimeout(key);
+        running.put(key, engine.executor().submit(() -> run(site, cache, timeout)));
+        engine.scheduler().schedule(() -> expire(key, timeout), timeout, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(Site site, String cache, long timeout) {
+        long start = System.currentTimeMillis();
+        try {
+            Result cached = SearchCache.get().get(cache);
+            if (cached != null) onResult(site, cached);
+            if (cached != null && SearchCache.get().isFresh(cache)) return;
+            Result result = task.search(site, getTag(site.getKey()), timeout);
+            if (isRunning(site.getKey())) SiteHealth.get().success(site.getKey(), System.currentTimeMillis() - start, result.getList().isEmpty());
+            onResult(site, SearchCache.get().put(cache, result));
+        } catch (Throwable e) {
+            if (isRunning(site.getKey())) SiteHealth.get().error(site.getKey(), System.currentTimeMillis() - start);
+        } finally {
+            onDone(site.getKey());
+        }
+    }
+
+    private synchronized boolean isRunning(String key) {
+        return !cancelled && !finished && running.containsKey(key);
+    }
+
+    private synchronized void expire(String key, long timeout) {
+        Future<?> future = running.remove(key);
+        if (future == null) return;
+        SiteHealth.get().error(key, timeout);
+        future.cancel(true);
+        OkHttp.cancel(getTag(key));
+        next();
+    }
+
+    private synchronized void onDone(String key) {
+        if (running.remove(key) == null) return;
+        next();
+    }
+
+    private void next() {
+        dispatch();
+        if (running.isEmpty() && pending.isEmpty()) finish();
+    }
+
+    private synchronized void onResult(Site site, Result result) {
+        if (cancelled || finished || result == null) return;
+        Set<String> ids = seen.get(site.getKey());
+        if (ids == null) seen.put(site.getKey(), ids = new HashSet<>());
+        Iterator<Vod> iterator = result.getList().iterator();
+        while (iterator.hasNext()) if (!isNew(ids, iterator.next())) iterator.remove();
+        if (result.getList().isEmpty()) return;
+        for (Vod vod : result.getList()) vod.setSite(site);
+        Collections.sort(result.getList(), (o1, o2) -> Integer.compare(score(o2), score(o1)));
+        buffer.add(result);
+        if (flush == null) flush = engine.scheduler().schedule(this::flush, posted ? Constant.INTERVAL_SEARCH : 0, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        List<Result> items;
+        synchronized (this) {
+            flush = null;
+            if (cancelled || buffer.isEmpty()) return;
+            items = new ArrayList<>(buffer);
+            buffer.clear();
+            posted = true;
+        }
+        Collections.sort(items, (o1, o2) -> Integer.compare(score(o2.getList().get(0)), score(o1.getList().get(0))));
+        App.post(() -> {
+            if (!isCancelled()) callback.onResult(items);
+        });
+    }
+
+    private void finish() {
+        synchronized (this) {
+            if (cancelled || finished) return;
+            finished = true;
+            pending.clear();
+            stop();
+        }
+        flush();
+        App.post(() -> {
+            if (!isCancelled()) callback.onComplete();
+        });
+    }
+
+    private void stop() {
+        if (held) Pool.get().unhold();
+        held = false;
+        if (flush != null) flush.cancel(false);
+        if (deadline != null) deadline.cancel(false);
+        for (Map.Entry<String, Future<?>> entry : running.entrySet()) {
+            entry.getValue().cancel(true);
+            OkHttp.cancel(getTag(entry.getKey()));
+        }
+        running.clear();
+        pending.clear();
+        flush = null;
+    }
+
+    private int score(Vod vod) {
+        String name = vod.getVodName().trim().toLowerCase();
+        if (name.equals(keyword)) return 3;
+        if (name.startsWith(keyword)) return 2;
+        if (name.contains(keyword)) return 1;
+        return 0;
+    }
+
+    private boolean isNew(Set<String> ids, Vod vod) {
+        String id = vod.getVodId();
+        return id.isEmpty() || ids.add(id);
+    }
+
+    private String getTag(String key) {
+        return tag + "_" + key;
+    }
+}
@@ -0,0 +1,132 @@
+package com.fongmi.android.tv.api.search;
+
+import com.fongmi.android.tv.Constant;
+import com.fongmi.android.tv.bean.Site;
+import com.fongmi.android.tv.utils.HealthStore;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class SiteHealth {
+
+    private static final int SAMPLES = 32;
+    private static final int MIN_SAMPLES = 5;
+    private static final int MAX_FAILURES = 3;
+    private static final float ALPHA = 0.2f;
+    private static final long MIN_TIMEOUT = TimeUnit.SECONDS.toMillis(3);
+    private static final long MIN_BREAK = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_BREAK = TimeUnit.MINUTES.toMillis(30);
+
+    private final HealthStore<Stat> store;
+
+    private static class Loader {
+        static volatile SiteHealth INSTANCE = new SiteHealth();
+    }
+
+    public static SiteHealth get() {
+        return Loader.INSTANCE;
+    }
+
+    private SiteHealth() {
+        this.store = new HealthStore<>("site_health.json", new TypeToken<Map<String, Stat>>() {}.getType(), Stat::new);
+    }
+
+    public void success(String key, long elapsed, boolean empty) {
+        store.stat(key).success(elapsed, empty);
+        store.save();
+    }
+
+    public void error(String key, long elapsed) {
+        store.stat(key).error(elapsed);
+        store.save();
+    }
+
+    public boolean isOpen(String key) {
+        return store.find(key).isOpen();
+    }
+
+    public long getTimeout(String key) {
+        return store.find(key).getTimeout();
+    }
+
+    public void sort(List<Site> sites) {
+        Map<String, Long> costs = new HashMap<>();
+        for (Site site : sites) costs.put(site.getKey(), store.find(site.getKey()).getCost());
+        Collections.sort(sites, (o1, o2) -> Long.compare(costs.get(o1.getKey()), costs.get(o2.getKey())));
+    }
+
+    public void clear() {
+        store.clear();
+    }
+
+    static class Stat {
+
+        @SerializedName("latency")
+        private int[] latency;
+        @SerializedName("index")
+        private int index;
+        @SerializedName("count")
+        private int count;
+        @SerializedName("errorRate")
+        private float errorRate;
+        @SerializedName("emptyRate")
+        private float emptyRate;
+        @SerializedName("failures")
+        private int failures;
+        @SerializedName("lastSuccess")
+        private long lastSuccess;
+        @SerializedName("openUntil")
+        private long openUntil;
+
+        private synchronized void add(long elapsed) {
+            if (latency == null || latency.length != SAMPLES) latency = new int[SAMPLES];
+            latency[index] = (int) Math.min(elapsed, Integer.MAX_VALUE);
+            index = (index + 1) % SAMPLES;
+            count = Math.min(count + 1, SAMPLES);
+        }
+
+        synchronized void success(long elapsed, boolean empty) {
+            add(elapsed);
+            errorRate = errorRate * (1 - ALPHA);
+            emptyRate = emptyRate * (1 - ALPHA) + (empty ? ALPHA : 0);
+            lastSuccess = System.currentTimeMillis();
+            openUntil = 0;
+            failures = 0;
+        }
+
+        synchronized void error(long elapsed) {
+            add(elapsed);
+            errorRate = errorRate * (1 - ALPHA) + ALPHA;
+            if (++failures < MAX_FAILURES) return;
+            long backoff = MIN_BREAK << Math.min(failures - MAX_FAILURES, 6);
+            openUntil = System.currentTimeMillis() + Math.min(backoff, MAX_BREAK);
+        }
+
+        synchronized boolean isOpen() {
+            return openUntil > System.currentTimeMillis();
+        }
+
+        synchronized long percentile(float p) {
+            if (count == 0) return 0;
+            int[] items = Arrays.copyOf(latency, count);
+            Arrays.sort(items);
+            return items[Math.min(count - 1, (int) (count * p))];
+        }
+
+        long getTimeout() {
+            if (count < MIN_SAMPLES) return Constant.TIMEOUT_SEARCH_SITE;
+            return Math.max(MIN_TIMEOUT, Math.min(Constant.TIMEOUT_SEARCH_SITE, percentile(0.95f) * 2));
+        }
+
+        long getCost() {
+            if (count == 0) return Constant.TIMEOUT_SEARCH_SITE / 2;
+            return (long) (percentile(0.5f) * (1 + errorRate * 4 + emptyRate));
+        }
+    }
+}
@@ -9,6 +9,7 @@ import androidx.room.PrimaryKey;
 
 import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.utils.FileUtil;
 import com.github.catvod.utils.Path;
 import com.github.catvod.utils.Prefers;
@@ -190,13 +191,13 @@ public class Config {
     }
 
     public static void delete(String url) {
-        AppDatabase.get().getConfigDao().delete(url);
+        Repository.write(() -> AppDatabase.get().getConfigDao().delete(url));
     }
 
     public static void delete(String url, int type) {
         if (type == 2) Path.clear(FileUtil.getWall(0));
-        if (type == 2) AppDatabase.get().getConfigDao().delete(type);
-        else AppDatabase.get().getConfigDao().delete(url, type);
+        if (type == 2) Repository.write(() -> AppDatabase.get().getConfigDao().delete(type));
+        else Repository.write(() -> AppDatabase.get().getConfigDao().delete(url, type));
     }
 
     public static Config vod() {
@@ -250,7 +251,7 @@ public class Config {
 
     public Config save() {
         if (isEmpty()) return this;
-        AppDatabase.get().getConfigDao().insertOrUpdate(this);
+        Repository.write(() -> AppDatabase.get().getConfigDao().insertOrUpdate(this));
         return this;
     }
 
@@ -262,9 +263,11 @@ public class Config {
     }
 
     public void delete() {
-        AppDatabase.get().getConfigDao().delete(getUrl(), getType());
-        History.delete(getId());
-        Keep.delete(getId());
+        Repository.write(() -> {
+            AppDatabase.get().getConfigDao().delete(getUrl(), getType());
+            History.delete(getId());
+            Keep.delete(getId());
+        });
     }
 
     public Config copy() {
@@ -11,6 +11,7 @@ import androidx.room.PrimaryKey;
 import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.Product;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.server.Server;
 import com.fongmi.android.tv.utils.DeviceUtils;
 import com.fongmi.android.tv.utils.UrlUtil;
@@ -151,7 +152,7 @@ public class Device {
     }
 
     public Device save() {
-        AppDatabase.get().getDeviceDao().insertOrUpdate(this);
+        Repository.write(() -> AppDatabase.get().getDeviceDao().insertOrUpdate(this));
         return this;
     }
 
@@ -160,7 +161,7 @@ public class Device {
     }
 
     public static void delete() {
-        AppDatabase.get().getDeviceDao().delete();
+        Repository.write(() -> AppDatabase.get().getDeviceDao().delete());
     }
 
     @Override
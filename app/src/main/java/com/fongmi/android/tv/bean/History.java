@@ -6,6 +6,7 @@ import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.media3.common.C;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.fongmi.android.tv.App;
@@ -13,6 +14,7 @@ import com.fongmi.android.tv.Constant;
 import com.fongmi.android.tv.R;
 import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
@@ -22,7 +24,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
-@Entity
+@Entity(indices = {@Index(value = {"cid", "createTime"}), @Index(value = {"cid", "vodName"}), @Index(value = {"createTime"})})
 public class History {
 
     @NonNull
@@ -248,16 +250,24 @@ public class History {
         return AppDatabase.get().getHistoryDao().find(cid, System.currentTimeMillis() - Constant.HISTORY_TIME);
     }
 
+    public static List<History> get(int cid, long last) {
+        return AppDatabase.get().getHistoryDao().find(cid, System.currentTimeMillis() - Constant.HISTORY_TIME, last, Repository.PAGE);
+    }
+
     public static List<History> getAll() {
         return AppDatabase.get().getHistoryDao().findAllRecent(System.currentTimeMillis() - Constant.HISTORY_TIME);
     }
 
+    public static List<History> getAll(long last) {
+        return AppDatabase.get().getHistoryDao().findAllRecent(System.currentTimeMillis() - Constant.HISTORY_TIME, last, Repository.PAGE);
+    }
+
     public static History find(String key) {
         return AppDatabase.get().getHistoryDao().find(VodConfig.getCid(), key);
     }
 
     public static void delete(int cid) {
-        AppDatabase.get().getHistoryDao().delete(cid);
+        Repository.write(() -> AppDatabase.get().getHistoryDao().delete(cid));
     }
 
     private void checkParam(History item) {
@@ -299,13 +309,16 @@ public class History {
 
     public History save() {
         com.github.catvod.utils.Logger.d("History.save: key=" + getKey() + ", vodName=" + getVodName());
-        AppDatabase.get().getHistoryDao().insertOrUpdate(this);
+        Repository.write(() -> AppDatabase.get().getHistoryDao().insertOrUpdate(this));
         return this;
     }
 
     public History delete() {
-        AppDatabase.get().getHistoryDao().delete(VodConfig.getCid(), getKey());
-        AppDatabase.get().getTrackDao().delete(getKey());
+        int cid = VodConfig.getCid();
+        Repository.write(() -> {
+            AppDatabase.get().getHistoryDao().delete(cid, getKey());
+            AppDatabase.get().getTrackDao().delete(getKey());
+        });
         return this;
     }
 
@@ -2,11 +2,13 @@ package com.fongmi.android.tv.bean;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
@@ -15,7 +17,7 @@ import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.List;
 
-@Entity
+@Entity(indices = {@Index(value = {"type", "createTime"}), @Index(value = {"type", "cid"})})
 public class Keep {
 
     @NonNull
@@ -119,36 +121,40 @@ public class Keep {
     }
 
     public static void deleteAll() {
-        AppDatabase.get().getKeepDao().delete();
+        Repository.write(() -> AppDatabase.get().getKeepDao().delete());
     }
 
     public static void delete(int cid) {
-        AppDatabase.get().getKeepDao().delete(cid);
+        Repository.write(() -> AppDatabase.get().getKeepDao().delete(cid));
     }
 
     public static void delete(String key) {
-        AppDatabase.get().getKeepDao().delete(key);
+        Repository.write(() -> AppDatabase.get().getKeepDao().delete(key));
     }
 
     public static List<Keep> getVod() {
         return AppDatabase.get().getKeepDao().getVod();
     }
 
+    public static List<Keep> getVod(long last) {
+        return AppDatabase.get().getKeepDao().getVod(last, Repository.PAGE);
+    }
+
     public static List<Keep> getLive() {
         return AppDatabase.get().getKeepDao().getLive();
     }
 
     public void save(int cid) {
         setCid(cid);
-        AppDatabase.get().getKeepDao().insertOrUpdate(this);
+        Repository.write(() -> AppDatabase.get().getKeepDao().insertOrUpdate(this));
     }
 
     public void save() {
-        AppDatabase.get().getKeepDao().insertOrUpdate(this);
+        Repository.write(() -> AppDatabase.get().getKeepDao().insertOrUpdate(this));
     }
 
     public Keep delete() {
-        AppDatabase.get().getKeepDao().delete(getCid(), getKey());
+        Repository.write(() -> AppDatabase.get().getKeepDao().delete(getCid(), getKey()));
         return this;
     }
 
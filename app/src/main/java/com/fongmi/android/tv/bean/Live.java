@@ -12,6 +12,7 @@ import com.fongmi.android.tv.Constant;
 import com.fongmi.android.tv.R;
 import com.fongmi.android.tv.api.loader.BaseLoader;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.gson.ExtAdapter;
 import com.github.catvod.crawler.Spider;
 import com.github.catvod.utils.Json;
@@ -352,7 +353,7 @@ public class Live {
     }
 
     public void save() {
-        AppDatabase.get().getLiveDao().insertOrUpdate(this);
+        Repository.write(() -> AppDatabase.get().getLiveDao().insertOrUpdate(this));
     }
 
     @Override
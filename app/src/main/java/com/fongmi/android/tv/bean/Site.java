@@ -13,6 +13,7 @@ import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.Constant;
 import com.fongmi.android.tv.api.loader.BaseLoader;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.gson.ExtAdapter;
 import com.github.catvod.crawler.Spider;
 import com.github.catvod.net.OkHttp;
@@ -359,7 +360,7 @@ public class Site implements Parcelable {
     }
 
     public void save() {
-        AppDatabase.get().getSiteDao().insertOrUpdate(this);
+        Repository.write(() -> AppDatabase.get().getSiteDao().insertOrUpdate(this));
     }
 
     @Override
@@ -8,6 +8,7 @@ import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 
 import java.util.Collections;
 import java.util.List;
@@ -106,7 +107,7 @@ public class Track {
 
     public Track save() {
         if (TextUtils.isEmpty(getKey())) return this;
-        AppDatabase.get().getTrackDao().insert(this);
+        Repository.write(() -> AppDatabase.get().getTrackDao().insert(this));
         return this;
     }
 
@@ -116,6 +117,6 @@ public class Track {
 
     public static void delete(String key) {
         if (TextUtils.isEmpty(key)) return;
-        AppDatabase.get().getTrackDao().delete(key);
+        Repository.write(() -> AppDatabase.get().getTrackDao().delete(key));
     }
 }
@@ -48,6 +48,13 @@ public class Tv {
         @ElementList(entry = "display-name", required = false, inline = true)
         private List<DisplayName> displayName;
 
+        public Channel() {
+        }
+
+        public Channel(String id) {
+            this.id = id;
+        }
+
         public String getId() {
             return TextUtils.isEmpty(id) ? "" : id;
         }
@@ -60,6 +67,15 @@ public class Tv {
             return displayName == null ? new ArrayList<>() : displayName;
         }
 
+        public void addDisplayName(String text) {
+            if (displayName == null) displayName = new ArrayList<>();
+            displayName.add(new DisplayName(text));
+        }
+
+        public void setIcon(String src) {
+            this.icon = new Icon(src);
+        }
+
         public String getSrc() {
             return getIcon().getSrc();
         }
@@ -107,6 +123,13 @@ public class Tv {
         @Attribute(name = "src")
         private String src;
 
+        public Icon() {
+        }
+
+        public Icon(String src) {
+            this.src = src;
+        }
+
         public String getSrc() {
             return TextUtils.isEmpty(src) ? "" : src;
         }
@@ -118,6 +141,13 @@ public class Tv {
         @Text
         private String text;
 
+        public DisplayName() {
+        }
+
+        public DisplayName(String text) {
+            this.text = text;
+        }
+
         public String getText() {
             return TextUtils.isEmpty(text) ? "" : text;
         }
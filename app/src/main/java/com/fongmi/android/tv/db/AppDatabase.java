@@ -36,7 +36,7 @@ import java.util.Locale;
 @Database(entities = {Keep.class, Site.class, Live.class, Track.class, Config.class, Device.class, History.class}, version = AppDatabase.VERSION)
 public abstract class AppDatabase extends RoomDatabase {
 
-    public static final int VERSION = 33;
+    public static final int VERSION = 34;
     public static final String NAME = "tv";
     public static final String SYMBOL = "@@@";
 
@@ -95,7 +95,8 @@ public abstract class AppDatabase extends RoomDatabase {
                 .addMigrations(Migrations.MIGRATION_30_31)
                 .addMigrations(Migrations.MIGRATION_31_32)
                 .addMigrations(Migrations.MIGRATION_32_33)
-                .allowMainThreadQueries().fallbackToDestructiveMigration().build();
+                .addMigrations(Migrations.MIGRATION_33_34)
+                .fallbackToDestructiveMigration().build();
     }
 
     public abstract KeepDao getKeepDao();
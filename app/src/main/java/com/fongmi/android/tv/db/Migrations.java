@@ -31,4 +31,15 @@ public class Migrations {
             database.execSQL("ALTER TABLE Live ADD COLUMN keep TEXT DEFAULT NULL");
         }
     };
+
+    public static final Migration MIGRATION_33_34 = new Migration(33, 34) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_History_cid_createTime` ON `History` (`cid`, `createTime`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_History_cid_vodName` ON `History` (`cid`, `vodName`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_History_createTime` ON `History` (`createTime`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_Keep_type_createTime` ON `Keep` (`type`, `createTime`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_Keep_type_cid` ON `Keep` (`type`, `cid`)");
+        }
+    };
 }
@@ -0,0 +1,62 @@
+package com.fongmi.android.tv.db;
+
+import android.os.Looper;
+
+import com.fongmi.android.tv.App;
+import com.fongmi.android.tv.api.config.VodConfig;
+import com.fongmi.android.tv.bean.History;
+import com.fongmi.android.tv.bean.Keep;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+public class Repository {
+
+    public static final int PAGE = 60;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    public static void execute(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    public static void write(Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) execute(runnable);
+        else runnable.run();
+    }
+
+    public static <T> void load(Callable<T> callable, Consumer<T> consumer) {
+        executor.execute(() -> {
+            try {
+                T result = callable.call();
+                App.post(() -> consumer.accept(result));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public static void getHistory(Consumer<List<History>> consumer) {
+        int cid = VodConfig.getCid();
+        load(() -> History.get(cid, Long.MAX_VALUE), consumer);
+    }
+
+    public static void getAllHistory(long last, Consumer<List<History>> consumer) {
+        load(() -> History.getAll(last), consumer);
+    }
+
+    public static void deleteHistory(int cid) {
+        execute(() -> History.delete(cid));
+    }
+
+    public static void getKeep(long last, Consumer<List<Keep>> consumer) {
+        load(() -> Keep.getVod(last), consumer);
+    }
+
+    public static void deleteKeep() {
+        execute(Keep::deleteAll);
+    }
+}
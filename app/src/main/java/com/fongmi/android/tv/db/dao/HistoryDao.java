@@ -16,9 +16,15 @@ public abstract class HistoryDao extends BaseDao<History> {
     @Query("SELECT * FROM History WHERE cid = :cid AND createTime >= :createTime ORDER BY createTime DESC")
     public abstract List<History> find(int cid, long createTime);
 
+    @Query("SELECT * FROM History WHERE cid = :cid AND createTime >= :createTime AND createTime < :last ORDER BY createTime DESC LIMIT :limit")
+    public abstract List<History> find(int cid, long createTime, long last, int limit);
+
     @Query("SELECT * FROM History WHERE createTime >= :createTime ORDER BY createTime DESC")
     public abstract List<History> findAllRecent(long createTime);
 
+    @Query("SELECT * FROM History WHERE createTime >= :createTime AND createTime < :last ORDER BY createTime DESC LIMIT :limit")
+    public abstract List<History> findAllRecent(long createTime, long last, int limit);
+
     @Query("SELECT * FROM History WHERE cid = :cid AND `key` = :key")
     public abstract History find(int cid, String key);
 
@@ -16,6 +16,9 @@ public abstract class KeepDao extends BaseDao<Keep> {
     @Query("SELECT * FROM Keep WHERE type = 0 ORDER BY createTime DESC")
     public abstract List<Keep> getVod();
 
+    @Query("SELECT * FROM Keep WHERE type = 0 AND createTime < :last ORDER BY createTime DESC LIMIT :limit")
+    public abstract List<Keep> getVod(long last, int limit);
+
     @Query("SELECT * FROM Keep WHERE type = 1 ORDER BY createTime DESC")
     public abstract List<Keep> getLive();
 
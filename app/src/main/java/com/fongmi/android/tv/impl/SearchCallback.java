@@ -0,0 +1,12 @@
+package com.fongmi.android.tv.impl;
+
+import com.fongmi.android.tv.bean.Result;
+
+import java.util.List;
+
+public interface SearchCallback {
+
+    void onResult(List<Result> items);
+
+    void onComplete();
+}
@@ -10,6 +10,10 @@ import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.Constant;
 import com.fongmi.android.tv.R;
 import com.fongmi.android.tv.api.config.VodConfig;
+import com.fongmi.android.tv.api.search.SearchCache;
+import com.fongmi.android.tv.api.search.SearchEngine;
+import com.fongmi.android.tv.api.search.SearchSession;
+import com.fongmi.android.tv.api.search.SiteHealth;
 import com.fongmi.android.tv.bean.Episode;
 import com.fongmi.android.tv.bean.Flag;
 import com.fongmi.android.tv.bean.Result;
@@ -17,12 +21,17 @@ import com.fongmi.android.tv.bean.Site;
 import com.fongmi.android.tv.bean.Url;
 import com.fongmi.android.tv.bean.Vod;
 import com.fongmi.android.tv.exception.ExtractException;
+import com.fongmi.android.tv.impl.SearchCallback;
+import com.fongmi.android.tv.player.ParseCache;
+import com.fongmi.android.tv.player.Players;
+import com.fongmi.android.tv.player.Prefetch;
 import com.fongmi.android.tv.player.Source;
 import com.fongmi.android.tv.utils.ResUtil;
 import com.fongmi.android.tv.utils.Sniffer;
 import com.github.catvod.crawler.Spider;
 import com.github.catvod.crawler.SpiderDebug;
 import com.github.catvod.net.OkHttp;
+import com.github.catvod.utils.SingleFlight;
 import com.github.catvod.utils.Trans;
 import com.github.catvod.utils.Util;
 
@@ -30,6 +39,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -40,12 +50,15 @@ import okhttp3.Response;
 
 public class SiteViewModel extends ViewModel {
 
+    private static final SingleFlight<String> flight = new SingleFlight<>();
+
     public MutableLiveData<Episode> episode;
     public MutableLiveData<Result> result;
     public MutableLiveData<Result> player;
     public MutableLiveData<Result> search;
     public MutableLiveData<Result> action;
     private ExecutorService executor;
+    private SearchSession session;
 
     public SiteViewModel() {
         this.episode = new MutableLiveData<>();
@@ -64,7 +77,7 @@ public class SiteViewModel extends ViewModel {
             Site site = VodConfig.get().getHome();
             if (site.getType() == 3) {
                 Spider spider = site.recent().spider();
-                String homeContent = spider.homeContent(true);
+                String homeContent = share(site, "home", true, () -> spider.homeContent(true));
                 SpiderDebug.log(homeContent);
                 Result result = Result.fromJson(homeContent);
                 if (!result.getList().isEmpty()) return result;
@@ -79,10 +92,12 @@ public class SiteViewModel extends ViewModel {
                 SpiderDebug.log(homeContent);
                 return Result.fromJson(homeContent);
             } else {
-                Response response = OkHttp.newCall(site.getApi(), site.getHeaders()).execute();
-                String homeContent = response.body().string();
+                String homeContent = share(site, "home", site.getApi(), () -> {
+                    try (Response response = OkHttp.newCall(site.getApi(), site.getHeaders()).execute()) {
+                        return response.body().string();
+                    }
+                });
                 SpiderDebug.log(homeContent);
-                response.close();
                 return fetchPic(site, Result.fromType(site.getType(), homeContent));
             }
         });
@@ -93,7 +108,7 @@ public class SiteViewModel extends ViewModel {
             Site site = VodConfig.get().getSite(key);
             if (site.getType() == 3) {
                 Spider spider = site.recent().spider();
-                String categoryContent = spider.categoryContent(tid, page, filter, extend);
+                String categoryContent = share(site, "category", tid + "\n" + page + "\n" + filter + "\n" + App.gson().toJson(extend), () -> spider.categoryContent(tid, page, filter, extend));
                 SpiderDebug.log(categoryContent);
                 return Result.fromJson(categoryContent);
             } else {
@@ -115,7 +130,7 @@ public class SiteViewModel extends ViewModel {
             Site site = VodConfig.get().getSite(key);
             if (site.getType() == 3) {
                 Spider spider = site.recent().spider();
-                String detailContent = spider.detailContent(Arrays.asList(id));
+                String detailContent = share(site, "detail", id, () -> spider.detailContent(Arrays.asList(id)));
                 SpiderDebug.log(detailContent);
                 Result result = Result.fromJson(detailContent);
                 if (!result.getList().isEmpty()) result.getList().get(0).setVodFlags();
@@ -146,50 +161,78 @@ public class SiteViewModel extends ViewModel {
     public void playerContent(String key, String flag, String id) {
         execute(player, () -> {
             Source.get().stop();
-            Site site = VodConfig.get().getSite(key);
-            if (site.getType() == 3) {
-                Spider spider = site.recent().spider();
-                String playerContent = spider.playerContent(flag, id, VodConfig.get().getFlags());
-                SpiderDebug.log(playerContent);
-                Result result = Result.fromJson(playerContent);
-                if (result.getFlag().isEmpty()) result.setFlag(flag);
-                result.setUrl(Source.get().fetch(result));
-                result.setHeader(site.getHeader());
-                result.setKey(key);
-                return result;
-            } else if (site.getType() == 4) {
-                ArrayMap<String, String> params = new ArrayMap<>();
-                params.put("play", id);
-                params.put("flag", flag);
-                String playerContent = call(site, params);
-                SpiderDebug.log(playerContent);
-                Result result = Result.fromJson(playerContent);
-                if (result.getFlag().isEmpty()) result.setFlag(flag);
-                result.setUrl(Source.get().fetch(result));
-                result.setHeader(site.getHeader());
-                return result;
-            } else if (site.isEmpty() && "push_agent".equals(key)) {
-                Result result = new Result();
-                result.setParse(0);
-                result.setFlag(flag);
-                result.setUrl(Url.create().add(id));
-                result.setUrl(Source.get().fetch(result));
-                return result;
-            } else {
-                Url url = Url.create().add(id);
-                Result result = new Result();
-                result.setUrl(url);
-                result.setFlag(flag);
-                result.setHeader(site.getHeader());
-                result.setPlayUrl(site.getPlayUrl());
-                result.setParse(Sniffer.isVideoFormat(url.v()) && result.getPlayUrl().isEmpty() ? 0 : 1);
-                result.setUrl(Source.get().fetch(result));
-                SpiderDebug.log(result.toString());
-                return result;
+            String cacheKey = ParseCache.key(key, flag, id, "");
+            Result cached = ParseCache.get().getResult(cacheKey);
+            if (cached != null) return cached;
+            Result result = playerContent(VodConfig.get().getSite(key), key, flag, id, false);
+            if (result.getParse() == 0 && result.getJx() == 0 && !result.hasMsg()) ParseCache.get().put(cacheKey, result);
+            return result;
+        });
+    }
+
+    public void prefetch(Players players, String key, String flag, String id, boolean useParse) {
+        App.execute(() -> {
+            try {
+                String cacheKey = ParseCache.key(key, flag, id, "");
+                Result result = ParseCache.get().getResult(cacheKey);
+                if (result == null) result = playerContent(VodConfig.get().getSite(key), key, flag, id, true);
+                if (result.hasMsg() || result.getUrl().isEmpty()) return;
+                if (result.getParse() == 0 && result.getJx() == 0) ParseCache.get().put(cacheKey, result);
+                Prefetch.get().start(players, result, useParse);
+            } catch (Exception e) {
+                e.printStackTrace();
             }
         });
     }
 
+    private Result playerContent(Site site, String key, String flag, String id, boolean prefetch) throws Exception {
+        if (site.getType() == 3) {
+            Spider spider = site.recent().spider();
+            String playerContent = spider.playerContent(flag, id, VodConfig.get().getFlags());
+            SpiderDebug.log(playerContent);
+            Result result = Result.fromJson(playerContent);
+            if (result.getFlag().isEmpty()) result.setFlag(flag);
+            result.setUrl(fetch(result, prefetch));
+            result.setHeader(site.getHeader());
+            result.setKey(key);
+            return result;
+        } else if (site.getType() == 4) {
+            ArrayMap<String, String> params = new ArrayMap<>();
+            params.put("play", id);
+            params.put("flag", flag);
+            String playerContent = call(site, params);
+            SpiderDebug.log(playerContent);
+            Result result = Result.fromJson(playerContent);
+            if (result.getFlag().isEmpty()) result.setFlag(flag);
+            result.setUrl(fetch(result, prefetch));
+            result.setHeader(site.getHeader());
+            return result;
+        } else if (site.isEmpty() && "push_agent".equals(key)) {
+            Result result = new Result();
+            result.setParse(0);
+            result.setFlag(flag);
+            result.setUrl(Url.create().add(id));
+            result.setUrl(fetch(result, prefetch));
+            return result;
+        } else {
+            Url url = Url.create().add(id);
+            Result result = new Result();
+            result.setUrl(url);
+            result.setFlag(flag);
+            result.setHeader(site.getHeader());
+            result.setPlayUrl(site.getPlayUrl());
+            result.setParse(Sniffer.isVideoFormat(url.v()) && result.getPlayUrl().isEmpty() ? 0 : 1);
+            result.setUrl(fetch(result, prefetch));
+            SpiderDebug.log(result.toString());
+            return result;
+        }
+    }
+
+    private String fetch(Result result, boolean prefetch) throws Exception {
+        if (prefetch && Source.get().isExtract(result.getUrl().v())) return "";
+        return Source.get().fetch(result);
+    }
+
     public void action(String key, String action) {
         execute(this.action, () -> {
             Site site = VodConfig.get().getSite(key);
@@ -199,55 +242,110 @@ public class SiteViewModel extends ViewModel {
         });
     }
 
-    public void searchContent(Site site, String keyword, boolean quick) throws Throwable {
+    public void searchContent(List<Site> sites, String keyword, boolean quick) {
+        stopSearch();
+        List<Site> targets = new ArrayList<>();
+        for (Site site : sites) if (!quick || site.isQuickSearch()) targets.add(site);
+        session = SearchEngine.get().start(targets, keyword, quick, (site, tag, timeout) -> searchContent(site, keyword, quick, tag, timeout), new SearchCallback() {
+            @Override
+            public void onResult(List<Result> items) {
+                for (Result item : items) search.setValue(item);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+
+    private Result searchContent(Site site, String keyword, boolean quick, String tag, long timeout) throws Exception {
         if (site.getType() == 3) {
-            if (quick && !site.isQuickSearch()) return;
             String searchContent = site.spider().searchContent(Trans.t2s(keyword), quick);
             SpiderDebug.log(site.getName() + "," + searchContent);
-            post(site, Result.fromJson(searchContent));
+            return Result.fromJson(searchContent);
         } else {
-            if (quick && !site.isQuickSearch()) return;
             ArrayMap<String, String> params = new ArrayMap<>();
             params.put("wd", Trans.t2s(keyword));
             params.put("quick", String.valueOf(quick));
-            String searchContent = call(site, params);
+            String searchContent = call(site, params, tag, timeout);
             SpiderDebug.log(site.getName() + "," + searchContent);
-            post(site, fetchPic(site, Result.fromType(site.getType(), searchContent)));
+            return fetchPic(site, Result.fromType(site.getType(), searchContent), tag);
         }
     }
 
+    public void pauseSearch() {
+        if (session != null) session.pause();
+    }
+
+    public void resumeSearch() {
+        if (session != null) session.resume();
+    }
+
+    public void stopSearch() {
+        if (session != null) session.cancel();
+        session = null;
+    }
+
     public void searchContent(Site site, String keyword, String page) {
         execute(result, () -> {
-            if (site.getType() == 3) {
-                String searchContent = site.spider().searchContent(Trans.t2s(keyword), false, page);
-                SpiderDebug.log(site.getName() + "," + searchContent);
-                Result result = Result.fromJson(searchContent);
-                for (Vod vod : result.getList()) vod.setSite(site);
-                return result;
-            } else {
-                ArrayMap<String, String> params = new ArrayMap<>();
-                params.put("wd", Trans.t2s(keyword));
-                params.put("pg", page);
-                String searchContent = call(site, params);
-                SpiderDebug.log(site.getName() + "," + searchContent);
-                Result result = fetchPic(site, Result.fromType(site.getType(), searchContent));
-                for (Vod vod : result.getList()) vod.setSite(site);
-                return result;
-            }
+            Result result = SearchCache.get().fetch(SearchCache.key(site, keyword, false, page), () -> searchContent(site, keyword, page));
+            for (Vod vod : result.getList()) vod.setSite(site);
+            return result;
         });
     }
 
-    private String call(Site site, ArrayMap<String, String> params) throws IOException {
+    private Result searchContent(Site site, String keyword, String page) throws Exception {
+        if (site.getType() == 3) {
+            String searchContent = site.spider().searchContent(Trans.t2s(keyword), false, page);
+            SpiderDebug.log(site.getName() + "," + searchContent);
+            return Result.fromJson(searchContent);
+        } else {
+            ArrayMap<String, String> params = new ArrayMap<>();
+            params.put("wd", Trans.t2s(keyword));
+            params.put("pg", page);
+            String searchContent = call(site, params);
+            SpiderDebug.log(site.getName() + "," + searchContent);
+            return fetchPic(site, Result.fromType(site.getType(), searchContent));
+        }
+    }
+
+    private String call(Site site, ArrayMap<String, String> params) throws Exception {
+        return share(site, "call", params, () -> call(site, params, null, 0));
+    }
+
+    private String call(Site site, ArrayMap<String, String> params, String tag, long timeout) throws IOException {
         if (!site.getExt().isEmpty()) params.put("extend", site.getExt());
-        Call get = OkHttp.newCall(site.getApi(), site.getHeaders(), params);
-        Call post = OkHttp.newCall(site.getApi(), site.getHeaders(), OkHttp.toBody(params));
-        Response response = (site.getExt().length() <= 1000 ? get : post).execute();
+        Call get = OkHttp.newCall(site.getApi(), site.getHeaders(), params, tag);
+        Call post = OkHttp.newCall(site.getApi(), site.getHeaders(), OkHttp.toBody(params), tag);
+        Call call = site.getExt().length() <= 1000 ? get : post;
+        call.timeout().timeout(timeout, TimeUnit.MILLISECONDS);
+        Response response = call.execute();
         String result = response.body().string();
         response.close();
         return result;
     }
 
+    private String track(Site site, Callable<String> callable) throws Exception {
+        long start = System.currentTimeMillis();
+        try {
+            String result = callable.call();
+            SiteHealth.get().success(site.getKey(), System.currentTimeMillis() - start, TextUtils.isEmpty(result));
+            return result;
+        } catch (Exception e) {
+            SiteHealth.get().error(site.getKey(), System.currentTimeMillis() - start);
+            throw e;
+        }
+    }
+
+    private String share(Site site, String method, Object args, Callable<String> callable) throws Exception {
+        return flight.call(site.getKey() + "\n" + method + "\n" + args, () -> track(site, callable));
+    }
+
     private Result fetchPic(Site site, Result result) throws Exception {
+        return fetchPic(site, result, null);
+    }
+
+    private Result fetchPic(Site site, Result result, String tag) throws Exception {
         if (site.getType() > 2 || result.getList().isEmpty() || !result.getList().get(0).getVodPic().isEmpty()) return result;
         ArrayList<String> ids = new ArrayList<>();
         if (site.getCategories().isEmpty()) for (Vod item : result.getList()) ids.add(item.getVodId());
@@ -256,18 +354,16 @@ public class SiteViewModel extends ViewModel {
         ArrayMap<String, String> params = new ArrayMap<>();
         params.put("ac", site.getType() == 0 ? "videolist" : "detail");
         params.put("ids", TextUtils.join(",", ids));
-        Response response = OkHttp.newCall(site.getApi(), site.getHeaders(), params).execute();
-        result.setList(Result.fromType(site.getType(), response.body().string()).getList());
-        response.close();
+        Callable<String> callable = () -> {
+            try (Response response = OkHttp.newCall(site.getApi(), site.getHeaders(), params, tag).execute()) {
+                return response.body().string();
+            }
+        };
+        String content = tag == null ? flight.call(site.getKey() + "\npic\n" + params, callable) : callable.call();
+        result.setList(Result.fromType(site.getType(), content).getList());
         return result;
     }
 
-    private void post(Site site, Result result) {
-        if (result.getList().isEmpty()) return;
-        for (Vod vod : result.getList()) vod.setSite(site);
-        this.search.postValue(result);
-    }
-
     private void execute(MutableLiveData<Result> result, Callable<Result> callable) {
         if (executor != null) executor.shutdownNow();
         executor = Executors.newFixedThreadPool(2);
@@ -287,5 +383,6 @@ public class SiteViewModel extends ViewModel {
     @Override
     protected void onCleared() {
         if (executor != null) executor.shutdownNow();
+        stopSearch();
     }
 }
@@ -0,0 +1,166 @@
+package com.fongmi.android.tv.player;
+
+import android.net.Uri;
+import android.text.TextUtils;
+
+import com.fongmi.android.tv.api.config.VodConfig;
+import com.fongmi.android.tv.bean.Parse;
+import com.fongmi.android.tv.bean.Result;
+
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+public class ParseCache {
+
+    private static final int MAX_SIZE = 64;
+    private static final long DEF_TTL = TimeUnit.MINUTES.toMillis(5);
+    private static final long MAX_TTL = TimeUnit.MINUTES.toMillis(30);
+    private static final long MARGIN = TimeUnit.SECONDS.toMillis(30);
+    private static final String[] EXPIRES = {"expires", "expire", "exp", "e", "deadline", "x-oss-expires", "validto"};
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    private static class Loader {
+        static volatile ParseCache INSTANCE = new ParseCache();
+    }
+
+    public static ParseCache get() {
+        return Loader.INSTANCE;
+    }
+
+    private ParseCache() {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > MAX_SIZE;
+            }
+        };
+    }
+
+    public static String key(String site, String flag, String id, String parse) {
+        return site + "\n" + flag + "\n" + id + "\n" + parse;
+    }
+
+    public static String key(Result result, boolean useParse) {
+        Parse parse = useParse ? VodConfig.get().getParse() : null;
+        return key(result.getKey(), result.getFlag(), result.getUrl().v(), result.getPlayUrl() + (parse == null ? "" : parse.getName()));
+    }
+
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expire > System.currentTimeMillis()) return entry;
+        entries.remove(key);
+        return null;
+    }
+
+    public Result getResult(String key) {
+        Entry entry = get(key);
+        return entry == null || entry.json == null ? null : Result.objectFrom(entry.json);
+    }
+
+    public void put(String key, Map<String, String> headers, String url, String from) {
+        put(key, new Entry(url, headers == null ? new HashMap<>() : new HashMap<>(headers), from, null));
+    }
+
+    public void put(String key, Result result) {
+        put(key, new Entry(result.getRealUrl(), null, null, result.toString()));
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        long ttl = getTtl(entry.url);
+        if (TextUtils.isEmpty(entry.url) || ttl <= 0) return;
+        entry.expire = System.currentTimeMillis() + ttl;
+        entries.put(key, entry);
+    }
+
+    public synchronized void invalidate(String url) {
+        if (TextUtils.isEmpty(url)) return;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) if (url.equals(iterator.next().url)) iterator.remove();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static long getTtl(String url) {
+        if (url == null || !url.startsWith("http")) return 0;
+        try {
+            Uri uri = Uri.parse(url);
+            if (isLocal(uri.getHost())) return 0;
+            long expire = getExpire(uri);
+            if (expire == 0) return DEF_TTL;
+            return Math.min(MAX_TTL, expire - System.currentTimeMillis() - MARGIN);
+        } catch (Exception e) {
+            return DEF_TTL;
+        }
+    }
+
+    private static boolean isLocal(String host) {
+        return "127.0.0.1".equals(host) || "localhost".equals(host);
+    }
+
+    private static long getExpire(Uri uri) {
+        for (String name : uri.getQueryParameterNames()) {
+            String value = uri.getQueryParameter(name);
+            if (TextUtils.isEmpty(value)) continue;
+            String lower = name.toLowerCase();
+            if (lower.equals("txtime")) return Long.parseLong(value, 16) * 1000;
+            if (lower.equals("x-amz-expires")) return getAmz(uri, Long.parseLong(value));
+            for (String item : EXPIRES) if (lower.equals(item) && TextUtils.isDigitsOnly(value)) return toMillis(Long.parseLong(value));
+        }
+        return 0;
+    }
+
+    private static long getAmz(Uri uri, long seconds) {
+        String date = uri.getQueryParameter("X-Amz-Date");
+        if (TextUtils.isEmpty(date)) return 0;
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss'Z'", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            return format.parse(date).getTime() + seconds * 1000;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static long toMillis(long value) {
+        if (value > 100000000000L) return value;
+        if (value > 1000000000L) return value * 1000;
+        return 0;
+    }
+
+    public static class Entry {
+
+        private final Map<String, String> headers;
+        private final String json;
+        private final String from;
+        private final String url;
+        private long expire;
+
+        Entry(String url, Map<String, String> headers, String from, String json) {
+            this.headers = headers;
+            this.from = from;
+            this.json = json;
+            this.url = url;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers == null ? new HashMap<>() : new HashMap<>(headers);
+        }
+
+        public String getFrom() {
+            return from;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+    }
+}
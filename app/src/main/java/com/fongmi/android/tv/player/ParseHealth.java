@@ -0,0 +1,98 @@
+package com.fongmi.android.tv.player;
+
+import com.fongmi.android.tv.Constant;
+import com.fongmi.android.tv.bean.Parse;
+import com.fongmi.android.tv.utils.HealthStore;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ParseHealth {
+
+    private static final int MIN_SAMPLES = 3;
+    private static final float ALPHA = 0.2f;
+    private static final long MIN_TIMEOUT = TimeUnit.SECONDS.toMillis(3);
+    private static final long MAX_DELAY = TimeUnit.SECONDS.toMillis(3);
+    private static final long DEF_DELAY = TimeUnit.SECONDS.toMillis(1);
+
+    private final HealthStore<Stat> store;
+
+    private static class Loader {
+        static volatile ParseHealth INSTANCE = new ParseHealth();
+    }
+
+    public static ParseHealth get() {
+        return Loader.INSTANCE;
+    }
+
+    private ParseHealth() {
+        this.store = new HealthStore<>("parse_health.json", new TypeToken<Map<String, Stat>>() {}.getType(), Stat::new);
+    }
+
+    public void add(String name, long elapsed, boolean win) {
+        store.stat(name).add(elapsed, win);
+        store.save();
+    }
+
+    public void cancel(String name, long elapsed) {
+        store.stat(name).cancel(elapsed);
+        store.save();
+    }
+
+    public long getTimeout(String name) {
+        return store.find(name).getTimeout();
+    }
+
+    public long getDelay(String name) {
+        return store.find(name).getDelay();
+    }
+
+    public void sort(List<Parse> items) {
+        Map<String, Float> costs = new HashMap<>();
+        for (Parse item : items) costs.put(item.getName(), store.find(item.getName()).getCost());
+        Collections.sort(items, (o1, o2) -> Float.compare(costs.get(o1.getName()), costs.get(o2.getName())));
+    }
+
+    static class Stat {
+
+        @SerializedName("count")
+        private int count;
+        @SerializedName("latency")
+        private float latency;
+        @SerializedName("winRate")
+        private float winRate;
+
+        synchronized void add(long elapsed, boolean win) {
+            latency = count == 0 ? elapsed : latency * (1 - ALPHA) + elapsed * ALPHA;
+            winRate = count == 0 ? (win ? 1 : 0) : winRate * (1 - ALPHA) + (win ? ALPHA : 0);
+            count++;
+        }
+
+        synchronized void cancel(long elapsed) {
+            if (count == 0 || elapsed > latency) latency = count == 0 ? elapsed : latency * (1 - ALPHA) + elapsed * ALPHA;
+            winRate = winRate * (1 - ALPHA);
+            count++;
+        }
+
+        synchronized long getTimeout() {
+            if (count < MIN_SAMPLES) return Constant.TIMEOUT_PARSE_DEF;
+            return Math.max(MIN_TIMEOUT, Math.min(Constant.TIMEOUT_PARSE_DEF, (long) (latency * 3)));
+        }
+
+        synchronized long getDelay() {
+            if (count < MIN_SAMPLES) return DEF_DELAY;
+            if (winRate < 0.3f) return 0;
+            return Math.min(MAX_DELAY, (long) (latency * 2));
+        }
+
+        synchronized float getCost() {
+            if (count == 0) return Constant.TIMEOUT_PARSE_DEF / 2f;
+            return latency / Math.max(0.05f, winRate);
+        }
+    }
+}
@@ -24,19 +24,29 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import okhttp3.Call;
 import okhttp3.Headers;
+import okhttp3.Response;
 
 public class ParseJob implements ParseCallback {
 
     private final List<CustomWebView> webViews;
+    private final AtomicBoolean done;
+    private final AtomicInteger pending;
+    private final AtomicInteger jsons;
+    private final Runnable timeout;
+    private final String tag;
     private ExecutorService executor;
     private ExecutorService infinite;
     private ParseCallback callback;
+    private volatile boolean settled;
+    private Runnable web;
     private Parse parse;
 
     public static ParseJob create(ParseCallback callback) {
@@ -47,6 +57,11 @@ public class ParseJob implements ParseCallback {
         this.executor = Executors.newFixedThreadPool(2);
         this.infinite = Executors.newCachedThreadPool();
         this.webViews = new ArrayList<>();
+        this.done = new AtomicBoolean();
+        this.pending = new AtomicInteger();
+        this.jsons = new AtomicInteger();
+        this.timeout = this::onTimeout;
+        this.tag = "parse_" + hashCode();
         this.callback = callback;
     }
 
@@ -112,12 +127,19 @@ public class ParseJob implements ParseCallback {
     }
 
     private void jsonParse(Parse item, String webUrl, boolean error) throws Exception {
-        String body = OkHttp.newCall(item.getUrl() + webUrl, Headers.of(item.getHeaders())).execute().body().string();
-        JsonObject object = Json.parse(body).getAsJsonObject();
-        String url = Json.safeString(object, "url");
-        JsonObject data = object.getAsJsonObject("data");
-        if (url.isEmpty()) url = Json.safeString(data, "url");
-        checkResult(getHeader(object), url, item.getName(), error);
+        jsonParse(item, webUrl, error, Constant.TIMEOUT_PARSE_DEF);
+    }
+
+    private boolean jsonParse(Parse item, String webUrl, boolean error, long timeout) throws Exception {
+        Call call = OkHttp.newCall(item.getUrl() + webUrl, Headers.of(item.getHeaders()), tag);
+        call.timeout().timeout(timeout, TimeUnit.MILLISECONDS);
+        try (Response res = call.execute()) {
+            JsonObject object = Json.parse(res.body().string()).getAsJsonObject();
+            String url = Json.safeString(object, "url");
+            JsonObject data = object.getAsJsonObject("data");
+            if (url.isEmpty()) url = Json.safeString(data, "url");
+            return checkResult(getHeader(object), url, item.getName(), error);
+        }
     }
 
     private void jsonExtend(String webUrl) throws Throwable {
@@ -132,33 +154,65 @@ public class ParseJob implements ParseCallback {
         checkResult(Result.fromObject(BaseLoader.get().jsonExtMix(flag, parse.getUrl(), parse.getName(), jxs, webUrl)));
     }
 
-    private void godParse(String webUrl, String flag) throws Exception {
-        List<Parse> json = VodConfig.get().getParses(1, flag);
+    private void godParse(String webUrl, String flag) {
+        List<Parse> json = new ArrayList<>(VodConfig.get().getParses(1, flag));
         List<Parse> webs = VodConfig.get().getParses(0, flag);
-        int count = json.size() + (webs.isEmpty() ? 0 : 1);
-        CountDownLatch latch = new CountDownLatch(count);
-        for (Parse item : json) infinite.execute(() -> jsonParse(latch, item, webUrl));
-        if (!webs.isEmpty()) startWeb(webs, webUrl);
-        latch.await();
-        onParseError();
+        ParseHealth.get().sort(json);
+        jsons.set(json.size());
+        pending.set(json.size() + (webs.isEmpty() ? 0 : 1));
+        if (pending.get() == 0) {
+            onParseError();
+            return;
+        }
+        App.post(timeout, Constant.TIMEOUT_PARSE_DEF);
+        if (!webs.isEmpty()) web = getWeb(webs, webUrl);
+        for (Parse item : json) infinite.execute(() -> race(item, webUrl));
+        if (web != null) App.post(web, json.isEmpty() ? 0 : ParseHealth.get().getDelay(json.get(0).getName()));
     }
 
-    private void jsonParse(CountDownLatch latch, Parse item, String webUrl) {
+    private void race(Parse item, String webUrl) {
+        long start = System.currentTimeMillis();
+        boolean win = false;
         try {
-            jsonParse(item, webUrl, false);
+            win = jsonParse(item, webUrl, false, ParseHealth.get().getTimeout(item.getName()));
         } catch (Exception e) {
             e.printStackTrace();
-        } finally {
-            latch.countDown();
         }
+        long elapsed = System.currentTimeMillis() - start;
+        if (!win && done.get()) {
+            if (settled) ParseHealth.get().cancel(item.getName(), elapsed);
+            return;
+        }
+        ParseHealth.get().add(item.getName(), elapsed, win);
+        if (win) return;
+        if (jsons.decrementAndGet() == 0 && web != null) App.post(web, 0);
+        lose();
+    }
+
+    private void onTimeout() {
+        settled = true;
+        onParseError();
+    }
+
+    private void lose() {
+        if (pending.decrementAndGet() == 0) onParseError();
     }
 
-    private void checkResult(Map<String, String> headers, String url, String from, boolean error) {
+    private Runnable getWeb(List<Parse> webs, String webUrl) {
+        AtomicBoolean started = new AtomicBoolean();
+        return () -> {
+            if (!done.get() && started.compareAndSet(false, true)) startWeb(webs, webUrl);
+        };
+    }
+
+    private boolean checkResult(Map<String, String> headers, String url, String from, boolean error) {
         if (url.length() > 40) {
             onParseSuccess(headers, url, from);
+            return true;
         } else if (error) {
             onParseError();
         }
+        return false;
     }
 
     private void checkResult(Result result) {
@@ -171,7 +225,17 @@ public class ParseJob implements ParseCallback {
     private void startWeb(List<Parse> items, String webUrl) {
         StringBuilder sb = new StringBuilder();
         for (Parse item : items) sb.append(item.getUrl()).append(";");
-        startWeb(new HashMap<>(), Server.get().getAddress("/parse?jxs=" + Util.substring(sb.toString()) + "&url=" + webUrl));
+        startWeb("", "", new HashMap<>(), Server.get().getAddress("/parse?jxs=" + Util.substring(sb.toString()) + "&url=" + webUrl), "", new ParseCallback() {
+            @Override
+            public void onParseSuccess(Map<String, String> headers, String url, String from) {
+                ParseJob.this.onParseSuccess(headers, url, from);
+            }
+
+            @Override
+            public void onParseError() {
+                lose();
+            }
+        });
     }
 
     private void startWeb(String key, Parse item, String webUrl) {
@@ -183,7 +247,13 @@ public class ParseJob implements ParseCallback {
     }
 
     private void startWeb(String key, String from, Map<String, String> headers, String url, String click) {
-        App.post(() -> webViews.add(CustomWebView.create(App.get()).start(key, from, headers, url, click, this, !url.contains("player/?url="))));
+        startWeb(key, from, headers, url, click, this);
+    }
+
+    private void startWeb(String key, String from, Map<String, String> headers, String url, String click, ParseCallback callback) {
+        App.post(() -> {
+            if (!done.get()) webViews.add(CustomWebView.create(App.get()).start(key, from, headers, url, click, callback, !url.contains("player/?url=")));
+        });
     }
 
     private Map<String, String> getHeader(JsonObject object) {
@@ -195,6 +265,9 @@ public class ParseJob implements ParseCallback {
 
     @Override
     public void onParseSuccess(Map<String, String> headers, String url, String from) {
+        if (!done.compareAndSet(false, true)) return;
+        settled = true;
+        OkHttp.cancel(tag);
         App.post(() -> {
             if (callback != null) callback.onParseSuccess(headers, url, from);
             stop();
@@ -203,6 +276,8 @@ public class ParseJob implements ParseCallback {
 
     @Override
     public void onParseError() {
+        if (!done.compareAndSet(false, true)) return;
+        OkHttp.cancel(tag);
         App.post(() -> {
             if (callback != null) callback.onParseError();
             stop();
@@ -215,6 +290,10 @@ public class ParseJob implements ParseCallback {
     }
 
     public void stop() {
+        done.set(true);
+        OkHttp.cancel(tag);
+        if (web != null) App.removeCallbacks(web);
+        App.removeCallbacks(timeout);
         if (executor != null) executor.shutdownNow();
         if (infinite != null) infinite.shutdownNow();
         infinite = null;
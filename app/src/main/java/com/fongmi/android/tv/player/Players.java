@@ -20,6 +20,7 @@ import android.text.TextUtils;
 import androidx.annotation.NonNull;
 import androidx.media3.common.AudioAttributes;
 import androidx.media3.common.C;
+import androidx.media3.common.Format;
 import androidx.media3.common.PlaybackException;
 import androidx.media3.common.Player;
 import androidx.media3.common.Tracks;
@@ -39,14 +40,18 @@ import com.fongmi.android.tv.bean.Drm;
 import com.fongmi.android.tv.bean.Result;
 import com.fongmi.android.tv.bean.Sub;
 import com.fongmi.android.tv.bean.Track;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.ActionEvent;
 import com.fongmi.android.tv.event.ErrorEvent;
 import com.fongmi.android.tv.event.PlayerEvent;
 import com.fongmi.android.tv.impl.ParseCallback;
 import com.fongmi.android.tv.impl.SessionCallback;
 import com.fongmi.android.tv.player.danmaku.DanPlayer;
+import com.fongmi.android.tv.player.exo.BufferProfile;
 import com.fongmi.android.tv.player.exo.ExoUtil;
+import com.fongmi.android.tv.player.exo.HostBandwidthMeter;
 import com.fongmi.android.tv.server.Server;
+import com.fongmi.android.tv.ui.activity.LiveActivity;
 import com.fongmi.android.tv.utils.FileUtil;
 import com.fongmi.android.tv.utils.Notify;
 import com.fongmi.android.tv.utils.ResUtil;
@@ -82,9 +87,11 @@ public class Players implements Player.Listener, ParseCallback {
     private Map<String, String> headers;
     private MediaSessionCompat session;
     private List<Danmaku> danmakus;
+    private BufferProfile profile;
     private ExoPlayer exoPlayer;
     private DanPlayer danPlayer;
     private ParseJob parseJob;
+    private String parseKey;
     private PlayerView view;
     private VideoSize size;
     private List<Sub> subs;
@@ -95,6 +102,7 @@ public class Players implements Player.Listener, ParseCallback {
     private Drm drm;
     private Sub sub;
 
+    private boolean vod;
     private int decode;
     private int retry;
 
@@ -105,6 +113,7 @@ public class Players implements Player.Listener, ParseCallback {
     }
 
     private Players(Activity activity) {
+        vod = !(activity instanceof LiveActivity);
         decode = Setting.getDecode();
         builder = new StringBuilder();
         runnable = () -> ErrorEvent.timeout(tag);
@@ -127,6 +136,10 @@ public class Players implements Player.Listener, ParseCallback {
     }
 
     private void setPlayer(PlayerView view) {
+        setPlayer(view, BufferProfile.get(vod, HostBandwidthMeter.get().getEstimate()));
+    }
+
+    private void setPlayer(PlayerView view, BufferProfile profile) {
         int renderMode;
         if (decode == HARD) {
             renderMode = EXTENSION_RENDERER_MODE_ON; // 强制硬解
@@ -136,8 +149,10 @@ public class Players implements Player.Listener, ParseCallback {
             renderMode = androidx.media3.exoplayer.DefaultRenderersFactory.EXTENSION_RENDERER_MODE_OFF; // 自动选择
         }
         
+        this.profile = profile;
         exoPlayer = new ExoPlayer.Builder(App.get())
-            .setLoadControl(ExoUtil.buildLoadControl())
+            .setLoadControl(ExoUtil.buildLoadControl(profile))
+            .setBandwidthMeter(HostBandwidthMeter.get())
             .setTrackSelector(ExoUtil.buildTrackSelector())
             .setRenderersFactory(ExoUtil.buildRenderersFactory(renderMode))
             .setMediaSourceFactory(ExoUtil.buildMediaSourceFactory())
@@ -249,6 +264,11 @@ public class Players implements Player.Listener, ParseCallback {
         return exoPlayer == null ? 0 : exoPlayer.getBufferedPosition();
     }
 
+    public int getBitrate() {
+        Format format = exoPlayer == null ? null : exoPlayer.getVideoFormat();
+        return format == null ? 0 : format.bitrate;
+    }
+
     public boolean retried() {
         return ++retry > 2;
     }
@@ -299,7 +319,7 @@ public class Players implements Player.Listener, ParseCallback {
     }
 
     public String getSizeText() {
-        return getVideoWidth() == 0 && getVideoHeight() == 0 ? "" : getVideoWidth() + " x " + getVideoHeight();
+        return getVideoWidth() == 0 && getVideoHeight() == 0 ? "" : getVideoWidth() + " x " + getVideoHeight() + (profile == null ? "" : " · " + profile);
     }
 
     public String getSpeedText() {
@@ -398,6 +418,7 @@ public class Players implements Player.Listener, ParseCallback {
     }
 
     public void release() {
+        Prefetch.get().stop();
         stopParse();
         releasePlayer();
         session.release();
@@ -418,6 +439,7 @@ public class Players implements Player.Listener, ParseCallback {
     }
 
     public void start(Channel channel, long timeout) {
+        vod = false;
         if (channel.getDrm() != null && !FrameworkMediaDrm.isCryptoSchemeSupported(channel.getDrm().getUUID())) {
             ErrorEvent.drm(tag);
         } else if (channel.hasMsg()) {
@@ -432,6 +454,7 @@ public class Players implements Player.Listener, ParseCallback {
     }
 
     public void start(Result result, boolean useParse, long timeout) {
+        vod = true;
         if (result.getDrm() != null && !FrameworkMediaDrm.isCryptoSchemeSupported(result.getDrm().getUUID())) {
             ErrorEvent.drm(tag);
         } else if (result.hasMsg()) {
@@ -451,7 +474,10 @@ public class Players implements Player.Listener, ParseCallback {
         subs = result.getSubs();
         format = result.getFormat();
         danmakus = result.getDanmaku();
-        parseJob = ParseJob.create(this).start(result, useParse);
+        parseKey = ParseCache.key(result, useParse);
+        ParseCache.Entry entry = ParseCache.get().get(parseKey);
+        if (entry != null) setMediaItem(entry.getHeaders(), entry.getUrl());
+        else parseJob = ParseJob.create(this).start(result, useParse);
     }
 
     private void stopParse() {
@@ -492,8 +518,16 @@ public class Players implements Player.Listener, ParseCallback {
         setMediaItem(result.getHeaders(), result.getRealUrl(), result.getFormat(), result.getDrm(), result.getSubs(), result.getDanmaku(), timeout);
     }
 
+    private void checkProfile(String url) {
+        long bitrate = HostBandwidthMeter.get().setHost(UrlUtil.host(url));
+        if (exoPlayer == null || view == null || profile == null || profile.isVod() == vod) return;
+        exoPlayer.release();
+        setPlayer(view, BufferProfile.get(vod, bitrate));
+    }
+
     private void setMediaItem(Map<String, String> headers, String url, String format, Drm drm, List<Sub> subs, List<Danmaku> danmakus, long timeout) {
-        if (exoPlayer != null) exoPlayer.setMediaItem(ExoUtil.getMediaItem(this.headers = checkUa(headers), UrlUtil.uri(this.url = url), this.format = format, this.drm = drm, checkSub(this.subs = subs), decode));
+        checkProfile(url);
+        if (exoPlayer != null) exoPlayer.setMediaItem(ExoUtil.getMediaItem(this.headers = checkUa(headers), UrlUtil.uri(UrlUtil.hls(this.url = url, format)), this.format = format, this.drm = drm, checkSub(this.subs = subs), decode, vod));
         if (danPlayer != null) setDanmaku(this.danmakus = danmakus);
         App.post(runnable, timeout);
         PlayerEvent.prepare(tag);
@@ -620,6 +654,7 @@ public class Players implements Player.Listener, ParseCallback {
     public void onParseSuccess(Map<String, String> headers, String url, String from) {
         if (!TextUtils.isEmpty(from)) Notify.show(ResUtil.getString(R.string.parse_from, from));
         if (headers != null) headers.remove(HttpHeaders.RANGE);
+        if (parseKey != null) ParseCache.get().put(parseKey, headers, url, from);
         setMediaItem(headers, url);
     }
 
@@ -662,13 +697,17 @@ public class Players implements Player.Listener, ParseCallback {
     @Override
     public void onTracksChanged(@NonNull Tracks tracks) {
         if (tracks.isEmpty()) return;
-        setTrack(Track.find(getKey()));
-        PlayerEvent.track(tag);
+        String key = getKey();
+        Repository.load(() -> Track.find(key), items -> {
+            if (exoPlayer != null && TextUtils.equals(key, getKey())) setTrack(items);
+            PlayerEvent.track(tag);
+        });
     }
 
     @Override
     public void onPlayerError(@NonNull PlaybackException error) {
         Logger.t(TAG).e(error.errorCode + "," + url);
+        ParseCache.get().invalidate(url);
         // 使用友好的错误提示
         String friendlyMsg = new com.fongmi.android.tv.player.exo.ErrorMsgProvider().get(error);
         Logger.t(TAG).e("Error: " + friendlyMsg);
@@ -0,0 +1,226 @@
+package com.fongmi.android.tv.player;
+
+import android.net.Uri;
+
+import androidx.media3.common.MimeTypes;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheWriter;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
+
+import com.fongmi.android.tv.App;
+import com.fongmi.android.tv.Setting;
+import com.fongmi.android.tv.bean.Result;
+import com.fongmi.android.tv.impl.ParseCallback;
+import com.fongmi.android.tv.player.exo.CacheManager;
+import com.fongmi.android.tv.utils.UrlUtil;
+import com.github.catvod.net.OkHttp;
+import com.google.common.net.HttpHeaders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Headers;
+import okhttp3.Response;
+
+public class Prefetch {
+
+    private static final long SECONDS = 30;
+    private static final long MIN_AHEAD = TimeUnit.SECONDS.toMillis(20);
+    private static final long MIN_BYTES = 2 * 1024 * 1024;
+    private static final long MAX_BYTES = 16 * 1024 * 1024;
+    private static final int CHUNK = 512 * 1024;
+
+    private final ExecutorService executor;
+    private final Runnable sample;
+    private final Object lock;
+    private volatile boolean stopped;
+    private volatile long ahead;
+    private volatile int bitrate;
+    private CacheWriter writer;
+    private ParseJob parseJob;
+    private Players players;
+    private Future<?> future;
+
+    private static class Loader {
+        static volatile Prefetch INSTANCE = new Prefetch();
+    }
+
+    public static Prefetch get() {
+        return Loader.INSTANCE;
+    }
+
+    private Prefetch() {
+        this.executor = Executors.newSingleThreadExecutor();
+        this.sample = this::sample;
+        this.lock = new Object();
+    }
+
+    public static boolean isTime(long position, long duration) {
+        int percent = Setting.getPrefetch();
+        return percent > 0 && duration > 0 && position >= duration * percent / 100;
+    }
+
+    public void start(Players players, Result result, boolean useParse) {
+        App.post(() -> {
+            stop();
+            this.stopped = false;
+            this.players = players;
+            sample();
+            if (result.getParse() == 1 || result.getJx() == 1) parse(result, useParse);
+            else preload(result.getHeaders(), result.getRealUrl(), result.getFormat());
+        });
+    }
+
+    private void parse(Result result, boolean useParse) {
+        String key = ParseCache.key(result, useParse);
+        ParseCache.Entry entry = ParseCache.get().get(key);
+        if (entry != null) preload(entry.getHeaders(), entry.getUrl(), result.getFormat());
+        else parseJob = ParseJob.create(new ParseCallback() {
+            @Override
+            public void onParseSuccess(Map<String, String> headers, String url, String from) {
+                if (headers != null) headers.remove(HttpHeaders.RANGE);
+                ParseCache.get().put(key, headers, url, from);
+                preload(headers, url, result.getFormat());
+            }
+
+            @Override
+            public void onParseError() {
+            }
+        }).start(result, useParse);
+    }
+
+    private void sample() {
+        if (stopped || players == null) return;
+        long buffered = players.getBuffered();
+        ahead = buffered >= players.getDuration() ? Long.MAX_VALUE : buffered - players.getPosition();
+        bitrate = players.getBitrate();
+        if (ahead >= MIN_AHEAD) signal();
+        App.post(sample, 1000);
+    }
+
+    private void preload(Map<String, String> headers, String url, String format) {
+        if (stopped || !url.startsWith("http")) return;
+        future = executor.submit(() -> {
+            try {
+                if (isHls(url, format)) hls(headers, UrlUtil.hls(url, MimeTypes.APPLICATION_M3U8));
+                else write(headers, url, getBytes());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private boolean isHls(String url, String format) {
+        return MimeTypes.APPLICATION_M3U8.equals(format) || UrlUtil.path(UrlUtil.uri(url)).toLowerCase().endsWith(".m3u8");
+    }
+
+    private long getBytes() {
+        if (bitrate <= 0) return MIN_BYTES;
+        return Math.max(MIN_BYTES, Math.min(MAX_BYTES, bitrate / 8 * SECONDS));
+    }
+
+    private void hls(Map<String, String> headers, String url) throws Exception {
+        List<String> lines = playlist(headers, url);
+        String variant = variant(lines);
+        if (variant == null) segments(headers, url, lines);
+        else hls(headers, UrlUtil.resolve(url, variant));
+    }
+
+    private String variant(List<String> lines) {
+        boolean stream = false;
+        for (String line : lines) {
+            if (line.startsWith("#EXT-X-STREAM-INF")) stream = true;
+            else if (stream && !line.startsWith("#")) return line;
+        }
+        return null;
+    }
+
+    private void segments(Map<String, String> headers, String url, List<String> lines) throws Exception {
+        float duration = 0;
+        for (String line : lines) {
+            if (duration >= SECONDS || stopped) return;
+            if (line.startsWith("#EXT-X-BYTERANGE")) return;
+            if (line.startsWith("#EXTINF")) duration += number(line);
+            if (line.startsWith("#EXT-X-MAP") && line.contains("URI=\"")) write(headers, UrlUtil.resolve(url, attr(line)));
+            if (!line.startsWith("#")) write(headers, UrlUtil.resolve(url, line));
+        }
+    }
+
+    private List<String> playlist(Map<String, String> headers, String url) throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (Response res = OkHttp.newCall(url, Headers.of(headers)).execute()) {
+            for (String line : res.body().string().split("\n")) if (!line.trim().isEmpty()) lines.add(line.trim());
+        }
+        return lines;
+    }
+
+    private void write(Map<String, String> headers, String url) throws Exception {
+        throttle();
+        if (!stopped) cache(headers, new DataSpec(Uri.parse(url)));
+    }
+
+    private void write(Map<String, String> headers, String url, long length) throws Exception {
+        for (long offset = 0; offset < length && !stopped; offset += CHUNK) {
+            throttle();
+            if (!cache(headers, new DataSpec.Builder().setUri(Uri.parse(url)).setPosition(offset).setLength(Math.min(CHUNK, length - offset)).build())) return;
+        }
+    }
+
+    private boolean cache(Map<String, String> headers, DataSpec spec) {
+        OkHttpDataSource.Factory upstream = new OkHttpDataSource.Factory(OkHttp.client()).setDefaultRequestProperties(headers);
+        CacheDataSource source = new CacheDataSource.Factory().setCache(CacheManager.get().getCache()).setCacheKeyFactory(CacheManager.get().getKeyFactory()).setUpstreamDataSourceFactory(upstream).createDataSource();
+        try {
+            writer = new CacheWriter(source, spec, null, null);
+            writer.cache();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void throttle() throws InterruptedException {
+        synchronized (lock) {
+            while (!stopped && ahead < MIN_AHEAD) lock.wait();
+        }
+    }
+
+    private void signal() {
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    private String attr(String line) {
+        int start = line.indexOf("URI=\"") + 5;
+        return line.substring(start, line.indexOf('"', start));
+    }
+
+    private float number(String line) {
+        try {
+            String value = line.substring(line.indexOf(':') + 1);
+            int end = value.indexOf(',');
+            return Float.parseFloat(end == -1 ? value : value.substring(0, end));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+        signal();
+        App.removeCallbacks(sample);
+        if (parseJob != null) parseJob.stop();
+        if (writer != null) writer.cancel();
+        if (future != null) future.cancel(true);
+        parseJob = null;
+        players = null;
+        writer = null;
+        future = null;
+    }
+}
@@ -77,6 +77,10 @@ public class Source {
         }
     }
 
+    public boolean isExtract(String url) {
+        return getExtractor(url) != null;
+    }
+
     public String fetch(Result result) throws Exception {
         String url = result.getUrl().v();
         Extractor extractor = getExtractor(url);
@@ -0,0 +1,106 @@
+package com.fongmi.android.tv.player.exo;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.media3.exoplayer.DefaultLoadControl;
+import androidx.media3.exoplayer.LoadControl;
+
+import com.fongmi.android.tv.App;
+import com.fongmi.android.tv.Setting;
+
+import java.util.Locale;
+
+public class BufferProfile {
+
+    private static final long LOW_RAM = 1536L * 1024 * 1024;
+    private static final long FAST = 8_000_000;
+    private static final long SLOW = 2_000_000;
+    private static final int MB = 1024 * 1024;
+
+    private static Boolean lowRam;
+
+    private final String name;
+    private final boolean vod;
+    private final long bitrate;
+    private int minMs;
+    private int maxMs;
+    private int playMs;
+    private int rebufferMs;
+    private int targetBytes;
+
+    private BufferProfile(String name, boolean vod, long bitrate) {
+        this.name = name;
+        this.vod = vod;
+        this.bitrate = bitrate;
+        this.targetBytes = -1;
+    }
+
+    public static BufferProfile get(boolean vod, long bitrate) {
+        if (!Setting.isAdaptive()) return fixed(vod, bitrate);
+        BufferProfile profile = vod ? vod(bitrate) : live(bitrate);
+        return isLowRam() ? profile.lowRam(vod) : profile;
+    }
+
+    private static BufferProfile fixed(boolean vod, long bitrate) {
+        BufferProfile profile = new BufferProfile("FIXED", vod, bitrate);
+        profile.minMs = DefaultLoadControl.DEFAULT_MIN_BUFFER_MS * Setting.getBuffer();
+        profile.maxMs = DefaultLoadControl.DEFAULT_MAX_BUFFER_MS * Setting.getBuffer();
+        profile.playMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS;
+        profile.rebufferMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS;
+        return profile;
+    }
+
+    private static BufferProfile vod(long bitrate) {
+        BufferProfile profile = new BufferProfile("VOD", true, bitrate);
+        profile.minMs = Math.min(300_000, 50_000 * Setting.getBuffer());
+        profile.maxMs = Math.min(600_000, 120_000 * Setting.getBuffer());
+        profile.playMs = bitrate >= FAST ? 750 : bitrate > 0 && bitrate < SLOW ? 2500 : 1000;
+        profile.rebufferMs = bitrate > 0 && bitrate < SLOW ? 5000 : 2000;
+        return profile;
+    }
+
+    private static BufferProfile live(long bitrate) {
+        BufferProfile profile = new BufferProfile("LIVE", false, bitrate);
+        profile.minMs = 6_000;
+        profile.maxMs = 20_000;
+        profile.playMs = bitrate >= FAST ? 500 : 1000;
+        profile.rebufferMs = bitrate > 0 && bitrate < SLOW ? 3000 : 1500;
+        return profile;
+    }
+
+    private BufferProfile lowRam(boolean vod) {
+        BufferProfile profile = new BufferProfile(name + "-LOW", vod, bitrate);
+        profile.maxMs = Math.min(maxMs, vod ? 60_000 : 15_000);
+        profile.minMs = Math.min(minMs, profile.maxMs);
+        profile.playMs = playMs;
+        profile.rebufferMs = rebufferMs;
+        profile.targetBytes = (vod ? 32 : 16) * MB;
+        return profile;
+    }
+
+    private static synchronized boolean isLowRam() {
+        if (lowRam != null) return lowRam;
+        ActivityManager manager = (ActivityManager) App.get().getSystemService(Context.ACTIVITY_SERVICE);
+        ActivityManager.MemoryInfo info = new ActivityManager.MemoryInfo();
+        manager.getMemoryInfo(info);
+        return lowRam = manager.isLowRamDevice() || info.totalMem <= LOW_RAM;
+    }
+
+    public boolean isVod() {
+        return vod;
+    }
+
+    public LoadControl build() {
+        DefaultLoadControl.Builder builder = new DefaultLoadControl.Builder().setBufferDurationsMs(minMs, maxMs, playMs, rebufferMs);
+        if (targetBytes > 0) builder.setTargetBufferBytes(targetBytes).setPrioritizeTimeOverSizeThresholds(false);
+        return builder.build();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return bitrate > 0 ? String.format(Locale.getDefault(), "%s %.1fMbps", name, bitrate / 1_000_000f) : name;
+    }
+}
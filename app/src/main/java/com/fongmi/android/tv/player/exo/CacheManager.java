@@ -1,15 +1,44 @@
 package com.fongmi.android.tv.player.exo;
 
+import android.net.Uri;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
 import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
 import androidx.media3.datasource.cache.Cache;
-import androidx.media3.datasource.cache.NoOpCacheEvictor;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheKeyFactory;
 import androidx.media3.datasource.cache.SimpleCache;
 
 import com.fongmi.android.tv.App;
+import com.fongmi.android.tv.Setting;
 import com.github.catvod.utils.Path;
 
-public class CacheManager {
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CacheManager implements CacheDataSource.EventListener, TransferListener {
+
+    public static final String VOD = "vod";
 
+    private static final Set<String> EXPIRY = new HashSet<>(Arrays.asList("expires", "expire", "exp", "e", "deadline"));
+    private static final Set<String> SIGN = new HashSet<>(Arrays.asList("sign", "signature", "sig", "token"));
+    private static final long MB = 1024 * 1024;
+
+    private final CacheKeyFactory keyFactory;
+    private final AtomicLong network;
+    private final AtomicLong cached;
+    private final AtomicLong ignored;
+    private SizeEvictor evictor;
     private SimpleCache cache;
 
     private static class Loader {
@@ -20,13 +49,120 @@ public class CacheManager {
         return Loader.INSTANCE;
     }
 
-    public Cache getCache() {
+    private CacheManager() {
+        this.keyFactory = CacheManager::getKey;
+        this.network = new AtomicLong();
+        this.cached = new AtomicLong();
+        this.ignored = new AtomicLong();
+    }
+
+    public synchronized Cache getCache() {
         if (cache == null) create();
         return cache;
     }
 
+    public CacheKeyFactory getKeyFactory() {
+        return keyFactory;
+    }
+
     private void create() {
-        cache = new SimpleCache(Path.exo(), new NoOpCacheEvictor(), new StandaloneDatabaseProvider(App.get()));
+        cache = new SimpleCache(Path.exo(), evictor = new SizeEvictor(getMaxBytes()), new StandaloneDatabaseProvider(App.get()));
     }
-}
 
+    public synchronized void resize() {
+        if (cache != null) App.execute(() -> evictor.setMaxBytes(cache, getMaxBytes()));
+    }
+
+    private long getMaxBytes() {
+        long max = Math.max(64, Setting.getMediaCache()) * MB;
+        long usable = Path.exo().getUsableSpace();
+        return usable > 0 ? Math.min(max, Math.max(64 * MB, usable / 4)) : max;
+    }
+
+    public CacheDataSource.Factory getFactory(DataSource.Factory upstream, boolean write) {
+        CacheDataSource.Factory factory = new CacheDataSource.Factory().setCache(getCache()).setCacheKeyFactory(keyFactory).setUpstreamDataSourceFactory(upstream).setEventListener(this).setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+        return write ? factory : factory.setCacheWriteDataSinkFactory(null);
+    }
+
+    public static String getKey(DataSpec spec) {
+        if (spec.key != null) return spec.key;
+        Uri uri = spec.uri;
+        if (uri.getQuery() == null || !uri.isHierarchical()) return uri.toString();
+        Set<String> names = new HashSet<>();
+        for (String name : uri.getQueryParameterNames()) names.add(name.toLowerCase(Locale.ROOT));
+        Set<String> strip = getVolatile(names);
+        if (strip.isEmpty()) return uri.toString();
+        Uri.Builder builder = uri.buildUpon().clearQuery();
+        for (String name : uri.getQueryParameterNames()) {
+            if (strip.contains(name.toLowerCase(Locale.ROOT))) continue;
+            for (String value : uri.getQueryParameters(name)) builder.appendQueryParameter(name, value);
+        }
+        return builder.build().toString();
+    }
+
+    private static Set<String> getVolatile(Set<String> names) {
+        Set<String> items = new HashSet<>();
+        if (names.contains("auth_key")) items.add("auth_key");
+        if (names.containsAll(Arrays.asList("txsecret", "txtime"))) items.addAll(Arrays.asList("txsecret", "txtime"));
+        if (names.containsAll(Arrays.asList("wssecret", "wstime"))) items.addAll(Arrays.asList("wssecret", "wstime"));
+        if (names.containsAll(Arrays.asList("key-pair-id", "signature"))) items.addAll(Arrays.asList("key-pair-id", "signature", "policy", "expires"));
+        if (names.containsAll(Arrays.asList("ossaccesskeyid", "signature"))) items.addAll(Arrays.asList("ossaccesskeyid", "signature", "expires"));
+        if (names.contains("x-amz-signature")) for (String name : names) if (name.startsWith("x-amz-")) items.add(name);
+        if (names.contains("x-oss-signature")) for (String name : names) if (name.startsWith("x-oss-")) items.add(name);
+        if (Collections.disjoint(names, EXPIRY) || Collections.disjoint(names, SIGN)) return items;
+        for (String name : names) if (EXPIRY.contains(name) || SIGN.contains(name)) items.add(name);
+        return items;
+    }
+
+    public static boolean isCacheable(DataSpec spec) {
+        String scheme = spec.uri.getScheme();
+        String host = spec.uri.getHost();
+        String path = spec.uri.getPath();
+        if (scheme == null || !scheme.startsWith("http") || TextUtils.isEmpty(host)) return false;
+        if ("127.0.0.1".equals(host) || "localhost".equals(host)) return false;
+        if (path == null) return true;
+        path = path.toLowerCase(Locale.ROOT);
+        return !path.endsWith(".m3u8") && !path.endsWith(".m3u") && !path.endsWith(".mpd");
+    }
+
+    @Override
+    public void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+        cached.addAndGet(cachedBytesRead);
+    }
+
+    @Override
+    public void onCacheIgnored(int reason) {
+        ignored.incrementAndGet();
+    }
+
+    @Override
+    public void onTransferInitializing(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork) {
+    }
+
+    @Override
+    public void onTransferStart(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork) {
+    }
+
+    @Override
+    public void onBytesTransferred(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+        if (isNetwork) network.addAndGet(bytesTransferred);
+    }
+
+    @Override
+    public void onTransferEnd(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork) {
+    }
+
+    public String getStat() {
+        long hit = cached.get();
+        long miss = network.get();
+        Map<String, String> stat = new LinkedHashMap<>();
+        stat.put("cache", getCache().getCacheSpace() / MB + "MB / " + getMaxBytes() / MB + "MB");
+        stat.put("hit", hit / MB + "MB");
+        stat.put("miss", miss / MB + "MB");
+        stat.put("ratio", (hit + miss == 0 ? 0 : hit * 100 / (hit + miss)) + "%");
+        stat.put("ignored", String.valueOf(ignored.get()));
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : stat.entrySet()) sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        return sb.toString().trim();
+    }
+}
@@ -0,0 +1,135 @@
+package com.fongmi.android.tv.player.exo;
+
+import android.os.Handler;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+import androidx.media3.exoplayer.upstream.BandwidthMeter;
+import androidx.media3.exoplayer.upstream.DefaultBandwidthMeter;
+
+import com.fongmi.android.tv.App;
+import com.github.catvod.utils.Path;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class HostBandwidthMeter implements BandwidthMeter, TransferListener {
+
+    private static final long MIN_BYTES = 512 * 1024;
+    private static final float ALPHA = 0.3f;
+
+    private final DefaultBandwidthMeter meter;
+    private final Map<String, Long> history;
+    private final Runnable save;
+    private volatile String host;
+    private volatile long bytes;
+    private boolean loaded;
+
+    private static class Loader {
+        static volatile HostBandwidthMeter INSTANCE = new HostBandwidthMeter();
+    }
+
+    public static HostBandwidthMeter get() {
+        return Loader.INSTANCE;
+    }
+
+    private HostBandwidthMeter() {
+        this.meter = DefaultBandwidthMeter.getSingletonInstance(App.get());
+        this.save = () -> App.execute(this::write);
+        this.history = new ConcurrentHashMap<>();
+    }
+
+    private File getFile() {
+        return Path.files("bandwidth.json");
+    }
+
+    private synchronized void load() {
+        if (loaded) return;
+        loaded = true;
+        try {
+            Map<String, Long> items = App.gson().fromJson(Path.read(getFile()), new TypeToken<Map<String, Long>>() {}.getType());
+            if (items != null) history.putAll(items);
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void write() {
+        Path.write(getFile(), App.gson().toJson(history).getBytes());
+    }
+
+    public long setHost(String host) {
+        load();
+        this.host = host;
+        this.bytes = 0;
+        return getEstimate();
+    }
+
+    public long getEstimate() {
+        Long value = TextUtils.isEmpty(host) ? null : history.get(host);
+        return value != null ? value : 0;
+    }
+
+    private void record(long bitrate) {
+        String key = host;
+        if (TextUtils.isEmpty(key) || bitrate <= 0) return;
+        Long value = history.get(key);
+        history.put(key, value == null ? bitrate : (long) (value * (1 - ALPHA) + bitrate * ALPHA));
+        App.post(save, TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Override
+    public long getBitrateEstimate() {
+        long estimate = getEstimate();
+        return bytes < MIN_BYTES && estimate > 0 ? estimate : meter.getBitrateEstimate();
+    }
+
+    @Override
+    public long getTimeToFirstByteEstimateUs() {
+        return meter.getTimeToFirstByteEstimateUs();
+    }
+
+    @Nullable
+    @Override
+    public TransferListener getTransferListener() {
+        return this;
+    }
+
+    @Override
+    public void addEventListener(@NonNull Handler eventHandler, @NonNull EventListener eventListener) {
+        meter.addEventListener(eventHandler, eventListener);
+    }
+
+    @Override
+    public void removeEventListener(@NonNull EventListener eventListener) {
+        meter.removeEventListener(eventListener);
+    }
+
+    @Override
+    public void onTransferInitializing(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork) {
+        meter.onTransferInitializing(source, dataSpec, isNetwork);
+    }
+
+    @Override
+    public void onTransferStart(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork) {
+        meter.onTransferStart(source, dataSpec, isNetwork);
+    }
+
+    @Override
+    public void onBytesTransferred(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+        meter.onBytesTransferred(source, dataSpec, isNetwork, bytesTransferred);
+        if (isNetwork) bytes += bytesTransferred;
+    }
+
+    @Override
+    public void onTransferEnd(@NonNull DataSource source, @NonNull DataSpec dataSpec, boolean isNetwork) {
+        meter.onTransferEnd(source, dataSpec, isNetwork);
+        if (isNetwork && bytes >= MIN_BYTES) record(meter.getBitrateEstimate());
+    }
+}
@@ -10,7 +10,6 @@ import androidx.media3.common.MediaItem;
 import androidx.media3.datasource.DataSource;
 import androidx.media3.datasource.DefaultDataSource;
 import androidx.media3.datasource.HttpDataSource;
-import androidx.media3.datasource.cache.CacheDataSource;
 import androidx.media3.datasource.okhttp.OkHttpDataSource;
 import androidx.media3.exoplayer.drm.DrmSessionManagerProvider;
 import androidx.media3.exoplayer.source.ConcatenatingMediaSource2;
@@ -30,24 +29,32 @@ import java.util.Map;
 public class MediaSourceFactory implements MediaSource.Factory {
 
     private final DefaultMediaSourceFactory defaultMediaSourceFactory;
+    private final DefaultMediaSourceFactory cacheMediaSourceFactory;
+    private ParallelDataSource.Factory parallelDataSourceFactory;
     private HttpDataSource.Factory httpDataSourceFactory;
+    private DataSource.Factory cacheDataSourceFactory;
     private DataSource.Factory dataSourceFactory;
     private ExtractorsFactory extractorsFactory;
 
     public MediaSourceFactory() {
         defaultMediaSourceFactory = new DefaultMediaSourceFactory(getDataSourceFactory(), getExtractorsFactory());
+        cacheMediaSourceFactory = new DefaultMediaSourceFactory(getCacheDataSourceFactory(), getExtractorsFactory());
     }
 
     @NonNull
     @Override
     public MediaSource.Factory setDrmSessionManagerProvider(@NonNull DrmSessionManagerProvider drmSessionManagerProvider) {
-        return defaultMediaSourceFactory.setDrmSessionManagerProvider(drmSessionManagerProvider);
+        cacheMediaSourceFactory.setDrmSessionManagerProvider(drmSessionManagerProvider);
+        defaultMediaSourceFactory.setDrmSessionManagerProvider(drmSessionManagerProvider);
+        return this;
     }
 
     @NonNull
     @Override
     public MediaSource.Factory setLoadErrorHandlingPolicy(@NonNull LoadErrorHandlingPolicy loadErrorHandlingPolicy) {
-        return defaultMediaSourceFactory.setLoadErrorHandlingPolicy(loadErrorHandlingPolicy);
+        cacheMediaSourceFactory.setLoadErrorHandlingPolicy(loadErrorHandlingPolicy);
+        defaultMediaSourceFactory.setLoadErrorHandlingPolicy(loadErrorHandlingPolicy);
+        return this;
     }
 
     @NonNull
@@ -62,14 +69,20 @@ public class MediaSourceFactory implements MediaSource.Factory {
         if (mediaItem.mediaId.contains("***") && mediaItem.mediaId.contains("|||")) {
             return createConcatenatingMediaSource(setHeader(mediaItem));
         } else {
-            return defaultMediaSourceFactory.createMediaSource(setHeader(mediaItem));
+            return getMediaSourceFactory(mediaItem).createMediaSource(setHeader(mediaItem));
         }
     }
 
+    private DefaultMediaSourceFactory getMediaSourceFactory(MediaItem mediaItem) {
+        boolean vod = mediaItem.localConfiguration != null && CacheManager.VOD.equals(mediaItem.localConfiguration.tag);
+        return vod ? cacheMediaSourceFactory : defaultMediaSourceFactory;
+    }
+
     private MediaItem setHeader(MediaItem mediaItem) {
         Map<String, String> headers = new HashMap<>();
         for (String key : mediaItem.requestMetadata.extras.keySet()) headers.put(key, mediaItem.requestMetadata.extras.get(key).toString());
         getHttpDataSourceFactory().setDefaultRequestProperties(headers);
+        getParallelDataSourceFactory().setDefaultRequestProperties(headers);
         return mediaItem;
     }
 
@@ -77,7 +90,7 @@ public class MediaSourceFactory implements MediaSource.Factory {
         ConcatenatingMediaSource2.Builder builder = new ConcatenatingMediaSource2.Builder();
         for (String split : mediaItem.mediaId.split("\\*\\*\\*")) {
             String[] info = split.split("\\|\\|\\|");
-            if (info.length >= 2) builder.add(defaultMediaSourceFactory.createMediaSource(mediaItem.buildUpon().setUri(Uri.parse(info[0])).build()), Long.parseLong(info[1]));
+            if (info.length >= 2) builder.add(getMediaSourceFactory(mediaItem).createMediaSource(mediaItem.buildUpon().setUri(Uri.parse(info[0])).build()), Long.parseLong(info[1]));
         }
         return builder.build();
     }
@@ -88,16 +101,26 @@ public class MediaSourceFactory implements MediaSource.Factory {
     }
 
     private DataSource.Factory getDataSourceFactory() {
-        if (dataSourceFactory == null) dataSourceFactory = buildReadOnlyCacheDataSource(new DefaultDataSource.Factory(App.get(), getHttpDataSourceFactory()));
+        if (dataSourceFactory == null) dataSourceFactory = CacheManager.get().getFactory(getUpstreamDataSourceFactory(), false);
         return dataSourceFactory;
     }
 
-    private CacheDataSource.Factory buildReadOnlyCacheDataSource(DataSource.Factory upstreamFactory) {
-        return new CacheDataSource.Factory().setCache(CacheManager.get().getCache()).setUpstreamDataSourceFactory(upstreamFactory).setCacheWriteDataSinkFactory(null).setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+    private DataSource.Factory getCacheDataSourceFactory() {
+        if (cacheDataSourceFactory == null) cacheDataSourceFactory = new SwitchDataSource.Factory(getUpstreamDataSourceFactory(), CacheManager.get().getFactory(getUpstreamDataSourceFactory(), true));
+        return cacheDataSourceFactory;
+    }
+
+    private DataSource.Factory getUpstreamDataSourceFactory() {
+        return new DefaultDataSource.Factory(App.get(), getParallelDataSourceFactory());
+    }
+
+    private ParallelDataSource.Factory getParallelDataSourceFactory() {
+        if (parallelDataSourceFactory == null) parallelDataSourceFactory = new ParallelDataSource.Factory(getHttpDataSourceFactory()).setTransferListener(CacheManager.get());
+        return parallelDataSourceFactory;
     }
 
     private HttpDataSource.Factory getHttpDataSourceFactory() {
-        if (httpDataSourceFactory == null) httpDataSourceFactory = new OkHttpDataSource.Factory(OkHttp.client());
+        if (httpDataSourceFactory == null) httpDataSourceFactory = new OkHttpDataSource.Factory(OkHttp.client()).setTransferListener(CacheManager.get());
         return httpDataSourceFactory;
     }
 }
@@ -0,0 +1,417 @@
+package com.fongmi.android.tv.player.exo;
+
+import android.net.Uri;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media3.common.C;
+import androidx.media3.common.PlaybackException;
+import androidx.media3.datasource.BaseDataSource;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.HttpDataSource;
+import androidx.media3.datasource.TransferListener;
+
+import com.fongmi.android.tv.Setting;
+import com.fongmi.android.tv.utils.UrlUtil;
+import com.github.catvod.net.OkHttp;
+import com.google.common.net.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class ParallelDataSource extends BaseDataSource {
+
+    private static final Pattern RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+    private static final Map<String, Semaphore> HOSTS = new ConcurrentHashMap<>();
+    private static final Set<String> NO_RANGE = ConcurrentHashMap.newKeySet();
+    private static final int MAX_HOST = 8;
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(MAX_HOST * 2, MAX_HOST * 2, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    static final int CHUNK = 1024 * 1024;
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final List<TransferListener> listeners;
+    private final ArrayDeque<Future<byte[]>> queue;
+    private final DataSource upstream;
+    private final Factory factory;
+    private final Set<Call> calls;
+
+    private ByteArrayOutputStream playlist;
+    private DataSource current;
+    private DataSpec dataSpec;
+    private boolean network;
+    private boolean opened;
+    private byte[] buffer;
+    private int position;
+    private long remaining;
+    private long next;
+    private long end;
+    private int threads;
+
+    private ParallelDataSource(Factory factory, DataSource upstream) {
+        super(true);
+        this.listeners = new ArrayList<>();
+        this.calls = ConcurrentHashMap.newKeySet();
+        this.queue = new ArrayDeque<>();
+        this.upstream = upstream;
+        this.factory = factory;
+    }
+
+    @Override
+    public void addTransferListener(@NonNull TransferListener transferListener) {
+        super.addTransferListener(transferListener);
+        upstream.addTransferListener(transferListener);
+        listeners.add(transferListener);
+    }
+
+    @Override
+    public long open(@NonNull DataSpec dataSpec) throws IOException {
+        this.dataSpec = dataSpec;
+        this.threads = getThreads();
+        if (threads > 1 && isProxy(dataSpec.uri)) {
+            playlist = new ByteArrayOutputStream();
+            return delegate(dataSpec);
+        }
+        if (!isAccelerate(dataSpec)) return delegate(dataSpec);
+        String url = dataSpec.uri.toString();
+        if (isPlaylist(dataSpec.uri)) {
+            playlist = new ByteArrayOutputStream();
+            return delegate(dataSpec);
+        }
+        int index = factory.indexOf(url);
+        if (index >= 0) {
+            Future<byte[]> future = factory.take(url);
+            factory.prefetch(this, new ArrayList<>(listeners), index + 1, threads);
+            return future == null ? delegate(dataSpec) : open(dataSpec, future);
+        }
+        if (NO_RANGE.contains(dataSpec.uri.getHost())) return delegate(dataSpec);
+        if (dataSpec.length != C.LENGTH_UNSET && dataSpec.length <= CHUNK * 2L) return delegate(dataSpec);
+        return probe(dataSpec);
+    }
+
+    private static int getThreads() {
+        int index = Setting.getAccelerate();
+        return index <= 0 ? 0 : Math.min(MAX_HOST, 1 << index);
+    }
+
+    private boolean isAccelerate(DataSpec dataSpec) {
+        String scheme = dataSpec.uri.getScheme();
+        String host = dataSpec.uri.getHost();
+        if (threads <= 1 || dataSpec.httpMethod != DataSpec.HTTP_METHOD_GET || TextUtils.isEmpty(host)) return false;
+        if (isLocal(host)) return false;
+        return "http".equals(scheme) || "https".equals(scheme);
+    }
+
+    private boolean isPlaylist(Uri uri) {
+        return UrlUtil.path(uri).toLowerCase(Locale.ROOT).endsWith(".m3u8");
+    }
+
+    static boolean isProxy(Uri uri) {
+        return isLocal(uri.getHost()) && UrlUtil.path(uri).startsWith("/hls/") && !TextUtils.isEmpty(uri.getQueryParameter("url"));
+    }
+
+    private static boolean isLocal(String host) {
+        return "127.0.0.1".equals(host) || "localhost".equals(host);
+    }
+
+    static String getBase(Uri uri) {
+        return isProxy(uri) ? uri.getQueryParameter("url") : uri.toString();
+    }
+
+    @Nullable
+    static long[] getRange(String header) {
+        Matcher matcher = RANGE.matcher(header);
+        if (!matcher.matches()) return null;
+        return new long[]{Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)), Long.parseLong(matcher.group(3))};
+    }
+
+    static long getStop(long start, long end) {
+        return Math.min(end, start + CHUNK) - 1;
+    }
+
+    static int getWindow(int from, int size, int count) {
+        return Math.min(size, from + count - 1);
+    }
+
+    static List<String> getSegments(String url, String text) {
+        List<String> items = new ArrayList<>();
+        if (text.contains("#EXT-X-BYTERANGE") || !text.contains("#EXTINF")) return items;
+        for (String line : text.split("\n")) if (!line.trim().isEmpty() && !line.startsWith("#")) items.add(UrlUtil.resolve(url, line.trim()));
+        return items;
+    }
+
+    private long delegate(DataSpec dataSpec) throws IOException {
+        current = upstream;
+        return current.open(dataSpec);
+    }
+
+    private long open(DataSpec dataSpec, Future<byte[]> future) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = future.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            return delegate(dataSpec);
+        }
+        if (dataSpec.position > bytes.length) return delegate(dataSpec);
+        transferInitializing(dataSpec);
+        buffer = bytes;
+        position = (int) dataSpec.position;
+        remaining = dataSpec.length == C.LENGTH_UNSET ? bytes.length - position : Math.min(dataSpec.length, bytes.length - position);
+        opened = true;
+        transferStarted(dataSpec);
+        return remaining;
+    }
+
+    private long probe(DataSpec dataSpec) throws IOException {
+        transferInitializing(dataSpec);
+        long start = dataSpec.position;
+        Call call = OkHttp.client().newCall(factory.request(dataSpec, start, start + CHUNK - 1));
+        calls.add(call);
+        Semaphore semaphore = acquire(dataSpec.uri.getHost(), threads);
+        try (Response res = call.execute()) {
+            long[] range = getRange(res.header(HttpHeaders.CONTENT_RANGE, ""));
+            if (res.code() == 200 || "none".equalsIgnoreCase(res.header(HttpHeaders.ACCEPT_RANGES))) return fallback(dataSpec);
+            if (res.code() != 206 || range == null || range[0] != start) return delegate(dataSpec);
+            end = dataSpec.length == C.LENGTH_UNSET ? range[2] : Math.min(range[2], start + dataSpec.length);
+            buffer = res.body().bytes();
+            next = start + buffer.length;
+        } finally {
+            semaphore.release();
+            calls.remove(call);
+        }
+        position = 0;
+        remaining = end - start;
+        network = true;
+        opened = true;
+        schedule();
+        transferStarted(dataSpec);
+        return remaining;
+    }
+
+    private long fallback(DataSpec dataSpec) throws IOException {
+        NO_RANGE.add(dataSpec.uri.getHost());
+        return delegate(dataSpec);
+    }
+
+    private void schedule() {
+        while (queue.size() < threads && next < end) {
+            long start = next;
+            long stop = getStop(start, end);
+            next = stop + 1;
+            queue.add(EXECUTOR.submit(() -> factory.fetch(calls, dataSpec, start, stop, threads)));
+        }
+    }
+
+    private boolean poll() throws IOException {
+        Future<byte[]> future = queue.poll();
+        if (future == null) return false;
+        schedule();
+        try {
+            buffer = future.get();
+            position = 0;
+            return true;
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            IOException cause = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            throw new HttpDataSource.HttpDataSourceException(cause, dataSpec, PlaybackException.ERROR_CODE_IO_NETWORK_CONNECTION_FAILED, HttpDataSource.HttpDataSourceException.TYPE_READ);
+        }
+    }
+
+    @Override
+    public int read(@NonNull byte[] target, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (current != null) return tee(target, offset, current.read(target, offset, length));
+        if (remaining == 0) return C.RESULT_END_OF_INPUT;
+        if (position == buffer.length && !poll()) return C.RESULT_END_OF_INPUT;
+        int read = (int) Math.min(Math.min(length, buffer.length - position), remaining);
+        System.arraycopy(buffer, position, target, offset, read);
+        position += read;
+        remaining -= read;
+        if (network) bytesTransferred(read);
+        return read;
+    }
+
+    private int tee(byte[] target, int offset, int read) {
+        if (read > 0 && playlist != null) playlist.write(target, offset, read);
+        return read;
+    }
+
+    @Nullable
+    @Override
+    public Uri getUri() {
+        if (current != null) return current.getUri();
+        return dataSpec == null ? null : dataSpec.uri;
+    }
+
+    @NonNull
+    @Override
+    public Map<String, List<String>> getResponseHeaders() {
+        return current != null ? current.getResponseHeaders() : Collections.emptyMap();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Future<byte[]> future : queue) future.cancel(true);
+        for (Call call : calls) call.cancel();
+        queue.clear();
+        calls.clear();
+        buffer = null;
+        network = false;
+        if (playlist != null) factory.setPlaylist(getBase(dataSpec.uri), playlist.toString(StandardCharsets.UTF_8.name()));
+        playlist = null;
+        if (opened) transferEnded();
+        opened = false;
+        if (current == null) return;
+        try {
+            current.close();
+        } finally {
+            current = null;
+        }
+    }
+
+    private static Semaphore acquire(String host, int threads) throws InterruptedIOException {
+        Semaphore semaphore = HOSTS.computeIfAbsent(threads + "@" + host, key -> new Semaphore(threads));
+        try {
+            semaphore.acquire();
+            return semaphore;
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    public static class Factory implements DataSource.Factory {
+
+        private final Map<String, Future<byte[]>> segments;
+        private final DataSource.Factory upstream;
+        private final Map<String, String> headers;
+        private final List<String> playlist;
+        private TransferListener listener;
+
+        public Factory(DataSource.Factory upstream) {
+            this.segments = new LinkedHashMap<>();
+            this.playlist = new ArrayList<>();
+            this.headers = new HashMap<>();
+            this.upstream = upstream;
+        }
+
+        public Factory setTransferListener(TransferListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public synchronized Factory setDefaultRequestProperties(Map<String, String> headers) {
+            this.headers.clear();
+            this.headers.putAll(headers);
+            this.playlist.clear();
+            this.clear();
+            return this;
+        }
+
+        @NonNull
+        @Override
+        public DataSource createDataSource() {
+            ParallelDataSource source = new ParallelDataSource(this, upstream.createDataSource());
+            if (listener != null) source.addTransferListener(listener);
+            return source;
+        }
+
+        private synchronized Request request(DataSpec dataSpec, long start, long stop) {
+            Request.Builder builder = new Request.Builder().url(dataSpec.uri.toString());
+            for (Map.Entry<String, String> entry : headers.entrySet()) builder.header(entry.getKey(), entry.getValue());
+            for (Map.Entry<String, String> entry : dataSpec.httpRequestHeaders.entrySet()) builder.header(entry.getKey(), entry.getValue());
+            if (start >= 0) builder.header(HttpHeaders.RANGE, "bytes=" + start + "-" + stop);
+            return builder.build();
+        }
+
+        private byte[] fetch(Set<Call> calls, DataSpec dataSpec, long start, long stop, int threads) throws IOException {
+            Semaphore semaphore = acquire(dataSpec.uri.getHost(), threads);
+            Call call = OkHttp.client().newCall(request(dataSpec, start, stop));
+            calls.add(call);
+            try (Response res = call.execute()) {
+                if (start >= 0 && res.code() != 206) throw new IOException("Unexpected range response " + res.code());
+                if (!res.isSuccessful()) throw new IOException("Unexpected response " + res.code());
+                return res.body().bytes();
+            } finally {
+                semaphore.release();
+                calls.remove(call);
+            }
+        }
+
+        private synchronized void setPlaylist(String url, String text) {
+            List<String> items = getSegments(url, text);
+            if (items.isEmpty()) return;
+            playlist.clear();
+            playlist.addAll(items);
+        }
+
+        private synchronized int indexOf(String url) {
+            return playlist.indexOf(url);
+        }
+
+        private synchronized Future<byte[]> take(String url) {
+            return segments.remove(url);
+        }
+
+        private byte[] segment(DataSource source, List<TransferListener> listeners, DataSpec dataSpec, int threads) throws IOException {
+            for (TransferListener listener : listeners) listener.onTransferInitializing(source, dataSpec, true);
+            for (TransferListener listener : listeners) listener.onTransferStart(source, dataSpec, true);
+            try {
+                byte[] bytes = fetch(ConcurrentHashMap.newKeySet(), dataSpec, -1, -1, threads);
+                for (TransferListener listener : listeners) listener.onBytesTransferred(source, dataSpec, true, bytes.length);
+                return bytes;
+            } finally {
+                for (TransferListener listener : listeners) listener.onTransferEnd(source, dataSpec, true);
+            }
+        }
+
+        private synchronized void prefetch(ParallelDataSource source, List<TransferListener> listeners, int from, int count) {
+            int to = getWindow(from, playlist.size(), count);
+            for (int i = from; i < to; i++) {
+                String url = playlist.get(i);
+                if (segments.containsKey(url)) continue;
+                DataSpec dataSpec = new DataSpec.Builder().setUri(url).setHttpRequestHeaders(source.dataSpec.httpRequestHeaders).build();
+                segments.put(url, EXECUTOR.submit(() -> segment(source, listeners, dataSpec, count)));
+            }
+            while (segments.size() > count) {
+                String url = segments.keySet().iterator().next();
+                segments.remove(url).cancel(true);
+            }
+        }
+
+        private synchronized void clear() {
+            for (Future<byte[]> future : segments.values()) future.cancel(true);
+            segments.clear();
+        }
+    }
+}
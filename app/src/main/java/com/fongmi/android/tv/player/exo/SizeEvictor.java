@@ -0,0 +1,70 @@
+package com.fongmi.android.tv.player.exo;
+
+import androidx.annotation.NonNull;
+import androidx.media3.common.C;
+import androidx.media3.datasource.cache.Cache;
+import androidx.media3.datasource.cache.CacheEvictor;
+import androidx.media3.datasource.cache.CacheSpan;
+
+import java.util.TreeSet;
+
+public class SizeEvictor implements CacheEvictor {
+
+    private final TreeSet<CacheSpan> spans;
+    private volatile long maxBytes;
+    private long size;
+
+    public SizeEvictor(long maxBytes) {
+        this.spans = new TreeSet<>(SizeEvictor::compare);
+        this.maxBytes = maxBytes;
+    }
+
+    public void setMaxBytes(Cache cache, long maxBytes) {
+        this.maxBytes = maxBytes;
+        synchronized (cache) {
+            evict(cache, 0);
+        }
+    }
+
+    @Override
+    public boolean requiresCacheSpanTouches() {
+        return true;
+    }
+
+    @Override
+    public void onCacheInitialized() {
+    }
+
+    @Override
+    public void onStartFile(@NonNull Cache cache, @NonNull String key, long position, long length) {
+        if (length != C.LENGTH_UNSET) evict(cache, length);
+    }
+
+    @Override
+    public void onSpanAdded(@NonNull Cache cache, @NonNull CacheSpan span) {
+        spans.add(span);
+        size += span.length;
+        evict(cache, 0);
+    }
+
+    @Override
+    public void onSpanRemoved(@NonNull Cache cache, @NonNull CacheSpan span) {
+        spans.remove(span);
+        size -= span.length;
+    }
+
+    @Override
+    public void onSpanTouched(@NonNull Cache cache, @NonNull CacheSpan oldSpan, @NonNull CacheSpan newSpan) {
+        onSpanRemoved(cache, oldSpan);
+        onSpanAdded(cache, newSpan);
+    }
+
+    private void evict(Cache cache, long required) {
+        while (size + required > maxBytes && !spans.isEmpty()) cache.removeSpan(spans.first());
+    }
+
+    private static int compare(CacheSpan lhs, CacheSpan rhs) {
+        if (lhs.lastTouchTimestamp == rhs.lastTouchTimestamp) return lhs.compareTo(rhs);
+        return lhs.lastTouchTimestamp < rhs.lastTouchTimestamp ? -1 : 1;
+    }
+}
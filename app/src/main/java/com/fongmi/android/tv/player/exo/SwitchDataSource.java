@@ -0,0 +1,77 @@
+package com.fongmi.android.tv.player.exo;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class SwitchDataSource implements DataSource {
+
+    private final DataSource upstream;
+    private final DataSource cache;
+    private DataSource current;
+
+    public SwitchDataSource(DataSource upstream, DataSource cache) {
+        this.upstream = upstream;
+        this.cache = cache;
+    }
+
+    @Override
+    public void addTransferListener(@NonNull TransferListener transferListener) {
+        upstream.addTransferListener(transferListener);
+        cache.addTransferListener(transferListener);
+    }
+
+    @Override
+    public long open(@NonNull DataSpec dataSpec) throws IOException {
+        current = CacheManager.isCacheable(dataSpec) ? cache : upstream;
+        return current.open(dataSpec);
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+        return current.read(buffer, offset, length);
+    }
+
+    @Nullable
+    @Override
+    public Uri getUri() {
+        return current == null ? null : current.getUri();
+    }
+
+    @NonNull
+    @Override
+    public Map<String, List<String>> getResponseHeaders() {
+        return current == null ? upstream.getResponseHeaders() : current.getResponseHeaders();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (current != null) current.close();
+        current = null;
+    }
+
+    public static class Factory implements DataSource.Factory {
+
+        private final DataSource.Factory upstream;
+        private final DataSource.Factory cache;
+
+        public Factory(DataSource.Factory upstream, DataSource.Factory cache) {
+            this.upstream = upstream;
+            this.cache = cache;
+        }
+
+        @NonNull
+        @Override
+        public DataSource createDataSource() {
+            return new SwitchDataSource(upstream.createDataSource(), cache.createDataSource());
+        }
+    }
+}
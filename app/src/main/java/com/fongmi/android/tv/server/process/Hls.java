@@ -0,0 +1,473 @@
+package com.fongmi.android.tv.server.process;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.collection.LruCache;
+
+import com.fongmi.android.tv.App;
+import com.fongmi.android.tv.api.AdBlocker;
+import com.fongmi.android.tv.server.Nano;
+import com.fongmi.android.tv.server.Server;
+import com.fongmi.android.tv.server.impl.Process;
+import com.fongmi.android.tv.utils.UrlUtil;
+import com.github.catvod.net.OkHttp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import fi.iki.elonen.NanoHTTPD;
+import okhttp3.Headers;
+import okhttp3.Response;
+
+public class Hls implements Process {
+
+    private static final String MIME = "application/vnd.apple.mpegurl";
+    private static final Pattern URI = Pattern.compile("URI=\"([^\"]*)\"");
+    private static final String[] SEGMENT = {"#EXTINF", "#EXT-X-BYTERANGE", "#EXT-X-KEY", "#EXT-X-MAP", "#EXT-X-PROGRAM-DATE-TIME", "#EXT-X-DISCONTINUITY", "#EXT-X-GAP", "#EXT-X-BITRATE"};
+    private static final String[] STATE = {"#EXT-X-KEY", "#EXT-X-MAP", "#EXT-X-DISCONTINUITY"};
+    private static final String[] SKIP = {"host", "connection", "range", "accept-encoding", "remote-addr", "http-client-ip"};
+    private static final long TTL_VOD = TimeUnit.MINUTES.toMillis(10);
+    private static final long TTL_MIN = TimeUnit.SECONDS.toMillis(1);
+    private static final long TTL_MAX = TimeUnit.SECONDS.toMillis(5);
+    private static final int MAX_CACHE = 4 * 1024 * 1024;
+    private static final float AD_DURATION = 60;
+
+    private final LruCache<String, Window> windows;
+    private final LruCache<String, Entry> cache;
+    private final AtomicLong requests;
+    private final AtomicLong removed;
+    private final AtomicLong hits;
+
+    public Hls() {
+        this.hits = new AtomicLong();
+        this.removed = new AtomicLong();
+        this.requests = new AtomicLong();
+        this.windows = new LruCache<>(64);
+        this.cache = new LruCache<>(MAX_CACHE) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull Entry value) {
+                return value.text.length() * 2;
+            }
+        };
+    }
+
+    public static String getUrl(String url) {
+        return Server.get().getAddress("/hls/index.m3u8?url=" + Uri.encode(url));
+    }
+
+    @Override
+    public boolean isRequest(NanoHTTPD.IHTTPSession session, String url) {
+        return url.startsWith("/hls");
+    }
+
+    @Override
+    public NanoHTTPD.Response doResponse(NanoHTTPD.IHTTPSession session, String url, Map<String, String> files) {
+        if (url.startsWith("/hls/stat")) return Nano.ok(getStat());
+        String target = session.getParms().get("url");
+        if (target == null || target.isEmpty()) return Nano.error(NanoHTTPD.Response.Status.BAD_REQUEST, "url");
+        requests.incrementAndGet();
+        Entry entry = cache.get(target);
+        if (entry != null && entry.expire > System.currentTimeMillis()) {
+            hits.incrementAndGet();
+            return NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.OK, MIME, entry.text);
+        }
+        try {
+            Response res = OkHttp.newCall(target, Headers.of(getHeaders(session))).execute();
+            BufferedReader reader = new BufferedReader(res.body().charStream());
+            if (!res.isSuccessful() || !isPlaylist(reader)) {
+                res.close();
+                return redirect(target);
+            }
+            return NanoHTTPD.newChunkedResponse(NanoHTTPD.Response.Status.OK, MIME, new Rewriter(target, res.request().url().toString(), reader));
+        } catch (Exception e) {
+            return redirect(target);
+        }
+    }
+
+    private boolean isPlaylist(BufferedReader reader) throws IOException {
+        reader.mark(1024);
+        char[] buffer = new char[1024];
+        int count = reader.read(buffer);
+        reader.reset();
+        return count > 0 && new String(buffer, 0, count).trim().startsWith("#EXTM3U");
+    }
+
+    private Map<String, String> getHeaders(NanoHTTPD.IHTTPSession session) {
+        Map<String, String> headers = new HashMap<>();
+        for (Map.Entry<String, String> entry : session.getHeaders().entrySet()) if (!isSkip(entry.getKey())) headers.put(UrlUtil.fixHeader(entry.getKey()), entry.getValue());
+        return headers;
+    }
+
+    private boolean isSkip(String key) {
+        for (String skip : SKIP) if (skip.equalsIgnoreCase(key)) return true;
+        return false;
+    }
+
+    private NanoHTTPD.Response redirect(String url) {
+        NanoHTTPD.Response response = NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.REDIRECT, NanoHTTPD.MIME_PLAINTEXT, "");
+        response.addHeader("Location", url);
+        return response;
+    }
+
+    private String getStat() {
+        Map<String, Long> stat = new LinkedHashMap<>();
+        stat.put("requests", requests.get());
+        stat.put("hits", hits.get());
+        stat.put("removed", removed.get());
+        return App.gson().toJson(stat);
+    }
+
+    private Window getWindow(String target) {
+        synchronized (windows) {
+            Window window = windows.get(target);
+            if (window == null) windows.put(target, window = new Window());
+            return window;
+        }
+    }
+
+    private static class Window {
+
+        private final TreeSet<Long> removed = new TreeSet<>();
+        private long pruned;
+        private long kept = -1;
+
+        synchronized void prune(long start) {
+            SortedSet<Long> head = removed.headSet(start);
+            pruned += head.size();
+            head.clear();
+        }
+
+        synchronized long before(long seq) {
+            return pruned + removed.headSet(seq).size();
+        }
+
+        synchronized boolean isRemoved(long seq) {
+            return removed.contains(seq);
+        }
+
+        synchronized boolean isKept(long seq) {
+            return seq <= kept && !removed.contains(seq);
+        }
+
+        synchronized void remove(List<Long> seqs) {
+            for (long seq : seqs) if (seq > kept) removed.add(seq);
+        }
+
+        synchronized void keep(long seq) {
+            kept = Math.max(kept, seq);
+        }
+    }
+
+    private static class Entry {
+
+        private final long expire;
+        private final String text;
+
+        Entry(long expire, String text) {
+            this.expire = expire;
+            this.text = text;
+        }
+    }
+
+    private static class Section {
+
+        private final StringBuilder text = new StringBuilder();
+        private final StringBuilder fixed = new StringBuilder();
+        private final StringBuilder state = new StringBuilder();
+        private final List<Long> seqs = new ArrayList<>();
+        private String prefix;
+        private float duration;
+        private boolean stream;
+        private boolean keep;
+        private int count;
+
+        void add(String unit, String state, float duration, String prefix, long seq) {
+            if (this.prefix == null) this.prefix = prefix;
+            this.duration += duration;
+            this.state.append(state);
+            this.text.append(unit);
+            this.seqs.add(seq);
+            this.count++;
+        }
+
+        void fixed(String line) {
+            text.append(line).append('\n');
+            fixed.append(line).append('\n');
+        }
+
+        boolean isEmpty() {
+            return text.length() == 0;
+        }
+    }
+
+    private class Rewriter extends InputStream {
+
+        private final StringBuilder unit = new StringBuilder();
+        private final StringBuilder copy = new StringBuilder();
+        private final StringBuilder out = new StringBuilder();
+        private final List<Section> held = new ArrayList<>();
+        private final BufferedReader reader;
+        private final String target;
+        private final String base;
+
+        private Section section = new Section();
+        private Window window;
+        private String reference;
+        private boolean sequenceTag;
+        private boolean sequenceDone;
+        private long sequence;
+        private long index;
+        private boolean overflow;
+        private boolean variant;
+        private boolean master;
+        private boolean end;
+        private boolean eof;
+        private float duration;
+        private float targetDuration;
+        private byte[] bytes = new byte[0];
+        private int pos;
+
+        Rewriter(String target, String base, BufferedReader reader) {
+            this.target = target;
+            this.reader = reader;
+            this.base = base;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) return -1;
+            return bytes[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (!fill()) return -1;
+            int count = Math.min(len, bytes.length - pos);
+            System.arraycopy(bytes, pos, b, off, count);
+            pos += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private boolean fill() throws IOException {
+            while (pos >= bytes.length) {
+                if (eof) return false;
+                String line = reader.readLine();
+                if (line == null) finish();
+                else line(line.trim());
+                if (out.length() > 0) take();
+            }
+            return true;
+        }
+
+        private void take() {
+            if (copy.length() + out.length() > MAX_CACHE / 4) overflow = true;
+            else copy.append(out);
+            bytes = out.toString().getBytes(StandardCharsets.UTF_8);
+            out.setLength(0);
+            pos = 0;
+        }
+
+        private void line(String line) {
+            if (line.isEmpty()) return;
+            if (line.startsWith("#")) tag(line);
+            else uri(line);
+        }
+
+        private void tag(String line) {
+            if (line.startsWith("#EXT-X-MEDIA-SEQUENCE")) {
+                sequence = sequence(line);
+                sequenceTag = true;
+                window().prune(sequence);
+                return;
+            }
+            if (line.contains("URI=\"")) line = resolve(line);
+            if (line.startsWith("#EXT-X-STREAM-INF")) variant = master = true;
+            if (line.startsWith("#EXT-X-ENDLIST")) end = true;
+            if (line.startsWith("#EXT-X-TARGETDURATION")) targetDuration = number(line);
+            if (line.startsWith("#EXTINF")) duration = number(line);
+            if (line.startsWith("#EXT-X-DISCONTINUITY") && !line.startsWith("#EXT-X-DISCONTINUITY-SEQUENCE")) cut();
+            if (isSegment(line)) unit.append(line).append('\n');
+            else fixed(line);
+        }
+
+        private void uri(String line) {
+            String url = UrlUtil.resolve(base, line);
+            if (variant) {
+                variant = false;
+                fixed(getUrl(url));
+                return;
+            }
+            String tags = unit.toString();
+            float length = duration;
+            long seq = sequence + index++;
+            unit.setLength(0);
+            duration = 0;
+            if (window().isRemoved(seq) || (!window().isKept(seq) && AdBlocker.shouldBlock(UrlUtil.host(url)))) {
+                window().remove(Collections.singletonList(seq));
+                removed.incrementAndGet();
+                unit.append(state(tags));
+                return;
+            }
+            if (window().isKept(seq)) section.keep = true;
+            section.add(tags + url + '\n', state(tags), length, prefix(url), seq);
+            if (section.stream) flush(section);
+            else if (section.duration >= AD_DURATION) promote();
+        }
+
+        private void fixed(String line) {
+            if (section.stream || (held.isEmpty() && section.isEmpty() && unit.length() == 0)) out.append(line).append('\n');
+            else section.fixed(line);
+        }
+
+        private void promote() {
+            if (reference == null) reference = section.prefix;
+            for (Section item : held) emit(item);
+            held.clear();
+            section.stream = true;
+            flush(section);
+        }
+
+        private void cut() {
+            if (section.stream || reference != null) emit(section);
+            else if (!section.isEmpty()) held.add(section);
+            section = new Section();
+        }
+
+        private void finish() {
+            cut();
+            if (reference == null) reference = dominant();
+            for (Section item : held) emit(item);
+            held.clear();
+            header(sequence + index);
+            out.append(unit);
+            unit.setLength(0);
+            eof = true;
+            if (out.length() > 0) take();
+            if (!overflow) cache.put(target, new Entry(System.currentTimeMillis() + getTtl(), copy.toString()));
+        }
+
+        private void emit(Section item) {
+            if (item.stream) flush(item);
+            else if (isAd(item)) drop(item);
+            else flush(item);
+        }
+
+        private void flush(Section item) {
+            if (!item.seqs.isEmpty()) header(item.seqs.get(0));
+            if (!item.seqs.isEmpty()) window().keep(item.seqs.get(item.seqs.size() - 1));
+            out.append(item.text);
+            item.text.setLength(0);
+        }
+
+        private void drop(Section item) {
+            removed.addAndGet(item.count);
+            window().remove(item.seqs);
+            out.append(item.fixed);
+            out.append(item.state);
+        }
+
+        private void header(long first) {
+            if (sequenceDone) return;
+            sequenceDone = true;
+            long value = first - window().before(first);
+            if (sequenceTag || value != 0) out.append("#EXT-X-MEDIA-SEQUENCE:").append(value).append('\n');
+        }
+
+        private Window window() {
+            if (window == null) window = getWindow(target);
+            return window;
+        }
+
+        private boolean isAd(Section item) {
+            return reference != null && !item.keep && item.count > 0 && item.duration < AD_DURATION && !reference.equals(item.prefix);
+        }
+
+        private String state(String tags) {
+            StringBuilder sb = new StringBuilder();
+            for (String line : tags.split("\n")) if (isState(line)) sb.append(line).append('\n');
+            return sb.toString();
+        }
+
+        private boolean isState(String line) {
+            for (String tag : STATE) if (line.startsWith(tag) && !line.startsWith("#EXT-X-DISCONTINUITY-SEQUENCE")) return true;
+            return false;
+        }
+
+        private String dominant() {
+            Map<String, Float> durations = new HashMap<>();
+            for (Section item : held) if (item.prefix != null) durations.put(item.prefix, durations.getOrDefault(item.prefix, 0f) + item.duration);
+            String best = null;
+            float max = 0, total = 0;
+            for (Map.Entry<String, Float> entry : durations.entrySet()) {
+                total += entry.getValue();
+                if (entry.getValue() <= max) continue;
+                max = entry.getValue();
+                best = entry.getKey();
+            }
+            return max * 2 > total ? best : null;
+        }
+
+        private long getTtl() {
+            if (master || end) return TTL_VOD;
+            return Math.max(TTL_MIN, Math.min(TTL_MAX, (long) (targetDuration * 500)));
+        }
+
+        private String resolve(String line) {
+            Matcher m = URI.matcher(line);
+            if (!m.find()) return line;
+            String url = UrlUtil.resolve(base, m.group(1));
+            if (line.startsWith("#EXT-X-MEDIA")) url = getUrl(url);
+            return line.substring(0, m.start(1)) + url + line.substring(m.end(1));
+        }
+
+        private String prefix(String url) {
+            int query = url.indexOf('?');
+            int slash = url.lastIndexOf('/', query == -1 ? url.length() - 1 : query);
+            return slash == -1 ? url : url.substring(0, slash + 1);
+        }
+
+        private boolean isSegment(String line) {
+            for (String tag : SEGMENT) if (line.startsWith(tag) && !line.startsWith("#EXT-X-DISCONTINUITY-SEQUENCE")) return true;
+            return false;
+        }
+
+        private long sequence(String line) {
+            try {
+                return Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+            } catch (Exception e) {
+                return 0;
+            }
+        }
+
+        private float number(String line) {
+            int start = line.indexOf(':') + 1;
+            int end = start;
+            while (end < line.length() && (Character.isDigit(line.charAt(end)) || line.charAt(end) == '.')) end++;
+            try {
+                return Float.parseFloat(line.substring(start, end));
+            } catch (Exception e) {
+                return 0;
+            }
+        }
+    }
+}
@@ -20,14 +20,12 @@ import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.Constant;
 import com.fongmi.android.tv.Setting;
 import com.fongmi.android.tv.api.AdBlocker;
-import com.fongmi.android.tv.api.config.LiveConfig;
 import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.impl.ParseCallback;
 import com.fongmi.android.tv.ui.dialog.WebDialog;
 import com.fongmi.android.tv.utils.Sniffer;
 import com.github.catvod.crawler.Spider;
 import com.github.catvod.net.OkCookieJar;
-import com.github.catvod.utils.Util;
 import com.google.common.net.HttpHeaders;
 import com.orhanobut.logger.Logger;
 
@@ -45,6 +43,7 @@ public class CustomWebView extends WebView implements DialogInterface.OnDismissL
     private static final Pattern PLAYER = Pattern.compile("player/.*[?&][^=&]+=https?://");
     private static final String BLANK = "about:blank";
 
+    private List<CustomWebView> children;
     private WebResourceResponse empty;
     private ParseCallback callback;
     private HashSet<String> urls;
@@ -68,6 +67,7 @@ public class CustomWebView extends WebView implements DialogInterface.OnDismissL
     @SuppressLint("SetJavaScriptEnabled")
     public void initSettings() {
         this.urls = new HashSet<>();
+        this.children = new ArrayList<>();
         this.timer = () -> stop(true);
         this.empty = new WebResourceResponse("text/plain", "utf-8", new ByteArrayInputStream("".getBytes()));
         getSettings().setSupportZoom(true);
@@ -100,6 +100,7 @@ public class CustomWebView extends WebView implements DialogInterface.OnDismissL
     private void start(Map<String, String> headers) {
         OkCookieJar.setAcceptThirdPartyCookies(this);
         checkHeader(url, headers);
+        OkCookieJar.flush();
         loadUrl(url, headers);
     }
 
@@ -128,6 +129,7 @@ public class CustomWebView extends WebView implements DialogInterface.OnDismissL
             public void onPageFinished(WebView view, String url) {
                 super.onPageFinished(view, url);
                 if (url.equals(BLANK)) return;
+                OkCookieJar.reload(url);
                 evaluate(getScript(url));
             }
 
@@ -178,14 +180,7 @@ public class CustomWebView extends WebView implements DialogInterface.OnDismissL
     }
 
     private boolean isAd(String host) {
-        // 1. 首先检查内置广告域名库（包含常见的澳门新葡京等赌博广告）
-        if (AdBlocker.shouldBlock(host)) return true;
-        
-        // 2. 然后检查用户自定义的广告域名
-        for (String ad : VodConfig.get().getAds()) if (Util.containOrMatch(host, ad)) return true;
-        for (String ad : LiveConfig.get().getAds()) if (Util.containOrMatch(host, ad)) return true;
-        
-        return false;
+        return AdBlocker.shouldBlock(host);
     }
 
     private boolean isVideoFormat(String url) {
@@ -201,7 +196,9 @@ public class CustomWebView extends WebView implements DialogInterface.OnDismissL
     }
 
     private void onParseAdd(Map<String, String> headers, String url) {
-        App.post(() -> CustomWebView.create(App.get()).start(key, from, headers, url, click, callback, false));
+        App.post(() -> {
+            if (callback != null) children.add(CustomWebView.create(App.get()).start(key, from, headers, url, click, callback, false));
+        });
     }
 
     private void onParseSuccess(Map<String, String> headers, String url) {
@@ -218,8 +215,11 @@ public class CustomWebView extends WebView implements DialogInterface.OnDismissL
     public void stop(boolean error) {
         hideDialog();
         stopLoading();
+        OkCookieJar.reload(url);
         loadUrl(BLANK);
         App.removeCallbacks(timer);
+        for (CustomWebView child : children) child.stop(false);
+        children.clear();
         if (error) onParseError();
         else callback = null;
     }
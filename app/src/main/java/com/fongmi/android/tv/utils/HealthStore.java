@@ -0,0 +1,73 @@
+package com.fongmi.android.tv.utils;
+
+import com.fongmi.android.tv.App;
+import com.github.catvod.utils.Path;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class HealthStore<T> {
+
+    private static final long DELAY = TimeUnit.SECONDS.toMillis(5);
+
+    private final Map<String, T> stats;
+    private final Supplier<T> creator;
+    private final Runnable save;
+    private final String name;
+    private final Type type;
+    private boolean loaded;
+
+    public HealthStore(String name, Type type, Supplier<T> creator) {
+        this.stats = new ConcurrentHashMap<>();
+        this.save = () -> App.execute(this::write);
+        this.creator = creator;
+        this.name = name;
+        this.type = type;
+    }
+
+    private File getFile() {
+        return Path.files(name);
+    }
+
+    private synchronized void load() {
+        if (loaded) return;
+        loaded = true;
+        try {
+            Map<String, T> items = App.gson().fromJson(Path.read(getFile()), type);
+            if (items != null) stats.putAll(items);
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void write() {
+        Path.write(getFile(), App.gson().toJson(stats, type).getBytes());
+    }
+
+    public T find(String key) {
+        load();
+        T stat = stats.get(key);
+        return stat == null ? creator.get() : stat;
+    }
+
+    public T stat(String key) {
+        load();
+        T stat = stats.get(key);
+        if (stat != null) return stat;
+        stats.putIfAbsent(key, creator.get());
+        return stats.get(key);
+    }
+
+    public void save() {
+        App.post(save, DELAY);
+    }
+
+    public void clear() {
+        load();
+        stats.clear();
+        App.post(save, 0);
+    }
+}
@@ -6,11 +6,13 @@ import android.text.TextUtils;
 import com.fongmi.android.tv.api.config.LiveConfig;
 import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.bean.Rule;
+import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Json;
-import com.github.catvod.utils.Util;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,11 +47,17 @@ public class Sniffer {
         return getRule(uri).getScript();
     }
 
+    public static void setRules() {
+        Map<String, Rule> items = new LinkedHashMap<>();
+        for (Rule rule : VodConfig.get().getRules()) for (String host : rule.getHosts()) items.putIfAbsent(host, rule);
+        for (Rule rule : LiveConfig.get().getRules()) for (String host : rule.getHosts()) items.putIfAbsent(host, rule);
+        OkHttp.router().setRules(items);
+    }
+
     private static Rule getRule(Uri uri) {
         if (uri.getHost() == null) return Rule.empty();
         String hosts = TextUtils.join(",", Arrays.asList(UrlUtil.host(uri), UrlUtil.host(uri.getQueryParameter("url"))));
-        for (Rule rule : VodConfig.get().getRules()) for (String host : rule.getHosts()) if (Util.containOrMatch(hosts, host)) return rule;
-        for (Rule rule : LiveConfig.get().getRules()) for (String host : rule.getHosts()) if (Util.containOrMatch(hosts, host)) return rule;
-        return Rule.empty();
+        Rule rule = OkHttp.router().route(hosts).getRule();
+        return rule == null ? Rule.empty() : rule;
     }
 }
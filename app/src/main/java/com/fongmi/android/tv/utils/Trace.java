@@ -0,0 +1,55 @@
+package com.fongmi.android.tv.utils;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.github.catvod.utils.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Trace {
+
+    private final Map<String, Long> stages;
+    private long start;
+
+    private static class Loader {
+        static volatile Trace INSTANCE = new Trace();
+    }
+
+    public static Trace get() {
+        return Loader.INSTANCE;
+    }
+
+    private Trace() {
+        this.stages = new LinkedHashMap<>();
+    }
+
+    public static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    public synchronized void start() {
+        stages.clear();
+        start = now();
+    }
+
+    public synchronized void add(String name, long begin) {
+        long elapsed = now() - begin;
+        stages.put(name, elapsed);
+        Logger.d("Trace " + name + ": " + elapsed + "ms");
+    }
+
+    public synchronized void end() {
+        add("total", start);
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : stages.entrySet()) sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("ms\n");
+        return sb.toString().trim();
+    }
+}
@@ -2,7 +2,11 @@ package com.fongmi.android.tv.utils;
 
 import android.net.Uri;
 
+import androidx.media3.common.MimeTypes;
+
+import com.fongmi.android.tv.Setting;
 import com.fongmi.android.tv.server.Server;
+import com.fongmi.android.tv.server.process.Hls;
 import com.github.catvod.utils.UriUtil;
 import com.google.common.net.HttpHeaders;
 
@@ -48,6 +52,12 @@ public class UrlUtil {
         return path != null ? url.replace(scheme + "://", Server.get().getAddress(path)) : url;
     }
 
+    public static String hls(String url, String format) {
+        if (!Setting.isAdFilter() || !scheme(url).startsWith("http")) return url;
+        if (!MimeTypes.APPLICATION_M3U8.equals(format) && !path(uri(url)).toLowerCase().endsWith(".m3u8")) return url;
+        return Hls.getUrl(url);
+    }
+
     public static String fixHeader(String key) {
         if (HttpHeaders.USER_AGENT.equalsIgnoreCase(key)) return HttpHeaders.USER_AGENT;
         if (HttpHeaders.REFERER.equalsIgnoreCase(key)) return HttpHeaders.REFERER;
@@ -36,6 +36,7 @@ import com.fongmi.android.tv.bean.Keep;
 import com.fongmi.android.tv.bean.Live;
 import com.fongmi.android.tv.bean.Track;
 import com.fongmi.android.tv.databinding.ActivityLiveBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.ActionEvent;
 import com.fongmi.android.tv.event.ErrorEvent;
 import com.fongmi.android.tv.event.PlayerEvent;
@@ -265,7 +266,7 @@ public class LiveActivity extends BaseActivity implements CustomKeyDownLive.List
 
     private void checkLive() {
         if (isEmpty()) {
-            LiveConfig.get().init().load(getCallback());
+            Repository.execute(() -> LiveConfig.get().init().load(getCallback()));
         } else {
             getLive();
         }
@@ -602,7 +603,7 @@ public class LiveActivity extends BaseActivity implements CustomKeyDownLive.List
     @Override
     public boolean onLongClick(Channel item) {
         if (mGroup.isHidden()) return false;
-        boolean exist = Keep.exist(item.getName());
+        boolean exist = getKeep().getChannel().contains(item);
         Notify.show(exist ? R.string.keep_del : R.string.keep_add);
         if (exist) delKeep(item);
         else addKeep(item);
@@ -32,9 +32,8 @@ public class ConfigAdapter extends RecyclerView.Adapter<ConfigAdapter.ViewHolder
         void onDeleteClick(Config item);
     }
 
-    public ConfigAdapter addAll(int type) {
+    public ConfigAdapter addAll(List<Config> configs, int type) {
         mItems = new ArrayList<>();
-        List<Config> configs = Config.getAll(type);
         Config currentConfig = type == 0 ? VodConfig.get().getConfig() : LiveConfig.get().getConfig();
         
         for (Config config : configs) {
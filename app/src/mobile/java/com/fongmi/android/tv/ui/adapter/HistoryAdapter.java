@@ -11,6 +11,7 @@ import com.fongmi.android.tv.R;
 import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.bean.History;
 import com.fongmi.android.tv.databinding.AdapterVodBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.utils.ImgUtil;
 import com.fongmi.android.tv.utils.ResUtil;
 
@@ -58,11 +59,17 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
         notifyDataSetChanged();
     }
 
+    public void add(List<History> items) {
+        int position = mItems.size();
+        mItems.addAll(items);
+        notifyItemRangeInserted(position, items.size());
+    }
+
     public void clear() {
         mItems.clear();
         setDelete(false);
         notifyDataSetChanged();
-        History.delete(VodConfig.getCid());
+        Repository.deleteHistory(VodConfig.getCid());
     }
 
     public void remove(History item) {
@@ -20,6 +20,7 @@ import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.api.config.WallConfig;
 import com.fongmi.android.tv.bean.Config;
 import com.fongmi.android.tv.databinding.DialogConfigBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.impl.ConfigCallback;
 import com.fongmi.android.tv.impl.Callback;
 import com.fongmi.android.tv.ui.custom.CustomTextListener;
@@ -153,7 +154,7 @@ public class ConfigDialog {
         android.util.Log.d("ConfigDialog", "onPositive: type=" + type + ", url=" + url + ", name=" + name);
         
         // 如果是编辑模式，更新现有配置
-        if (edit) Config.find(ori, type).url(url).name(name).update();
+        if (edit) Repository.execute(() -> Config.find(ori, type).url(url).name(name).update());
         
         // 如果URL为空，删除配置
         if (url.isEmpty()) {
@@ -168,16 +169,12 @@ public class ConfigDialog {
         String originalUrl = ori;
         android.util.Log.d("ConfigDialog", "Calling Config.find with url=" + url + ", type=" + type);
         
-        Config config = Config.find(url, type);
-        android.util.Log.d("ConfigDialog", "Config.find returned: " + (config != null ? config.toString() : "null"));
-        
-        android.util.Log.d("ConfigDialog", "Checking callback: " + (callback != null ? callback.getClass().getName() : "null"));
-        android.util.Log.d("ConfigDialog", "Checking fragment: " + (fragment != null ? fragment.getClass().getName() : "null"));
-        
-        android.util.Log.d("ConfigDialog", "Calling callback.setConfig");
-        callback.setConfig(config);
-        
-        android.util.Log.d("ConfigDialog", "setConfig completed");
+        Repository.load(() -> Config.find(url, type), config -> {
+            android.util.Log.d("ConfigDialog", "Config.find returned: " + (config != null ? config.toString() : "null"));
+            android.util.Log.d("ConfigDialog", "Calling callback.setConfig");
+            callback.setConfig(config);
+            android.util.Log.d("ConfigDialog", "setConfig completed");
+        });
         
         // 添加一个延迟检查，如果配置没有成功加载，则恢复原始URL
         new android.os.Handler().postDelayed(() -> {
@@ -187,12 +184,12 @@ public class ConfigDialog {
                 // 配置加载失败，恢复原始URL
                 if (!TextUtils.isEmpty(originalUrl)) {
                     // 如果有原始URL，恢复原始URL
-                    callback.setConfig(Config.find(originalUrl, type));
+                    Repository.load(() -> Config.find(originalUrl, type), callback::setConfig);
                 } else {
                     // 如果没有原始URL，设置为空
                     switch (type) {
                         case 0:
-                            VodConfig.get().clear().config(Config.vod()).load(new Callback() {
+                            Repository.execute(() -> VodConfig.get().clear().config(Config.vod()).load(new Callback() {
                                 @Override
                                 public void success() {}
                                 
@@ -201,10 +198,10 @@ public class ConfigDialog {
                                 
                                 @Override
                                 public void error(String msg) {}
-                            });
+                            }));
                             break;
                         case 1:
-                            LiveConfig.get().clear().config(Config.live()).load(new Callback() {
+                            Repository.execute(() -> LiveConfig.get().clear().config(Config.live()).load(new Callback() {
                                 @Override
                                 public void success() {}
                                 
@@ -213,10 +210,10 @@ public class ConfigDialog {
                                 
                                 @Override
                                 public void error(String msg) {}
-                            });
+                            }));
                             break;
                         case 2:
-                            WallConfig.get().clear().config(Config.wall()).load(new Callback() {
+                            Repository.execute(() -> WallConfig.get().clear().config(Config.wall()).load(new Callback() {
                                 @Override
                                 public void success() {}
                                 
@@ -225,7 +222,7 @@ public class ConfigDialog {
                                 
                                 @Override
                                 public void error(String msg) {}
-                            });
+                            }));
                             break;
                     }
                 }
@@ -11,12 +11,15 @@ import androidx.fragment.app.Fragment;
 import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.bean.Config;
 import com.fongmi.android.tv.databinding.DialogHistoryBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.impl.ConfigCallback;
 import com.fongmi.android.tv.ui.adapter.ConfigAdapter;
 import com.fongmi.android.tv.ui.custom.SpaceItemDecoration;
 import com.fongmi.android.tv.utils.Notify;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
+import java.util.List;
+
 public class HistoryDialog implements ConfigAdapter.OnClickListener {
 
     private final DialogHistoryBinding binding;
@@ -42,13 +45,15 @@ public class HistoryDialog implements ConfigAdapter.OnClickListener {
     }
 
     public void show() {
-        setRecyclerView();
-        setDialog();
+        Repository.load(() -> Config.getAll(type), items -> {
+            setRecyclerView(items);
+            setDialog();
+        });
     }
 
-    private void setRecyclerView() {
+    private void setRecyclerView(List<Config> items) {
         binding.recycler.setHasFixedSize(true);
-        binding.recycler.setAdapter(adapter.addAll(type));
+        binding.recycler.setAdapter(adapter.addAll(items, type));
         binding.recycler.addItemDecoration(new SpaceItemDecoration(1, 8));
     }
 
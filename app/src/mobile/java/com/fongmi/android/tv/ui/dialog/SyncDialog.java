@@ -21,6 +21,7 @@ import com.fongmi.android.tv.bean.Device;
 import com.fongmi.android.tv.bean.History;
 import com.fongmi.android.tv.bean.Keep;
 import com.fongmi.android.tv.databinding.DialogDeviceBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.ScanEvent;
 import com.fongmi.android.tv.impl.Callback;
 import com.fongmi.android.tv.ui.activity.ScanActivity;
@@ -46,7 +47,6 @@ import okhttp3.Response;
 
 public class SyncDialog extends BaseDialog implements DeviceAdapter.OnClickListener, ScanTask.Listener {
 
-    private final FormBody.Builder body;
     private final OkHttpClient client;
     private final ScanTask scanTask;
     private final TypedArray mode;
@@ -59,23 +59,16 @@ public class SyncDialog extends BaseDialog implements DeviceAdapter.OnClickListe
     }
 
     public SyncDialog() {
-        body = new FormBody.Builder();
         scanTask = new ScanTask(this);
         client = OkHttp.client(Constant.TIMEOUT_SYNC);
         mode = ResUtil.getTypedArray(R.array.cast_mode);
     }
 
     public SyncDialog history() {
-        body.add("device", Device.get().toString());
-        body.add("config", Config.vod().toString());
-        body.add("targets", App.gson().toJson(History.get()));
         return type("history");
     }
 
     public SyncDialog keep() {
-        body.add("device", Device.get().toString());
-        body.add("targets", App.gson().toJson(Keep.getVod()));
-        body.add("configs", App.gson().toJson(Config.findUrls()));
         return type("keep");
     }
 
@@ -89,6 +82,19 @@ public class SyncDialog extends BaseDialog implements DeviceAdapter.OnClickListe
         return this;
     }
 
+    private FormBody getBody() {
+        FormBody.Builder body = new FormBody.Builder();
+        body.add("device", Device.get().toString());
+        if (type.equals("history")) {
+            body.add("config", Config.vod().toString());
+            body.add("targets", App.gson().toJson(History.get()));
+        } else {
+            body.add("targets", App.gson().toJson(Keep.getVod()));
+            body.add("configs", App.gson().toJson(Config.findUrls()));
+        }
+        return body.build();
+    }
+
     @Override
     protected ViewBinding getBinding(@NonNull LayoutInflater inflater, @Nullable ViewGroup container) {
         return binding = DialogDeviceBinding.inflate(inflater, container, false);
@@ -116,8 +122,10 @@ public class SyncDialog extends BaseDialog implements DeviceAdapter.OnClickListe
     }
 
     private void getDevice() {
-        adapter.addAll(Device.getAll());
-        if (adapter.getItemCount() == 0) App.post(this::onRefresh, 1000);
+        Repository.load(Device::getAll, items -> {
+            adapter.addAll(items);
+            if (adapter.getItemCount() == 0) App.post(this::onRefresh, 1000);
+        });
     }
 
     private void setMode() {
@@ -158,16 +166,20 @@ public class SyncDialog extends BaseDialog implements DeviceAdapter.OnClickListe
 
     @Override
     public void onItemClick(Device item) {
-        OkHttp.newCall(client, String.format(Locale.getDefault(), "%s/action?do=sync&mode=%s&type=%s", item.getIp(), binding.mode.getTag().toString(), type), body.build()).enqueue(getCallback());
+        String url = String.format(Locale.getDefault(), "%s/action?do=sync&mode=%s&type=%s", item.getIp(), binding.mode.getTag().toString(), type);
+        Repository.load(this::getBody, body -> OkHttp.newCall(client, url, body).enqueue(getCallback()));
     }
 
     @Override
     public boolean onLongClick(Device item) {
         String mode = binding.mode.getTag().toString();
         if (mode.equals("0")) return false;
-        if (mode.equals("2") && type.equals("keep")) Keep.deleteAll();
-        if (mode.equals("2") && type.equals("history")) History.delete(VodConfig.getCid());
-        OkHttp.newCall(client, String.format(Locale.getDefault(), "%s/action?do=sync&mode=%s&type=%s&force=true", item.getIp(), binding.mode.getTag().toString(), type), body.build()).enqueue(getCallback());
+        String url = String.format(Locale.getDefault(), "%s/action?do=sync&mode=%s&type=%s&force=true", item.getIp(), mode, type);
+        Repository.load(this::getBody, body -> {
+            if (mode.equals("2") && type.equals("keep")) Keep.deleteAll();
+            if (mode.equals("2") && type.equals("history")) History.delete(VodConfig.getCid());
+            OkHttp.newCall(client, url, body).enqueue(getCallback());
+        });
         return true;
     }
 
@@ -26,11 +26,13 @@ import com.fongmi.android.tv.Updater;
 import com.fongmi.android.tv.api.config.LiveConfig;
 import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.api.config.WallConfig;
+import com.fongmi.android.tv.api.search.SearchCache;
 import com.fongmi.android.tv.bean.Config;
 import com.fongmi.android.tv.bean.Live;
 import com.fongmi.android.tv.bean.Site;
 import com.fongmi.android.tv.databinding.FragmentSettingBinding;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.impl.Callback;
 import com.fongmi.android.tv.impl.ConfigCallback;
@@ -38,6 +40,7 @@ import com.fongmi.android.tv.impl.LiveCallback;
 import com.fongmi.android.tv.impl.ProxyCallback;
 import com.fongmi.android.tv.impl.SiteCallback;
 import com.fongmi.android.tv.player.Source;
+import com.fongmi.android.tv.player.exo.CacheManager;
 import com.fongmi.android.tv.ui.activity.HomeActivity;
 import com.fongmi.android.tv.ui.activity.ScanActivity;
 import com.fongmi.android.tv.ui.activity.SettingPlayerActivity;
@@ -54,11 +57,14 @@ import com.fongmi.android.tv.utils.FileChooser;
 import com.fongmi.android.tv.utils.FileUtil;
 import com.fongmi.android.tv.utils.Notify;
 import com.fongmi.android.tv.utils.ResUtil;
+import com.fongmi.android.tv.utils.Trace;
 import com.fongmi.android.tv.utils.UrlUtil;
+import com.fongmi.quickjs.utils.Module;
 import com.github.catvod.bean.Doh;
 import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Path;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.common.primitives.Ints;
 import com.permissionx.guolindev.PermissionX;
 
 import org.greenrobot.eventbus.EventBus;
@@ -70,7 +76,13 @@ import java.util.List;
 
 public class SettingFragment extends BaseFragment implements ConfigCallback, SiteCallback, LiveCallback, ProxyCallback {
 
+    private static final int[] SEARCH_CACHE = {0, 5, 10, 30, 60};
+    private static final int[] SEARCH_CACHE_SIZE = {4, 8, 16, 32};
+
     private FragmentSettingBinding mBinding;
+    private String[] searchCacheSize;
+    private String[] searchCache;
+    private String[] connection;
     private String[] size;
     private int type;
 
@@ -123,9 +135,14 @@ public class SettingFragment extends BaseFragment implements ConfigCallback, Sit
         mBinding.dohText.setText(getDohList()[getDohIndex()]);
         mBinding.proxyText.setText(getProxy(Setting.getProxy()));
         mBinding.incognitoSwitch.setChecked(Setting.isIncognito());
+        mBinding.offlineFirstSwitch.setChecked(Setting.isOfflineFirst());
+        mBinding.searchCacheDiskSwitch.setChecked(Setting.isSearchCacheDisk());
+        mBinding.searchCacheText.setText((searchCache = ResUtil.getStringArray(R.array.select_search_cache))[getIndex(SEARCH_CACHE, Setting.getSearchCacheTtl())]);
+        mBinding.searchCacheSizeText.setText((searchCacheSize = ResUtil.getStringArray(R.array.select_search_cache_size))[getIndex(SEARCH_CACHE_SIZE, Setting.getSearchCacheSize())]);
         mBinding.liveTabVisibleSwitch.setChecked(Setting.isLiveTabVisible());
         mBinding.historyVisibleSwitch.setChecked(Setting.isHistoryVisible());
         mBinding.sizeText.setText((size = ResUtil.getStringArray(R.array.select_size))[Setting.getSize()]);
+        mBinding.connectionText.setText((connection = ResUtil.getStringArray(R.array.select_connection))[Setting.getConnection()]);
         setLiveSettingsVisibility();
     }
 
@@ -167,6 +184,7 @@ public class SettingFragment extends BaseFragment implements ConfigCallback, Sit
         // mBinding.wall.setOnClickListener(this::onWall); // 壁纸功能已移除
         mBinding.proxy.setOnClickListener(this::onProxy);
         mBinding.cache.setOnClickListener(this::onCache);
+        mBinding.cache.setOnLongClickListener(this::onTrace);
         mBinding.backup.setOnClickListener(this::onBackup);
         mBinding.player.setOnClickListener(this::onPlayer);
         mBinding.restore.setOnClickListener(this::onRestore);
@@ -183,10 +201,15 @@ public class SettingFragment extends BaseFragment implements ConfigCallback, Sit
         // mBinding.wallDefault.setOnClickListener(this::setWallDefault); // 壁纸功能已移除
         // mBinding.wallRefresh.setOnClickListener(this::setWallRefresh); // 壁纸功能已移除
         mBinding.incognitoSwitch.setOnClickListener(this::setIncognito);
+        mBinding.offlineFirstSwitch.setOnClickListener(this::setOfflineFirst);
+        mBinding.searchCache.setOnClickListener(this::setSearchCache);
+        mBinding.searchCacheSize.setOnClickListener(this::setSearchCacheSize);
+        mBinding.searchCacheDiskSwitch.setOnClickListener(this::setSearchCacheDisk);
         mBinding.liveTabVisibleSwitch.setOnClickListener(this::setLiveTabVisible);
         mBinding.historyVisibleSwitch.setOnClickListener(this::setHistoryVisible);
         mBinding.size.setOnClickListener(this::setSize);
         mBinding.doh.setOnClickListener(this::setDoh);
+        mBinding.connection.setOnClickListener(this::setConnection);
     }
 
     @Override
@@ -425,6 +448,45 @@ public class SettingFragment extends BaseFragment implements ConfigCallback, Sit
         // 不需要再次调用 setChecked，因为点击已经触发了状态变化
     }
 
+    private void setConnection(View view) {
+        new MaterialAlertDialogBuilder(getActivity()).setTitle(R.string.setting_connection).setNegativeButton(R.string.dialog_negative, null).setSingleChoiceItems(connection, Setting.getConnection(), (dialog, which) -> {
+            mBinding.connectionText.setText(connection[which]);
+            OkHttp.get().setProfile(OkHttp.profile().maxRequestsPerHost(4 << which));
+            Setting.putConnection(which);
+            dialog.dismiss();
+        }).show();
+    }
+
+    private void setOfflineFirst(View view) {
+        Setting.putOfflineFirst(!Setting.isOfflineFirst());
+        OkHttp.cache().setOffline(Setting.isOfflineFirst());
+    }
+
+    private int getIndex(int[] values, int value) {
+        return Math.max(0, Ints.indexOf(values, value));
+    }
+
+    private void setSearchCache(View view) {
+        new MaterialAlertDialogBuilder(getActivity()).setTitle(R.string.setting_search_cache).setNegativeButton(R.string.dialog_negative, null).setSingleChoiceItems(searchCache, getIndex(SEARCH_CACHE, Setting.getSearchCacheTtl()), (dialog, which) -> {
+            mBinding.searchCacheText.setText(searchCache[which]);
+            Setting.putSearchCacheTtl(SEARCH_CACHE[which]);
+            dialog.dismiss();
+        }).show();
+    }
+
+    private void setSearchCacheSize(View view) {
+        new MaterialAlertDialogBuilder(getActivity()).setTitle(R.string.setting_search_cache_size).setNegativeButton(R.string.dialog_negative, null).setSingleChoiceItems(searchCacheSize, getIndex(SEARCH_CACHE_SIZE, Setting.getSearchCacheSize()), (dialog, which) -> {
+            mBinding.searchCacheSizeText.setText(searchCacheSize[which]);
+            Setting.putSearchCacheSize(SEARCH_CACHE_SIZE[which]);
+            SearchCache.get().resize();
+            dialog.dismiss();
+        }).show();
+    }
+
+    private void setSearchCacheDisk(View view) {
+        Setting.putSearchCacheDisk(!Setting.isSearchCacheDisk());
+    }
+
     private void setLiveTabVisible(View view) {
         boolean isChecked = !Setting.isLiveTabVisible();
         Setting.putLiveTabVisible(isChecked);
@@ -465,7 +527,7 @@ public class SettingFragment extends BaseFragment implements ConfigCallback, Sit
         Notify.progress(getActivity());
         Setting.putDoh(doh.toString());
         mBinding.dohText.setText(doh.getName());
-        VodConfig.load(Config.vod(), getCallback(0));
+        VodConfig.load(VodConfig.get().getConfig(), getCallback(0));
     }
 
     private void onProxy(View view) {
@@ -480,7 +542,13 @@ public class SettingFragment extends BaseFragment implements ConfigCallback, Sit
         OkHttp.get().setProxy(proxy);
         Notify.progress(getActivity());
         mBinding.proxyText.setText(getProxy(proxy));
-        VodConfig.load(Config.vod(), getCallback(0));
+        VodConfig.load(VodConfig.get().getConfig(), getCallback(0));
+    }
+
+    private boolean onTrace(View view) {
+        String trace = Trace.get().toString();
+        Notify.show((trace.isEmpty() ? "" : trace + "\n") + CacheManager.get().getStat() + "\n" + Module.get().getStat());
+        return true;
     }
 
     private void onCache(View view) {
@@ -524,9 +592,12 @@ public class SettingFragment extends BaseFragment implements ConfigCallback, Sit
     }
 
     private void initConfig() {
-        WallConfig.get().init();
-        LiveConfig.get().init().load();
-        VodConfig.get().init().load(getCallback(0));
+        Repository.execute(() -> {
+            VodConfig.get().init();
+            WallConfig.get().init();
+            LiveConfig.get().init().load();
+            VodConfig.get().load(getCallback(0));
+        });
     }
 
     @Override
@@ -561,6 +632,7 @@ public class SettingFragment extends BaseFragment implements ConfigCallback, Sit
     public void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
         if (resultCode != Activity.RESULT_OK || requestCode != FileChooser.REQUEST_PICK_FILE) return;
-        setConfig(Config.find("file:/" + FileChooser.getPathFromUri(getContext(), data.getData()).replace(Path.rootPath(), ""), type));
+        String url = "file:/" + FileChooser.getPathFromUri(getContext(), data.getData()).replace(Path.rootPath(), "");
+        Repository.load(() -> Config.find(url, type), this::setConfig);
     }
 }
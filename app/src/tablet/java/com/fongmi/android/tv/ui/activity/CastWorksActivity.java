@@ -24,8 +24,8 @@ import com.fongmi.android.tv.ui.base.BaseActivity;
 import com.fongmi.android.tv.ui.custom.SpaceItemDecoration;
 import com.fongmi.android.tv.utils.Notify;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 演职人员作品列表页面
@@ -36,7 +36,6 @@ public class CastWorksActivity extends BaseActivity implements VodAdapter.OnClic
     private ActivityCastWorksBinding mBinding;
     private SiteViewModel mViewModel;
     private VodAdapter mAdapter;
-    private ExecutorService mExecutor;
     private String mCastName;
     private CastMember.CastType mCastType;
     
@@ -114,34 +113,17 @@ public class CastWorksActivity extends BaseActivity implements VodAdapter.OnClic
         // 停止之前的搜索
         stopSearch();
         
-        // 创建线程池并发搜索
-        mExecutor = Executors.newFixedThreadPool(20);
-        for (Site site : VodConfig.get().getSites()) {
-            if (site.isSearchable()) {
-                mExecutor.execute(() -> search(site));
-            }
-        }
-    }
-    
-    /**
-     * 在指定视频源中搜索
-     */
-    private void search(Site site) {
-        try {
-            mViewModel.searchContent(site, mCastName, false);
-        } catch (Throwable e) {
-            e.printStackTrace();
-        }
+        // 在共享调度器上并发搜索
+        List<Site> sites = new ArrayList<>();
+        for (Site site : VodConfig.get().getSites()) if (site.isSearchable()) sites.add(site);
+        mViewModel.searchContent(sites, mCastName, false);
     }
     
     /**
      * 停止搜索
      */
     private void stopSearch() {
-        if (mExecutor != null) {
-            mExecutor.shutdownNow();
-            mExecutor = null;
-        }
+        mViewModel.stopSearch();
     }
     
     /**
@@ -38,7 +38,6 @@ import com.fongmi.android.tv.ui.base.ViewType;
 import com.fongmi.android.tv.ui.custom.CustomScroller;
 import com.fongmi.android.tv.ui.custom.CustomTextListener;
 import com.fongmi.android.tv.ui.dialog.SiteDialog;
-import com.fongmi.android.tv.utils.PauseExecutor;
 import com.fongmi.android.tv.utils.ResUtil;
 import com.fongmi.android.tv.utils.Util;
 import com.github.catvod.net.OkHttp;
@@ -63,7 +62,6 @@ public class CollectActivity extends BaseActivity implements CustomScroller.Call
     private WordAdapter mWordAdapter;
     private CustomScroller mScroller;
     private SiteViewModel mViewModel;
-    private PauseExecutor mExecutor;
     private List<Site> mSites;
 
     public static void start(Activity activity) {
@@ -191,10 +189,8 @@ public class CollectActivity extends BaseActivity implements CustomScroller.Call
         mBinding.view.setVisibility(View.VISIBLE);
         mBinding.result.setVisibility(View.VISIBLE);
         updateEmptyState(); // 搜索开始时显示空状态
-        if (mExecutor != null) mExecutor.shutdownNow();
-        mExecutor = new PauseExecutor(20);
         String keyword = mBinding.keyword.getText().toString().trim();
-        for (Site site : mSites) mExecutor.execute(() -> search(site, keyword));
+        mViewModel.searchContent(mSites, keyword, false);
         App.post(() -> mRecordAdapter.add(keyword), 250);
     }
 
@@ -219,13 +215,6 @@ public class CollectActivity extends BaseActivity implements CustomScroller.Call
         }
     }
 
-    private void search(Site site, String keyword) {
-        try {
-            mViewModel.searchContent(site, keyword, false);
-        } catch (Throwable ignored) {
-        }
-    }
-
     private void getHot() {
         mBinding.word.setText(R.string.search_hot);
         mWordAdapter.addAll(Hot.get(Setting.getHot()));
@@ -261,7 +250,7 @@ public class CollectActivity extends BaseActivity implements CustomScroller.Call
         mBinding.site.setVisibility(View.VISIBLE);
         mBinding.agent.setVisibility(View.VISIBLE);
         mBinding.emptyLayout.getRoot().setVisibility(View.GONE); // 隐藏空状态动画
-        if (mExecutor != null) mExecutor.shutdownNow();
+        mViewModel.stopSearch();
     }
 
     @Override
@@ -318,13 +307,13 @@ public class CollectActivity extends BaseActivity implements CustomScroller.Call
     @Override
     protected void onResume() {
         super.onResume();
-        if (mExecutor != null) mExecutor.resume();
+        mViewModel.resumeSearch();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        if (mExecutor != null) mExecutor.pause();
+        mViewModel.pauseSearch();
     }
 
     @Override
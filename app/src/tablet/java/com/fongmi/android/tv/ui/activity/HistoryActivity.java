@@ -12,9 +12,11 @@ import com.fongmi.android.tv.Product;
 import com.fongmi.android.tv.R;
 import com.fongmi.android.tv.bean.History;
 import com.fongmi.android.tv.databinding.ActivityHistoryBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.ui.adapter.HistoryAdapter;
 import com.fongmi.android.tv.ui.base.BaseActivity;
+import com.fongmi.android.tv.ui.custom.CustomScroller;
 import com.fongmi.android.tv.ui.dialog.SyncDialog;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.airbnb.lottie.LottieAnimationView;
@@ -22,10 +24,14 @@ import com.airbnb.lottie.LottieAnimationView;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 
-public class HistoryActivity extends BaseActivity implements HistoryAdapter.OnClickListener {
+import java.util.List;
+
+public class HistoryActivity extends BaseActivity implements HistoryAdapter.OnClickListener, CustomScroller.Callback {
 
     private ActivityHistoryBinding mBinding;
+    private CustomScroller mScroller;
     private HistoryAdapter mAdapter;
+    private long mLast;
 
     public static void start(Activity activity) {
         activity.startActivity(new Intent(activity, HistoryActivity.class));
@@ -54,13 +60,35 @@ public class HistoryActivity extends BaseActivity implements HistoryAdapter.OnCl
         mBinding.recycler.getItemAnimator().setChangeDuration(0);
         mBinding.recycler.setLayoutManager(new GridLayoutManager(this, Product.getColumn(this)));
         mBinding.recycler.setAdapter(mAdapter = new HistoryAdapter(this));
+        mBinding.recycler.addOnScrollListener(mScroller = new CustomScroller(this));
         mAdapter.setSize(Product.getSpec(getActivity()));
     }
 
     private void getHistory() {
-        mAdapter.addAll(History.getAll()); // 显示所有视频源的观看记录
-        mBinding.delete.setVisibility(mAdapter.getItemCount() > 0 ? View.VISIBLE : View.GONE);
-        updateEmptyState();
+        mScroller.reset();
+        mScroller.setLoading(true);
+        Repository.getAllHistory(Long.MAX_VALUE, items -> {
+            mAdapter.addAll(items); // 显示所有视频源的观看记录
+            mBinding.delete.setVisibility(mAdapter.getItemCount() > 0 ? View.VISIBLE : View.GONE);
+            updateEmptyState();
+            endLoading(1, items);
+        });
+    }
+
+    private void endLoading(int page, List<History> items) {
+        if (!items.isEmpty()) mLast = items.get(items.size() - 1).getCreateTime();
+        mScroller.setEnable(items.size() < Repository.PAGE ? page : 0);
+        mScroller.setLoading(false);
+    }
+
+    @Override
+    public void onLoadMore(String page) {
+        int index = Integer.parseInt(page);
+        mScroller.setLoading(true);
+        Repository.getAllHistory(mLast, items -> {
+            mAdapter.add(items);
+            endLoading(index, items);
+        });
     }
 
     private void updateEmptyState() {
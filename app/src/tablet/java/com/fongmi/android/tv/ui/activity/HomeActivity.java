@@ -24,6 +24,7 @@ import com.fongmi.android.tv.api.config.WallConfig;
 import com.fongmi.android.tv.bean.Config;
 import com.fongmi.android.tv.databinding.ActivityHomeBinding;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.event.ServerEvent;
 import com.fongmi.android.tv.event.StateEvent;
@@ -124,9 +125,12 @@ public class HomeActivity extends BaseActivity implements NavigationBarView.OnIt
     }
 
     private void initConfig() {
-        WallConfig.get().init();
-        LiveConfig.get().init().load();
-        VodConfig.get().init().load(getCallback());
+        Repository.execute(() -> {
+            VodConfig.get().init();
+            WallConfig.get().init();
+            LiveConfig.get().init().load();
+            VodConfig.get().load(getCallback());
+        });
     }
 
     private Callback getCallback() {
@@ -153,12 +157,12 @@ public class HomeActivity extends BaseActivity implements NavigationBarView.OnIt
     }
 
     private void loadLive(String url) {
-        LiveConfig.load(Config.find(url, 1), new Callback() {
+        Repository.execute(() -> LiveConfig.load(Config.find(url, 1), new Callback() {
             @Override
             public void success() {
                 openLive();
             }
-        });
+        }));
     }
 
     private void setNavigation() {
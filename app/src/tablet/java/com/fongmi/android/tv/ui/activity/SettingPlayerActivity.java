@@ -14,18 +14,24 @@ import com.fongmi.android.tv.databinding.ActivitySettingPlayerBinding;
 import com.fongmi.android.tv.impl.BufferCallback;
 import com.fongmi.android.tv.impl.SpeedCallback;
 import com.fongmi.android.tv.impl.UaCallback;
+import com.fongmi.android.tv.player.exo.CacheManager;
 import com.fongmi.android.tv.ui.base.BaseActivity;
 import com.fongmi.android.tv.ui.dialog.BufferDialog;
 import com.fongmi.android.tv.ui.dialog.SpeedDialog;
 import com.fongmi.android.tv.ui.dialog.UaDialog;
 import com.fongmi.android.tv.utils.ResUtil;
+import com.google.common.primitives.Ints;
 
 import java.text.DecimalFormat;
 
 public class SettingPlayerActivity extends BaseActivity implements UaCallback, BufferCallback, SpeedCallback {
 
+    private static final int[] MEDIA_CACHE = {128, 256, 512, 1024, 2048};
+    private static final int[] PREFETCH = {0, 50, 70, 80, 90};
+
     private ActivitySettingPlayerBinding mBinding;
     private DecimalFormat format;
+    private String[] accelerate;
     private String[] background;
     private String[] caption;
     private String[] render;
@@ -39,6 +45,14 @@ public class SettingPlayerActivity extends BaseActivity implements UaCallback, B
         return getString(value ? R.string.setting_on : R.string.setting_off);
     }
 
+    private String getMediaCache(int size) {
+        return size + " MB";
+    }
+
+    private String getPrefetch(int percent) {
+        return percent == 0 ? getString(R.string.setting_off) : percent + "%";
+    }
+
     @Override
     protected ViewBinding getBinding() {
         return mBinding = ActivitySettingPlayerBinding.inflate(getLayoutInflater());
@@ -52,12 +66,16 @@ public class SettingPlayerActivity extends BaseActivity implements UaCallback, B
         mBinding.audioDecodeSwitch.setChecked(Setting.isAudioPrefer());
         mBinding.aacSwitch.setChecked(Setting.isPreferAAC());
         mBinding.danmakuLoadSwitch.setChecked(Setting.isDanmakuLoad());
+        mBinding.adFilterSwitch.setChecked(Setting.isAdFilter());
         mBinding.speedText.setText(format.format(Setting.getSpeed()));
         mBinding.bufferText.setText(String.valueOf(Setting.getBuffer()));
+        mBinding.mediaCacheText.setText(getMediaCache(Setting.getMediaCache()));
+        mBinding.prefetchText.setText(getPrefetch(Setting.getPrefetch()));
         mBinding.caption.setVisibility(Setting.hasCaption() ? View.VISIBLE : View.GONE);
         mBinding.scaleText.setText((scale = ResUtil.getStringArray(R.array.select_scale))[Setting.getScale()]);
         mBinding.renderText.setText((render = ResUtil.getStringArray(R.array.select_render))[Setting.getRender()]);
         mBinding.captionText.setText((caption = ResUtil.getStringArray(R.array.select_caption))[Setting.isCaption() ? 1 : 0]);
+        mBinding.accelerateText.setText((accelerate = ResUtil.getStringArray(R.array.select_accelerate))[Setting.getAccelerate()]);
         mBinding.backgroundText.setText((background = ResUtil.getStringArray(R.array.select_background))[Setting.getBackground()]);
     }
 
@@ -69,6 +87,9 @@ public class SettingPlayerActivity extends BaseActivity implements UaCallback, B
         mBinding.speed.setOnClickListener(this::onSpeed);
         mBinding.buffer.setOnClickListener(this::onBuffer);
         mBinding.render.setOnClickListener(this::setRender);
+        mBinding.accelerate.setOnClickListener(this::setAccelerate);
+        mBinding.mediaCache.setOnClickListener(this::setMediaCache);
+        mBinding.prefetch.setOnClickListener(this::setPrefetch);
         mBinding.caption.setOnClickListener(this::setCaption);
         mBinding.caption.setOnLongClickListener(this::onCaption);
         mBinding.background.setOnClickListener(this::onBackground);
@@ -78,6 +99,7 @@ public class SettingPlayerActivity extends BaseActivity implements UaCallback, B
         mBinding.audioDecodeSwitch.setOnClickListener(this::setAudioDecode);
         mBinding.aacSwitch.setOnClickListener(this::setAAC);
         mBinding.danmakuLoadSwitch.setOnClickListener(this::setDanmakuLoad);
+        mBinding.adFilterSwitch.setOnClickListener(this::setAdFilter);
     }
 
     private void onUa(View view) {
@@ -131,6 +153,25 @@ public class SettingPlayerActivity extends BaseActivity implements UaCallback, B
         if (Setting.isTunnel() && Setting.getRender() == 1) setTunnel(view);
     }
 
+    private void setAccelerate(View view) {
+        int index = Setting.getAccelerate();
+        Setting.putAccelerate(index = index == accelerate.length - 1 ? 0 : ++index);
+        mBinding.accelerateText.setText(accelerate[index]);
+    }
+
+    private void setMediaCache(View view) {
+        int size = MEDIA_CACHE[(Ints.indexOf(MEDIA_CACHE, Setting.getMediaCache()) + 1) % MEDIA_CACHE.length];
+        mBinding.mediaCacheText.setText(getMediaCache(size));
+        Setting.putMediaCache(size);
+        CacheManager.get().resize();
+    }
+
+    private void setPrefetch(View view) {
+        int percent = PREFETCH[(Ints.indexOf(PREFETCH, Setting.getPrefetch()) + 1) % PREFETCH.length];
+        mBinding.prefetchText.setText(getPrefetch(percent));
+        Setting.putPrefetch(percent);
+    }
+
     private void setTunnel(View view) {
         boolean isChecked = !Setting.isTunnel();
         Setting.putTunnel(isChecked);
@@ -167,4 +208,8 @@ public class SettingPlayerActivity extends BaseActivity implements UaCallback, B
         Setting.putDanmakuLoad(isChecked);
         // 不需要再次调用 setChecked，因为点击已经触发了状态变化
     }
+
+    private void setAdFilter(View view) {
+        Setting.putAdFilter(!Setting.isAdFilter());
+    }
 } 
\ No newline at end of file
@@ -69,6 +69,7 @@ import com.fongmi.android.tv.bean.Track;
 import com.fongmi.android.tv.bean.Vod;
 import com.fongmi.android.tv.databinding.ActivityVideoBinding;
 import com.fongmi.android.tv.db.AppDatabase;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.ActionEvent;
 import com.fongmi.android.tv.event.CastEvent;
 import com.fongmi.android.tv.event.ErrorEvent;
@@ -76,6 +77,7 @@ import com.fongmi.android.tv.event.PlayerEvent;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.model.SiteViewModel;
 import com.fongmi.android.tv.player.Players;
+import com.fongmi.android.tv.player.Prefetch;
 import com.fongmi.android.tv.player.exo.ExoUtil;
 import com.fongmi.android.tv.player.Source;
 import com.fongmi.android.tv.service.PlaybackService;
@@ -126,8 +128,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 
 public class VideoActivity extends BaseActivity implements Clock.Callback, CustomKeyDownVod.Listener, TrackDialog.Listener, ControlDialog.Listener, FlagAdapter.OnClickListener, EpisodeAdapter.OnClickListener, QualityAdapter.OnClickListener, QuickAdapter.OnClickListener, ParseAdapter.OnClickListener, CastDialog.Listener, InfoDialog.Listener {
@@ -143,13 +143,13 @@ public class VideoActivity extends BaseActivity implements Clock.Callback, Custo
     private QuickAdapter mQuickAdapter;
     private ParseAdapter mParseAdapter;
     private CustomKeyDownVod mKeyDown;
-    private ExecutorService mExecutor;
     private SiteViewModel mViewModel;
     private FlagAdapter mFlagAdapter;
     private List<Dialog> mDialogs;
     private List<String> mBroken;
     private History mHistory;
     private Players mPlayers;
+    private String mPrefetch;
     private Vod mCurrentVod;  // 保存当前视频对象，用于演职人员跳转
     private boolean fullscreen;
     private boolean initAuto;
@@ -643,8 +643,11 @@ public class VideoActivity extends BaseActivity implements Clock.Callback, Custo
         setOther(mBinding.other, item);
         setArtwork(item.getVodPic());
         App.removeCallbacks(mR4);
-        checkHistory(item);
-        checkFlag(item);
+        String key = getHistoryKey();
+        Repository.load(() -> findHistory(key, item), history -> {
+            checkHistory(item, history);
+            checkFlag(item);
+        });
         checkKeepImg();
     }
     
@@ -900,12 +903,14 @@ public class VideoActivity extends BaseActivity implements Clock.Callback, Custo
     }
 
     private void onKeep() {
-        Keep keep = Keep.find(getHistoryKey());
-        Notify.show(keep != null ? R.string.keep_del : R.string.keep_add);
-        if (keep != null) keep.delete();
-        else createKeep();
-        RefreshEvent.keep();
-        checkKeepImg();
+        String key = getHistoryKey();
+        Repository.load(() -> Keep.find(key), keep -> {
+            Notify.show(keep != null ? R.string.keep_del : R.string.keep_add);
+            if (keep != null) keep.delete();
+            else createKeep();
+            RefreshEvent.keep();
+            checkKeepImg();
+        });
     }
 
     private void checkPlay() {
@@ -1240,9 +1245,13 @@ public class VideoActivity extends BaseActivity implements Clock.Callback, Custo
         }
     }
 
-    private void checkHistory(Vod item) {
-        mHistory = History.find(getHistoryKey());
-        mHistory = mHistory == null ? createHistory(item) : mHistory;
+    private History findHistory(String key, Vod item) {
+        History history = History.find(key);
+        return history == null ? createHistory(key, item) : history;
+    }
+
+    private void checkHistory(Vod item, History history) {
+        mHistory = history;
         if (!TextUtils.isEmpty(getMark())) mHistory.setVodRemarks(getMark());
         if (Setting.isIncognito() && mHistory.getKey().equals(getHistoryKey())) mHistory.delete();
         mBinding.control.action.opening.setText(mHistory.getOpening() <= 0 ? getString(R.string.play_op) : mPlayers.stringToTime(mHistory.getOpening()));
@@ -1252,9 +1261,9 @@ public class VideoActivity extends BaseActivity implements Clock.Callback, Custo
         setScale(getScale());
     }
 
-    private History createHistory(Vod item) {
+    private History createHistory(String key, Vod item) {
         History history = new History();
-        history.setKey(getHistoryKey());
+        history.setKey(key);
         history.setCid(VodConfig.getCid());
         history.setVodName(item.getVodName());
         history.findEpisode(item.getVodFlags());
@@ -1281,7 +1290,8 @@ public class VideoActivity extends BaseActivity implements Clock.Callback, Custo
     }
 
     private void checkKeepImg() {
-        mBinding.control.keep.setImageResource(Keep.find(getHistoryKey()) == null ? R.drawable.ic_control_keep_off : R.drawable.ic_control_keep_on);
+        String key = getHistoryKey();
+        Repository.load(() -> Keep.find(key), keep -> mBinding.control.keep.setImageResource(keep == null ? R.drawable.ic_control_keep_off : R.drawable.ic_control_keep_on));
     }
 
     private void checkLockImg() {
@@ -1318,6 +1328,14 @@ public class VideoActivity extends BaseActivity implements Clock.Callback, Custo
         if (mHistory.getEnding() > 0 && duration > 0 && mHistory.getEnding() + position >= duration) {
             checkEnded(false);
         }
+        checkPrefetch(position, duration);
+    }
+
+    private void checkPrefetch(long position, long duration) {
+        if (!Prefetch.isTime(position, duration)) return;
+        Episode item = mEpisodeAdapter.getNext();
+        if (item.isActivated() || item.getUrl().equals(mPrefetch)) return;
+        mViewModel.prefetch(mPlayers, getKey(), getFlag().getFlag(), mPrefetch = item.getUrl(), isUseParse());
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
@@ -1483,22 +1501,12 @@ public class VideoActivity extends BaseActivity implements Clock.Callback, Custo
     private void startSearch(String keyword) {
         mQuickAdapter.clear();
         List<Site> sites = new ArrayList<>();
-        mExecutor = Executors.newFixedThreadPool(20);
         for (Site item : VodConfig.get().getSites()) if (isPass(item)) sites.add(item);
-        for (Site site : sites) mExecutor.execute(() -> search(site, keyword));
+        mViewModel.searchContent(sites, keyword, true);
     }
 
     private void stopSearch() {
-        if (mExecutor == null) return;
-        mExecutor.shutdownNow();
-        mExecutor = null;
-    }
-
-    private void search(Site site, String keyword) {
-        try {
-            mViewModel.searchContent(site, keyword, true);
-        } catch (Throwable ignored) {
-        }
+        mViewModel.stopSearch();
     }
 
     private void setSearch(Result result) {
@@ -9,6 +9,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.fongmi.android.tv.bean.Keep;
 import com.fongmi.android.tv.databinding.AdapterVodBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.utils.ImgUtil;
 
 import java.util.ArrayList;
@@ -55,11 +56,17 @@ public class KeepAdapter extends RecyclerView.Adapter<KeepAdapter.ViewHolder> {
         notifyDataSetChanged();
     }
 
+    public void add(List<Keep> items) {
+        int position = mItems.size();
+        mItems.addAll(items);
+        notifyItemRangeInserted(position, items.size());
+    }
+
     public void clear() {
         mItems.clear();
         setDelete(false);
         notifyDataSetChanged();
-        Keep.deleteAll();
+        Repository.deleteKeep();
     }
 
     public void remove(Keep item) {
@@ -18,11 +18,12 @@ import com.android.cast.dlna.dmc.control.ServiceActionCallback;
 import com.fongmi.android.tv.App;
 import com.fongmi.android.tv.Constant;
 import com.fongmi.android.tv.R;
+import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.bean.CastVideo;
-import com.fongmi.android.tv.bean.Config;
 import com.fongmi.android.tv.bean.Device;
 import com.fongmi.android.tv.bean.History;
 import com.fongmi.android.tv.databinding.DialogDeviceBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.ScanEvent;
 import com.fongmi.android.tv.server.Server;
 import com.fongmi.android.tv.ui.activity.ScanActivity;
@@ -71,7 +72,7 @@ public class CastDialog extends BaseDialog implements DeviceAdapter.OnClickListe
         scanTask = new ScanTask(this);
         body = new FormBody.Builder();
         body.add("device", Device.get().toString());
-        body.add("config", Config.vod().toString());
+        body.add("config", VodConfig.get().getConfig().toString());
         client = OkHttp.client(Constant.TIMEOUT_SYNC);
     }
 
@@ -127,7 +128,7 @@ public class CastDialog extends BaseDialog implements DeviceAdapter.OnClickListe
     }
 
     private void getDevice() {
-        if (fm) adapter.addAll(Device.getAll());
+        if (fm) Repository.load(Device::getAll, adapter::addAll);
         adapter.addAll(DLNADevice.get().getAll());
     }
 
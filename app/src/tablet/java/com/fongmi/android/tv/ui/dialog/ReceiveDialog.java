@@ -13,6 +13,7 @@ import androidx.viewbinding.ViewBinding;
 import com.fongmi.android.tv.api.config.VodConfig;
 import com.fongmi.android.tv.bean.History;
 import com.fongmi.android.tv.databinding.DialogReceiveBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.CastEvent;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.impl.Callback;
@@ -77,7 +78,8 @@ public class ReceiveDialog extends BaseDialog {
 
     private void onReceiveCast() {
         if (VodConfig.get().getConfig().equals(event.getConfig())) {
-            VideoActivity.cast(getActivity(), event.getHistory().update(VodConfig.getCid()));
+            FragmentActivity activity = requireActivity();
+            Repository.load(() -> event.getHistory().update(VodConfig.getCid()), history -> VideoActivity.cast(activity, history));
             dismiss();
         } else {
             showProgress();
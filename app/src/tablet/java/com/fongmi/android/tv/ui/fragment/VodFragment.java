@@ -33,6 +33,7 @@ import com.fongmi.android.tv.bean.Result;
 import com.fongmi.android.tv.bean.Site;
 import com.fongmi.android.tv.bean.Value;
 import com.fongmi.android.tv.databinding.FragmentVodBinding;
+import com.fongmi.android.tv.db.Repository;
 import com.fongmi.android.tv.event.CastEvent;
 import com.fongmi.android.tv.event.RefreshEvent;
 import com.fongmi.android.tv.event.StateEvent;
@@ -168,19 +169,16 @@ public class VodFragment extends BaseFragment implements SiteCallback, FilterCal
 
     // 添加检查上次播放历史并显示弹窗的方法
     private void checkLastWatchDialog() {
-        if (App.isAppJustLaunched()) {
-            List<History> histories = History.get();
-            if (!histories.isEmpty()) {
-                App.setAppLaunched();
-                App.post(() -> {
-                    if (getActivity() != null) {
-                        LastWatchToast.create(getActivity(), histories.get(0)).show();
-                    }
-                }, 1000);
-            } else {
-                App.setAppLaunched();
-            }
-        }
+        if (!App.isAppJustLaunched()) return;
+        App.setAppLaunched();
+        Repository.getHistory(histories -> {
+            if (histories.isEmpty()) return;
+            App.post(() -> {
+                if (getActivity() != null) {
+                    LastWatchToast.create(getActivity(), histories.get(0)).show();
+                }
+            }, 1000);
+        });
     }
 
     private void setRecyclerView() {
@@ -488,8 +486,11 @@ public class VodFragment extends BaseFragment implements SiteCallback, FilterCal
             return;
         }
         
-        List<History> histories = History.get();
-        
+        Repository.getHistory(this::setHistory);
+    }
+
+    private void setHistory(List<History> histories) {
+        if (getActivity() == null) return;
         if (histories == null || histories.isEmpty()) {
             mBinding.historySection.setVisibility(View.GONE);
         } else {
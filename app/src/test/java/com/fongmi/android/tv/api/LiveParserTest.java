@@ -0,0 +1,89 @@
+package com.fongmi.android.tv.api;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Application;
+
+import com.fongmi.android.tv.bean.Channel;
+import com.fongmi.android.tv.bean.Group;
+import com.fongmi.android.tv.bean.Live;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Locale;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class LiveParserTest {
+
+    private static final int LINES = 50000;
+    private static final int GROUPS = 20;
+
+    @Test
+    public void m3u() {
+        Live live = new Live("m3u", "");
+        LiveParser.text(live, "#EXTM3U\n" +
+                "#EXTINF:-1 tvg-id=\"a\" group-title=\"News\",CCTV1\nhttp://a/1\n" +
+                "#EXTINF:-1 group-title=\"Sports\",CCTV5\nhttp://a/5\n" +
+                "#EXTINF:-1 group-title=\"News\",CCTV1\nhttp://b/1\n");
+        assertEquals(2, live.getGroups().size());
+        Group news = live.getGroups().get(0);
+        assertEquals("News", news.getName());
+        assertEquals(1, news.getChannel().size());
+        assertEquals(2, news.getChannel().get(0).getUrls().size());
+        assertEquals("001", news.getChannel().get(0).getNumber());
+        assertEquals("002", live.getGroups().get(1).getChannel().get(0).getNumber());
+    }
+
+    @Test
+    public void txt() {
+        Live live = new Live("txt", "");
+        LiveParser.text(live, "News,#genre#\nCCTV1,http://a/1\nCCTV2,http://a/2\nCCTV1,http://b/1#http://c/1\n");
+        assertEquals(1, live.getGroups().size());
+        assertEquals(2, live.getGroups().get(0).getChannel().size());
+        assertEquals(3, live.getGroups().get(0).getChannel().get(0).getUrls().size());
+    }
+
+    @Test
+    public void benchmark() {
+        String text = m3u(LINES / 2);
+        for (int i = 0; i < 3; i++) {
+            list(text);
+            LiveParser.text(new Live("warm", ""), text);
+        }
+        long start = System.nanoTime();
+        Live before = list(text);
+        long listMs = (System.nanoTime() - start) / 1000000;
+        start = System.nanoTime();
+        Live after = new Live("index", "");
+        LiveParser.text(after, text);
+        long indexMs = (System.nanoTime() - start) / 1000000;
+        System.out.printf(Locale.ROOT, "LiveParser %d lines: list %d ms, index %d ms%n", LINES, listMs, indexMs);
+        assertEquals(before.getGroups().size(), after.getGroups().size());
+        for (int i = 0; i < before.getGroups().size(); i++) assertEquals(before.getGroups().get(i).getChannel().size(), after.getGroups().get(i).getChannel().size());
+    }
+
+    private static String m3u(int count) {
+        StringBuilder sb = new StringBuilder("#EXTM3U\n");
+        for (int i = 0; i < count; i++) {
+            int id = i % 5 == 4 ? i / 2 : i;
+            sb.append("#EXTINF:-1 group-title=\"G").append(id % GROUPS).append("\",CH").append(id).append('\n');
+            sb.append("http://host/").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static Live list(String text) {
+        Live live = new Live("list", "");
+        for (String line : text.split("\n")) {
+            if (!line.startsWith("#EXTINF:")) continue;
+            String title = line.substring(line.indexOf('"') + 1, line.lastIndexOf('"'));
+            String name = line.substring(line.indexOf(',') + 1);
+            live.find(Group.create(title, false)).find(Channel.create(name));
+        }
+        return live;
+    }
+}
@@ -0,0 +1,146 @@
+package com.fongmi.android.tv.player.exo;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.net.Uri;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class ParallelDataSourceTest {
+
+    private static final int SIZE = 16 * ParallelDataSource.CHUNK;
+
+    @Test
+    public void range() {
+        assertArrayEquals(new long[]{0, 1048575, 8388608}, ParallelDataSource.getRange("bytes 0-1048575/8388608"));
+        assertNull(ParallelDataSource.getRange("bytes 0-1048575/*"));
+        assertNull(ParallelDataSource.getRange(""));
+    }
+
+    @Test
+    public void chunk() {
+        long end = 5L * ParallelDataSource.CHUNK + 123;
+        long next = 0, count = 0;
+        while (next < end) {
+            long stop = ParallelDataSource.getStop(next, end);
+            assertTrue(stop - next + 1 <= ParallelDataSource.CHUNK);
+            next = stop + 1;
+            count++;
+        }
+        assertEquals(end, next);
+        assertEquals(6, count);
+    }
+
+    @Test
+    public void window() {
+        assertEquals(4, ParallelDataSource.getWindow(1, 10, 4));
+        assertEquals(10, ParallelDataSource.getWindow(8, 10, 4));
+        assertEquals(1, ParallelDataSource.getWindow(1, 10, 1));
+    }
+
+    @Test
+    public void segments() {
+        String text = "#EXTM3U\n#EXT-X-TARGETDURATION:6\n#EXTINF:6,\nseg0.ts\r\n#EXTINF:6,\n/live/seg1.ts\n#EXTINF:6,\nhttps://cdn.test/seg2.ts\n#EXT-X-ENDLIST\n";
+        List<String> items = ParallelDataSource.getSegments("https://host.test/live/index.m3u8", text);
+        assertEquals(Arrays.asList("https://host.test/live/seg0.ts", "https://host.test/live/seg1.ts", "https://cdn.test/seg2.ts"), items);
+        assertTrue(ParallelDataSource.getSegments("https://host.test/index.m3u8", "#EXTM3U\n#EXT-X-STREAM-INF:BANDWIDTH=1\nlow.m3u8\n").isEmpty());
+        assertTrue(ParallelDataSource.getSegments("https://host.test/index.m3u8", "#EXTM3U\n#EXTINF:6,\n#EXT-X-BYTERANGE:100@0\nall.ts\n").isEmpty());
+    }
+
+    @Test
+    public void proxy() {
+        Uri uri = Uri.parse("http://127.0.0.1:9978/hls/index.m3u8?url=" + Uri.encode("https://host.test/live/index.m3u8?token=1"));
+        assertTrue(ParallelDataSource.isProxy(uri));
+        assertEquals("https://host.test/live/index.m3u8?token=1", ParallelDataSource.getBase(uri));
+        assertFalse(ParallelDataSource.isProxy(Uri.parse("https://host.test/hls/index.m3u8?url=x")));
+        assertFalse(ParallelDataSource.isProxy(Uri.parse("http://127.0.0.1:9978/proxy?url=x")));
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        byte[] body = new byte[SIZE];
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String range = request.getHeader("Range");
+                int start = 0, stop = SIZE - 1;
+                if (range != null) {
+                    String[] split = range.substring(6).split("-");
+                    start = Integer.parseInt(split[0]);
+                    stop = Math.min(SIZE - 1, Integer.parseInt(split[1]));
+                }
+                MockResponse response = new MockResponse().setBody(new Buffer().write(body, start, stop - start + 1)).throttleBody(64 * 1024, 25, TimeUnit.MILLISECONDS);
+                if (range != null) response.setResponseCode(206).setHeader("Content-Range", "bytes " + start + "-" + stop + "/" + SIZE);
+                return response;
+            }
+        });
+        server.start();
+        OkHttpClient client = new OkHttpClient();
+        client.dispatcher().setMaxRequestsPerHost(16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            String url = server.url("/video.mp4").toString();
+            for (int threads : new int[]{1, 2, 4, 8}) {
+                long start = System.nanoTime();
+                assertEquals(SIZE, fetch(client, executor, url, threads));
+                long ms = (System.nanoTime() - start) / 1000000;
+                System.out.printf(Locale.ROOT, "ParallelDataSource %d MB at 2.5 MB/s per connection: threads=%d %d ms%n", SIZE >> 20, threads, ms);
+            }
+        } finally {
+            executor.shutdownNow();
+            server.shutdown();
+        }
+    }
+
+    private static long fetch(OkHttpClient client, ExecutorService executor, String url, int threads) throws Exception {
+        long next = 0, read = 0;
+        ArrayDeque<Future<byte[]>> queue = new ArrayDeque<>();
+        while (true) {
+            while (queue.size() < threads && next < SIZE) {
+                long start = next;
+                long stop = ParallelDataSource.getStop(start, SIZE);
+                next = stop + 1;
+                queue.add(executor.submit(() -> get(client, url, start, stop)));
+            }
+            Future<byte[]> future = queue.poll();
+            if (future == null) return read;
+            read += future.get().length;
+        }
+    }
+
+    private static byte[] get(OkHttpClient client, String url, long start, long stop) throws Exception {
+        Request request = new Request.Builder().url(url).header("Range", "bytes=" + start + "-" + stop).build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().bytes();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.catvod.net;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+public class HostMatcher<T> {
+
+    private static final String META = "*+?[](){}|^$\\";
+
+    private final Map<String, T> exact;
+    private final Node<T> suffix;
+    private final List<String> texts;
+    private final List<T> contains;
+    private final List<T> values;
+    private final int[] groups;
+    private final Pattern pattern;
+    private final ThreadLocal<Matcher> matcher;
+
+    public static HostMatcher<Boolean> of(Collection<String> rules) {
+        Map<String, Boolean> items = new LinkedHashMap<>();
+        for (String rule : rules) items.put(rule, true);
+        return new HostMatcher<>(items);
+    }
+
+    public HostMatcher(Map<String, T> rules) {
+        this.exact = new HashMap<>();
+        this.suffix = new Node<>();
+        this.texts = new ArrayList<>();
+        this.contains = new ArrayList<>();
+        this.values = new ArrayList<>();
+        List<Integer> groups = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        int group = 1;
+        for (Map.Entry<String, T> entry : rules.entrySet()) {
+            String rule = entry.getKey() == null ? "" : entry.getKey().trim();
+            if (rule.isEmpty()) continue;
+            String domain = getDomain(rule);
+            if (domain != null) suffix.add(domain, entry.getValue());
+            if (isLiteral(rule)) {
+                if (domain != null) exact.putIfAbsent(domain, entry.getValue());
+                texts.add(rule.toLowerCase());
+                contains.add(entry.getValue());
+            } else if (domain == null) {
+                String item = getRegex(rule);
+                int count = getGroupCount(item);
+                if (count < 0) continue;
+                if (sb.length() > 0) sb.append('|');
+                sb.append('(').append(item).append(')');
+                values.add(entry.getValue());
+                groups.add(group);
+                group += count + 1;
+            }
+        }
+        this.groups = new int[groups.size()];
+        for (int i = 0; i < groups.size(); i++) this.groups[i] = groups.get(i);
+        this.pattern = sb.length() == 0 ? null : Pattern.compile(sb.toString());
+        this.matcher = new ThreadLocal<>() {
+            @Override
+            protected Matcher initialValue() {
+                return pattern == null ? null : pattern.matcher("");
+            }
+        };
+    }
+
+    public boolean isEmpty() {
+        return exact.isEmpty() && suffix.isEmpty() && texts.isEmpty() && pattern == null;
+    }
+
+    public boolean matches(String host) {
+        return find(host) != null;
+    }
+
+    public T find(String host) {
+        if (host == null || host.isEmpty()) return null;
+        T value = exact.get(host);
+        if (value != null) return value;
+        value = suffix.find(host);
+        if (value != null) return value;
+        for (int i = 0; i < texts.size(); i++) if (host.contains(texts.get(i))) return contains.get(i);
+        if (pattern == null) return null;
+        Matcher m = matcher.get().reset(host);
+        if (!m.matches()) return null;
+        for (int i = 0; i < groups.length; i++) if (m.start(groups[i]) != -1) return values.get(i);
+        return null;
+    }
+
+    private static boolean isLiteral(String rule) {
+        for (int i = 0; i < rule.length(); i++) if (META.indexOf(rule.charAt(i)) != -1) return false;
+        return true;
+    }
+
+    private static String getDomain(String rule) {
+        if (isLiteral(rule)) return rule.indexOf('.') > 0 ? rule.toLowerCase() : null;
+        String rest;
+        if (rule.startsWith("*.")) rest = rule.substring(2);
+        else if (rule.startsWith(".*\\.")) rest = rule.substring(4).replace("\\.", ".");
+        else return null;
+        return !rest.isEmpty() && isLiteral(rest) ? rest.toLowerCase() : null;
+    }
+
+    private static String getRegex(String rule) {
+        if (rule.contains(".*") || !rule.contains("*")) return rule;
+        StringBuilder sb = new StringBuilder();
+        String[] parts = rule.split("\\*", -1);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) sb.append(".*");
+            if (!parts[i].isEmpty()) sb.append(Pattern.quote(parts[i]));
+        }
+        return sb.toString();
+    }
+
+    private static int getGroupCount(String regex) {
+        try {
+            return Pattern.compile(regex).matcher("").groupCount();
+        } catch (PatternSyntaxException e) {
+            return -1;
+        }
+    }
+
+    private static class Node<T> {
+
+        private String[] labels = new String[0];
+        private Node<T>[] children;
+        private T value;
+
+        @SuppressWarnings("unchecked")
+        private Node<T> child(String label) {
+            for (int i = 0; i < labels.length; i++) if (labels[i].equals(label)) return children[i];
+            String[] labels = new String[this.labels.length + 1];
+            Node<T>[] children = new Node[labels.length];
+            System.arraycopy(this.labels, 0, labels, 0, this.labels.length);
+            if (this.children != null) System.arraycopy(this.children, 0, children, 0, this.children.length);
+            labels[labels.length - 1] = label;
+            children[children.length - 1] = new Node<>();
+            this.labels = labels;
+            this.children = children;
+            return children[children.length - 1];
+        }
+
+        private Node<T> child(String host, int start, int length) {
+            for (int i = 0; i < labels.length; i++) if (labels[i].length() == length && host.regionMatches(true, start, labels[i], 0, length)) return children[i];
+            return null;
+        }
+
+        boolean isEmpty() {
+            return labels.length == 0;
+        }
+
+        void add(String domain, T value) {
+            Node<T> node = this;
+            int end = domain.length();
+            while (end > 0) {
+                int start = domain.lastIndexOf('.', end - 1) + 1;
+                node = node.child(domain.substring(start, end));
+                end = start - 1;
+            }
+            if (node.value == null) node.value = value;
+        }
+
+        T find(String host) {
+            T found = null;
+            Node<T> node = this;
+            int end = host.length();
+            while (end > 0) {
+                int start = host.lastIndexOf('.', end - 1) + 1;
+                node = node.child(host, start, end - start);
+                if (node == null) break;
+                if (node.value != null && start > 0) found = node.value;
+                end = start - 1;
+            }
+            return found;
+        }
+    }
+}
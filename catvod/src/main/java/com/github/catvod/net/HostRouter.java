@@ -0,0 +1,190 @@
+package com.github.catvod.net;
+
+import com.github.catvod.utils.Json;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+public class HostRouter {
+
+    private static final int MAX_CACHE = 1024;
+
+    private final Map<String, Map<String, String>> headers;
+    private final Map<String, Boolean> proxy;
+    private final Map<String, Object> rules;
+    private final Map<String, String> dns;
+
+    private volatile Snapshot snapshot;
+
+    public HostRouter() {
+        this.headers = new LinkedHashMap<>();
+        this.proxy = new LinkedHashMap<>();
+        this.rules = new LinkedHashMap<>();
+        this.dns = new LinkedHashMap<>();
+        compile();
+    }
+
+    public synchronized void addDns(List<String> hosts) {
+        for (String host : hosts) {
+            if (!host.contains("=")) continue;
+            String[] splits = host.split("=", 2);
+            dns.put(splits[0], splits[1]);
+        }
+        compile();
+    }
+
+    public synchronized void addProxy(List<String> hosts) {
+        for (String host : hosts) proxy.put(host, true);
+        compile();
+    }
+
+    public synchronized void addHeaders(List<JsonElement> items) {
+        for (JsonElement item : items) {
+            JsonObject object = Json.safeObject(item);
+            if (!object.has("host") || !object.has("header")) continue;
+            Map<String, String> header = new HashMap<>();
+            for (Map.Entry<String, JsonElement> entry : object.getAsJsonObject("header").entrySet()) header.put(entry.getKey(), entry.getValue().getAsString());
+            headers.put(object.get("host").getAsString(), Collections.unmodifiableMap(header));
+        }
+        compile();
+    }
+
+    public synchronized void setRules(Map<String, ?> items) {
+        rules.clear();
+        rules.putAll(items);
+        compile();
+    }
+
+    public synchronized void clearProxy() {
+        proxy.clear();
+        compile();
+    }
+
+    public synchronized void clear() {
+        headers.clear();
+        proxy.clear();
+        rules.clear();
+        dns.clear();
+        compile();
+    }
+
+    private void compile() {
+        snapshot = new Snapshot(new HashMap<>(headers), new Rules<>(proxy), new Rules<>(rules), new Rules<>(dns));
+    }
+
+    public boolean hasProxy() {
+        return !snapshot.proxy.isEmpty();
+    }
+
+    public Route route(String host) {
+        if (host == null || host.isEmpty()) return Route.EMPTY;
+        return snapshot.route(host);
+    }
+
+    private static class Snapshot {
+
+        private final Map<String, Map<String, String>> headers;
+        private final ConcurrentHashMap<String, Route> cache;
+        private final Rules<Boolean> proxy;
+        private final Rules<Object> rules;
+        private final Rules<String> dns;
+
+        Snapshot(Map<String, Map<String, String>> headers, Rules<Boolean> proxy, Rules<Object> rules, Rules<String> dns) {
+            this.cache = new ConcurrentHashMap<>();
+            this.headers = headers;
+            this.proxy = proxy;
+            this.rules = rules;
+            this.dns = dns;
+        }
+
+        Route route(String host) {
+            Route route = cache.get(host);
+            if (route != null) return route;
+            route = new Route(dns.find(host), proxy.find(host) != null, headers.get(host), rules.find(host));
+            if (cache.size() >= MAX_CACHE) cache.clear();
+            cache.put(host, route);
+            return route;
+        }
+    }
+
+    private static class Rules<T> {
+
+        private final List<String> keys;
+        private final List<Pattern> patterns;
+        private final List<T> values;
+
+        Rules(Map<String, T> items) {
+            this.keys = new ArrayList<>();
+            this.patterns = new ArrayList<>();
+            this.values = new ArrayList<>();
+            for (Map.Entry<String, T> entry : items.entrySet()) {
+                if (entry.getKey() == null || entry.getKey().isEmpty()) continue;
+                keys.add(entry.getKey());
+                patterns.add(compile(entry.getKey()));
+                values.add(entry.getValue());
+            }
+        }
+
+        private static Pattern compile(String regex) {
+            try {
+                return Pattern.compile(regex);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        boolean isEmpty() {
+            return keys.isEmpty();
+        }
+
+        T find(String host) {
+            for (int i = 0; i < keys.size(); i++) {
+                Pattern pattern = patterns.get(i);
+                if (host.contains(keys.get(i)) || (pattern != null && pattern.matcher(host).matches())) return values.get(i);
+            }
+            return null;
+        }
+    }
+
+    public static class Route {
+
+        private static final Route EMPTY = new Route(null, false, null, null);
+
+        private final Map<String, String> headers;
+        private final boolean proxy;
+        private final Object rule;
+        private final String dns;
+
+        Route(String dns, boolean proxy, Map<String, String> headers, Object rule) {
+            this.headers = headers;
+            this.proxy = proxy;
+            this.rule = rule;
+            this.dns = dns;
+        }
+
+        public String getDns() {
+            return dns;
+        }
+
+        public boolean isProxy() {
+            return proxy;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T getRule() {
+            return (T) rule;
+        }
+    }
+}
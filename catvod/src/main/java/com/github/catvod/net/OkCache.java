@@ -0,0 +1,228 @@
+package com.github.catvod.net;
+
+import com.github.catvod.utils.Path;
+import com.github.catvod.utils.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.Call;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class OkCache {
+
+    private static final long MB = 1024 * 1024;
+
+    private final Map<Type, Long> budgets;
+    private final Set<String> refreshing;
+    private final ExecutorService executor;
+    private volatile boolean offline;
+
+    public enum Type {
+        CONFIG, JAR, JS, API
+    }
+
+    public OkCache() {
+        this.refreshing = ConcurrentHashMap.newKeySet();
+        this.executor = Executors.newFixedThreadPool(2);
+        this.budgets = new EnumMap<>(Type.class);
+        this.budgets.put(Type.CONFIG, 8 * MB);
+        this.budgets.put(Type.JAR, 64 * MB);
+        this.budgets.put(Type.JS, 32 * MB);
+        this.budgets.put(Type.API, 16 * MB);
+    }
+
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    public void setBudget(Type type, long budget) {
+        budgets.put(type, Math.max(0, budget));
+    }
+
+    public Entry fetch(Type type, String url) throws IOException {
+        return fetch(type, url, Headers.of(), null);
+    }
+
+    public Entry fetch(Type type, String url, Headers headers) throws IOException {
+        return fetch(type, url, headers, null);
+    }
+
+    public Entry fetch(Type type, String url, Headers headers, String tag) throws IOException {
+        String key = Util.md5(headers.size() == 0 ? url : url + "\n" + headers);
+        Entry cached = read(type, key);
+        if (cached != null && isOffline(type)) {
+            refresh(type, key, url, headers, cached);
+            return cached;
+        }
+        return request(type, key, url, headers, tag, cached);
+    }
+
+    private boolean isOffline(Type type) {
+        return offline && (type == Type.JAR || type == Type.JS);
+    }
+
+    private void refresh(Type type, String key, String url, Headers headers, Entry cached) {
+        if (!refreshing.add(key)) return;
+        executor.execute(() -> {
+            try {
+                request(type, key, url, headers, null, cached);
+            } catch (Exception ignored) {
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private Entry request(Type category, String key, String url, Headers headers, String tag, Entry cached) throws IOException {
+        Request.Builder builder = new Request.Builder().url(url).headers(headers).tag(tag);
+        if (cached != null && !cached.etag.isEmpty()) builder.header("If-None-Match", cached.etag);
+        if (cached != null && !cached.modified.isEmpty()) builder.header("If-Modified-Since", cached.modified);
+        Call call = OkHttp.client().newCall(builder.build());
+        try (Response res = call.execute()) {
+            if (res.code() == 304 && cached != null) return touch(cached);
+            if (!res.isSuccessful() && cached != null) return cached;
+            MediaType media = res.body().contentType();
+            Charset charset = media == null ? null : media.charset();
+            Entry entry = new Entry(res.request().url().toString(), res.header("ETag", ""), res.header("Last-Modified", ""), charset == null ? "" : charset.name(), res.body().bytes());
+            if (res.isSuccessful() && isStore(category, entry)) return write(category, key, entry);
+            return entry;
+        } catch (IOException e) {
+            if (cached == null || call.isCanceled()) throw e;
+            return cached;
+        }
+    }
+
+    private boolean isStore(Type type, Entry entry) {
+        if (budgets.get(type) == 0) return false;
+        return type != Type.API || !entry.etag.isEmpty() || !entry.modified.isEmpty();
+    }
+
+    private File getDir(Type type) {
+        return Path.cache("http" + File.separator + type.name().toLowerCase());
+    }
+
+    private File getMeta(Type type, String key) {
+        return new File(getDir(type), key + ".meta");
+    }
+
+    private File getBody(Type type, String key, byte[] data) {
+        return type == Type.JAR ? new File(Path.jar(), key + "-" + Util.md5(data) + ".jar") : new File(getDir(type), key);
+    }
+
+    private File getBody(Type type, String key, String[] lines) {
+        return type == Type.JAR ? new File(Path.jar(), lines.length > 4 ? lines[4] : key + ".jar") : new File(getDir(type), key);
+    }
+
+    private String[] getLines(File meta) {
+        return Path.read(meta).split("\n", -1);
+    }
+
+    private Entry read(Type type, String key) {
+        File meta = getMeta(type, key);
+        if (!meta.exists()) return null;
+        String[] lines = getLines(meta);
+        File body = getBody(type, key, lines);
+        if (lines.length < 4 || !body.exists()) return null;
+        return new Entry(lines[0], lines[1], lines[2], lines[3], body, meta);
+    }
+
+    private synchronized Entry write(Type type, String key, Entry entry) {
+        File meta = getMeta(type, key);
+        File body = getBody(type, key, entry.data);
+        File old = meta.exists() ? getBody(type, key, getLines(meta)) : null;
+        if (type != Type.JAR || !body.exists()) {
+            File temp = new File(body.getPath() + ".tmp");
+            Path.write(temp, entry.data);
+            if (!temp.renameTo(body)) return entry;
+        }
+        Path.write(meta, (entry.url + "\n" + entry.etag + "\n" + entry.modified + "\n" + entry.charset + "\n" + body.getName()).getBytes(StandardCharsets.UTF_8));
+        if (type == Type.JAR && old != null && !old.equals(body)) Path.clear(old);
+        trim(type);
+        return new Entry(entry.url, entry.etag, entry.modified, entry.charset, entry.data, body, meta);
+    }
+
+    private Entry touch(Entry entry) {
+        entry.meta.setLastModified(System.currentTimeMillis());
+        return entry;
+    }
+
+    private void trim(Type type) {
+        long size = 0;
+        List<File> metas = new ArrayList<>();
+        for (File file : Path.list(getDir(type))) if (file.getName().endsWith(".meta")) metas.add(file);
+        metas.sort((o1, o2) -> Long.compare(o2.lastModified(), o1.lastModified()));
+        for (File meta : metas) {
+            File body = getBody(type, meta.getName().replace(".meta", ""), getLines(meta));
+            if ((size += meta.length() + body.length()) <= budgets.get(type)) continue;
+            Path.clear(meta);
+            Path.clear(body);
+        }
+    }
+
+    public void clear() {
+        for (Type type : Type.values()) Path.clear(getDir(type));
+    }
+
+    public static class Entry {
+
+        private final String url;
+        private final String etag;
+        private final String modified;
+        private final String charset;
+        private final byte[] data;
+        private final File body;
+        private final File meta;
+
+        Entry(String url, String etag, String modified, String charset, byte[] data) {
+            this(url, etag, modified, charset, data, null, null);
+        }
+
+        Entry(String url, String etag, String modified, String charset, File body, File meta) {
+            this(url, etag, modified, charset, null, body, meta);
+        }
+
+        Entry(String url, String etag, String modified, String charset, byte[] data, File body, File meta) {
+            this.url = url;
+            this.etag = etag;
+            this.modified = modified;
+            this.charset = charset;
+            this.data = data;
+            this.body = body;
+            this.meta = meta;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public File getFile() {
+            return body;
+        }
+
+        public byte[] bytes() {
+            return data != null ? data : Path.readToByte(body);
+        }
+
+        public String string() {
+            try {
+                return new String(bytes(), charset.isEmpty() ? StandardCharsets.UTF_8 : Charset.forName(charset));
+            } catch (Exception e) {
+                return new String(bytes(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
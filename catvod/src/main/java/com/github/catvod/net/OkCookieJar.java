@@ -7,10 +7,22 @@ import android.webkit.WebView;
 import androidx.annotation.NonNull;
 
 import com.google.common.net.HttpHeaders;
+import com.google.common.net.InternetDomainName;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import okhttp3.Cookie;
 import okhttp3.CookieJar;
@@ -19,6 +31,13 @@ import okhttp3.Request;
 
 public class OkCookieJar implements CookieJar {
 
+    private static final long DELAY = 1000;
+
+    private final Map<String, Map<String, Cookie>> store;
+    private final ScheduledExecutorService executor;
+    private final Queue<String[]> pending;
+    private final AtomicBoolean scheduled;
+    private final Set<String> loaded;
     private CookieManager manager;
 
     private static class Loader {
@@ -30,6 +49,11 @@ public class OkCookieJar implements CookieJar {
     }
 
     private OkCookieJar() {
+        this.store = new ConcurrentHashMap<>();
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+        this.loaded = ConcurrentHashMap.newKeySet();
+        this.executor = Executors.newSingleThreadScheduledExecutor();
         try {
             manager = CookieManager.getInstance();
         } catch (Throwable ignored) {
@@ -44,44 +68,149 @@ public class OkCookieJar implements CookieJar {
     }
 
     public static void sync(HttpUrl url, Request request) {
-        if (!"127.0.0.1".equals(url.host())) sync(url.toString(), request.header(HttpHeaders.COOKIE));
+        if (!isLocal(url)) get().put(url, request.header(HttpHeaders.COOKIE));
     }
 
     public static void sync(String url, String cookie) {
+        HttpUrl httpUrl = TextUtils.isEmpty(url) ? null : HttpUrl.parse(url);
+        if (httpUrl != null) get().put(httpUrl, cookie);
+    }
+
+    public static void flush() {
+        get().persist();
+    }
+
+    public static void reload(String url) {
+        HttpUrl httpUrl = TextUtils.isEmpty(url) ? null : HttpUrl.parse(url);
+        if (httpUrl == null) return;
+        get().persist();
+        get().merge(httpUrl, true);
+        get().loaded.add(httpUrl.host());
+    }
+
+    private static boolean isLocal(HttpUrl url) {
+        return "127.0.0.1".equals(url.host());
+    }
+
+    private static String getDomain(String host) {
         try {
-            if (TextUtils.isEmpty(cookie)) return;
-            for (String split : cookie.split(";")) get().manager.setCookie(url, split);
-            get().manager.flush();
-        } catch (Throwable ignored) {
+            InternetDomainName name = InternetDomainName.from(host);
+            return name.isUnderPublicSuffix() ? name.topPrivateDomain().toString() : host;
+        } catch (Exception e) {
+            return host;
         }
     }
 
-    private void add(List<Cookie> items, Cookie cookie) {
-        if (cookie != null) items.add(cookie);
+    private static String getKey(Cookie cookie) {
+        return cookie.name() + ";" + cookie.domain() + ";" + cookie.path();
     }
 
-    @NonNull
-    @Override
-    public synchronized List<Cookie> loadForRequest(@NonNull HttpUrl url) {
+    private Map<String, Cookie> getCookies(String host) {
+        String domain = getDomain(host);
+        Map<String, Cookie> cookies = store.get(domain);
+        if (cookies != null) return cookies;
+        store.putIfAbsent(domain, new ConcurrentHashMap<>());
+        return store.get(domain);
+    }
+
+    private void put(HttpUrl url, String cookie) {
+        if (TextUtils.isEmpty(cookie)) return;
+        List<Cookie> items = new ArrayList<>();
+        for (String split : cookie.split(";")) {
+            Cookie item = Cookie.parse(url, split.trim());
+            if (item != null) items.add(item);
+        }
+        saveFromResponse(url, items);
+    }
+
+    private void load(HttpUrl url) {
+        if (loaded.add(url.host())) merge(url, false);
+    }
+
+    private void merge(HttpUrl url, boolean replace) {
+        if (manager == null) return;
         try {
-            List<Cookie> items = new ArrayList<>();
-            String cookie = manager.getCookie(url.toString());
-            if (TextUtils.isEmpty(cookie)) return Collections.emptyList();
-            if ("127.0.0.1".equals(url.host())) return Collections.emptyList();
-            for (String split : cookie.split(";")) add(items, Cookie.parse(url, split));
-            return items;
-        } catch (Throwable e) {
-            return Collections.emptyList();
+            Map<String, String> fresh = parse(manager.getCookie(url.toString()));
+            Map<String, Cookie> cookies = getCookies(url.host());
+            for (Iterator<Map.Entry<String, Cookie>> iterator = cookies.entrySet().iterator(); iterator.hasNext(); ) {
+                Map.Entry<String, Cookie> entry = iterator.next();
+                Cookie cookie = entry.getValue();
+                if (!cookie.matches(url)) continue;
+                String value = fresh.remove(cookie.name());
+                if (value == null && replace) iterator.remove();
+                else if (value != null && replace && !value.equals(cookie.value())) entry.setValue(copy(cookie, value));
+            }
+            for (Map.Entry<String, String> entry : fresh.entrySet()) {
+                Cookie cookie = new Cookie.Builder().name(entry.getKey()).value(entry.getValue()).hostOnlyDomain(url.host()).path("/").build();
+                cookies.put(getKey(cookie), cookie);
+            }
+        } catch (Throwable ignored) {
         }
     }
 
-    @Override
-    public synchronized void saveFromResponse(@NonNull HttpUrl url, @NonNull List<Cookie> cookies) {
+    private Map<String, String> parse(String cookie) {
+        Map<String, String> map = new LinkedHashMap<>();
+        if (TextUtils.isEmpty(cookie)) return map;
+        for (String split : cookie.split(";")) {
+            int index = split.indexOf('=');
+            String name = index == -1 ? "" : split.substring(0, index).trim();
+            if (!name.isEmpty()) map.put(name, split.substring(index + 1).trim());
+        }
+        return map;
+    }
+
+    private Cookie copy(Cookie cookie, String value) {
+        Cookie.Builder builder = new Cookie.Builder().name(cookie.name()).value(value).path(cookie.path());
+        if (cookie.hostOnly()) builder.hostOnlyDomain(cookie.domain());
+        else builder.domain(cookie.domain());
+        if (cookie.persistent()) builder.expiresAt(cookie.expiresAt());
+        if (cookie.secure()) builder.secure();
+        if (cookie.httpOnly()) builder.httpOnly();
+        return builder.build();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) executor.schedule(this::persist, DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    private void persist() {
+        scheduled.set(false);
+        if (manager == null || pending.isEmpty()) return;
         try {
-            if ("127.0.0.1".equals(url.host())) return;
-            for (Cookie cookie : cookies) manager.setCookie(url.toString(), cookie.toString());
+            String[] item;
+            while ((item = pending.poll()) != null) manager.setCookie(item[0], item[1]);
             manager.flush();
         } catch (Throwable ignored) {
         }
     }
-}
\ No newline at end of file
+
+    @NonNull
+    @Override
+    public List<Cookie> loadForRequest(@NonNull HttpUrl url) {
+        if (isLocal(url)) return Collections.emptyList();
+        load(url);
+        Map<String, Cookie> cookies = store.get(getDomain(url.host()));
+        if (cookies == null || cookies.isEmpty()) return Collections.emptyList();
+        List<Cookie> items = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Iterator<Cookie> iterator = cookies.values().iterator(); iterator.hasNext(); ) {
+            Cookie cookie = iterator.next();
+            if (cookie.expiresAt() < now) iterator.remove();
+            else if (cookie.matches(url)) items.add(cookie);
+        }
+        return items;
+    }
+
+    @Override
+    public void saveFromResponse(@NonNull HttpUrl url, @NonNull List<Cookie> cookies) {
+        if (isLocal(url) || cookies.isEmpty()) return;
+        Map<String, Cookie> items = getCookies(url.host());
+        long now = System.currentTimeMillis();
+        for (Cookie cookie : cookies) {
+            if (cookie.expiresAt() < now) items.remove(getKey(cookie));
+            else items.put(getKey(cookie), cookie);
+            pending.add(new String[]{url.toString(), cookie.toString()});
+        }
+        schedule();
+    }
+}
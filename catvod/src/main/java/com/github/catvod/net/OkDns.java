@@ -2,48 +2,104 @@ package com.github.catvod.net;
 
 import androidx.annotation.NonNull;
 
-import com.github.catvod.utils.Util;
-
+import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import okhttp3.Dns;
+import okhttp3.HttpUrl;
 import okhttp3.dnsoverhttps.DnsOverHttps;
 
 public class OkDns implements Dns {
 
-    private final ConcurrentHashMap<String, String> map;
+    private final ConcurrentHashMap<String, Entry> cache;
     private DnsOverHttps doh;
+    private long negativeTtl;
+    private long ttl;
 
     public OkDns() {
-        this.map = new ConcurrentHashMap<>();
+        this.cache = new ConcurrentHashMap<>();
+        setTtl(new OkProfile());
+    }
+
+    public void setTtl(OkProfile profile) {
+        this.ttl = profile.getDnsTtl();
+        this.negativeTtl = profile.getDnsNegativeTtl();
+        this.cache.clear();
     }
 
     public void setDoh(DnsOverHttps doh) {
         this.doh = doh;
+        this.cache.clear();
+        if (doh != null) warm(doh);
     }
 
     public void clear() {
-        map.clear();
+        cache.clear();
     }
 
-    public synchronized void addAll(List<String> hosts) {
-        for (String host : hosts) {
-            if (!host.contains("=")) continue;
-            String[] splits = host.split("=", 2);
-            String oldHost = splits[0];
-            String newHost = splits[1];
-            map.put(oldHost, newHost);
-        }
+    private void warm(DnsOverHttps doh) {
+        HttpUrl url = doh.url();
+        OkHttp.execute(() -> {
+            try {
+                doh.lookup(url.host());
+            } catch (Exception ignored) {
+            }
+        });
     }
 
     @NonNull
     @Override
     public List<InetAddress> lookup(@NonNull String hostname) throws UnknownHostException {
-        for (Map.Entry<String, String> entry : map.entrySet()) if (Util.containOrMatch(hostname, entry.getKey())) hostname = entry.getValue();
-        return (doh != null ? doh : Dns.SYSTEM).lookup(hostname);
+        String target = OkHttp.router().route(hostname).getDns();
+        if (target != null) hostname = target;
+        Entry entry = cache.get(hostname);
+        if (entry != null && entry.isFresh()) return entry.get();
+        try {
+            List<InetAddress> items = sort((doh != null ? doh : Dns.SYSTEM).lookup(hostname));
+            if (ttl > 0) cache.put(hostname, new Entry(items, null, ttl));
+            return items;
+        } catch (UnknownHostException e) {
+            if (negativeTtl > 0) cache.put(hostname, new Entry(null, e, negativeTtl));
+            throw e;
+        }
+    }
+
+    private List<InetAddress> sort(List<InetAddress> items) {
+        List<InetAddress> v4 = new ArrayList<>();
+        List<InetAddress> v6 = new ArrayList<>();
+        for (InetAddress item : items) (item instanceof Inet4Address ? v4 : v6).add(item);
+        if (v4.isEmpty() || v6.isEmpty()) return items;
+        List<InetAddress> sorted = new ArrayList<>(items.size());
+        for (int i = 0; i < Math.max(v4.size(), v6.size()); i++) {
+            if (i < v4.size()) sorted.add(v4.get(i));
+            if (i < v6.size()) sorted.add(v6.get(i));
+        }
+        return sorted;
+    }
+
+    private static class Entry {
+
+        private final List<InetAddress> items;
+        private final UnknownHostException error;
+        private final long expire;
+
+        Entry(List<InetAddress> items, UnknownHostException error, long ttl) {
+            this.expire = System.currentTimeMillis() + ttl;
+            this.items = items;
+            this.error = error;
+        }
+
+        boolean isFresh() {
+            return expire > System.currentTimeMillis();
+        }
+
+        List<InetAddress> get() throws UnknownHostException {
+            if (error != null) throw new UnknownHostException(error.getMessage());
+            return items;
+        }
     }
 }
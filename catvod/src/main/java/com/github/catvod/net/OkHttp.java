@@ -9,12 +9,15 @@ import com.github.catvod.bean.Doh;
 import com.github.catvod.net.interceptor.AuthInterceptor;
 import com.github.catvod.net.interceptor.RequestInterceptor;
 import com.github.catvod.net.interceptor.ResponseInterceptor;
+import com.github.catvod.utils.SingleFlight;
 
 import java.net.ProxySelector;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
@@ -22,10 +25,13 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
 import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.FormBody;
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
@@ -35,12 +41,18 @@ import okhttp3.logging.HttpLoggingInterceptor;
 public class OkHttp {
 
     private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    private static final SingleFlight<String> flight = new SingleFlight<>();
     private static final ProxySelector defaultSelector;
 
     private ResponseInterceptor responseInterceptor;
     private RequestInterceptor requestInterceptor;
     private AuthInterceptor authInterceptor;
     private OkProxySelector selector;
+    private HostRouter router;
+    private OkCache cache;
+    private ConnectionPool pool;
+    private Dispatcher dispatcher;
+    private OkProfile profile;
     private OkHttpClient client;
     private OkDns dns;
 
@@ -61,14 +73,14 @@ public class OkHttp {
     public void clear() {
         cancelAll();
         dns().clear();
-        selector().clear();
+        router().clear();
         authInterceptor().clear();
         requestInterceptor().clear();
         responseInterceptor().clear();
     }
 
     public void setDoh(Doh doh) {
-        dns().setDoh(doh.getUrl().isEmpty() ? null : new DnsOverHttps.Builder().client(new OkHttpClient()).url(HttpUrl.get(doh.getUrl())).bootstrapDnsHosts(doh.getHosts()).build());
+        dns().setDoh(doh.getUrl().isEmpty() ? null : new DnsOverHttps.Builder().client(new OkHttpClient.Builder().connectionPool(pool()).build()).url(HttpUrl.get(doh.getUrl())).bootstrapDnsHosts(doh.getHosts()).build());
         client = null;
     }
 
@@ -76,9 +88,52 @@ public class OkHttp {
         ProxySelector.setDefault(TextUtils.isEmpty(proxy) ? defaultSelector : selector());
         if (!TextUtils.isEmpty(proxy)) selector().setProxy(proxy);
         this.proxy = !TextUtils.isEmpty(proxy);
+        pool().evictAll();
         client = null;
     }
 
+    public void setProfile(OkProfile profile) {
+        this.profile = profile;
+        if (pool != null) pool.evictAll();
+        pool = null;
+        dispatcher().setMaxRequests(profile.getMaxRequests());
+        dispatcher().setMaxRequestsPerHost(profile.getMaxRequestsPerHost());
+        dns().setTtl(profile);
+        client = null;
+    }
+
+    public static OkProfile profile() {
+        if (get().profile != null) return get().profile;
+        return get().profile = new OkProfile();
+    }
+
+    private static ConnectionPool pool() {
+        if (get().pool != null) return get().pool;
+        return get().pool = new ConnectionPool(profile().getMaxIdle(), profile().getKeepAlive(), TimeUnit.MILLISECONDS);
+    }
+
+    private static Dispatcher dispatcher() {
+        if (get().dispatcher != null) return get().dispatcher;
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(profile().getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(profile().getMaxRequestsPerHost());
+        return get().dispatcher = dispatcher;
+    }
+
+    public static void execute(Runnable runnable) {
+        dispatcher().executorService().execute(runnable);
+    }
+
+    public static OkCache cache() {
+        if (get().cache != null) return get().cache;
+        return get().cache = new OkCache();
+    }
+
+    public static HostRouter router() {
+        if (get().router != null) return get().router;
+        return get().router = new HostRouter();
+    }
+
     public static OkDns dns() {
         if (get().dns != null) return get().dns;
         return get().dns = new OkDns();
@@ -122,19 +177,13 @@ public class OkHttp {
     }
 
     public static String string(String url) {
-        if (!url.startsWith("http")) return "";
-        try (Response res = newCall(url).execute()) {
-            return res.body().string();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "";
-        }
+        return string(url, Collections.emptyMap());
     }
 
     public static String string(String url, Map<String, String> headers) {
         if (!url.startsWith("http")) return "";
-        try (Response res = newCall(url, Headers.of(headers)).execute()) {
-            return res.body().string();
+        try {
+            return flight.call(url + "\n" + new TreeMap<>(headers), () -> cache().fetch(OkCache.Type.API, url, Headers.of(headers)).string());
         } catch (Exception e) {
             e.printStackTrace();
             return "";
@@ -171,14 +220,26 @@ public class OkHttp {
         return client().newCall(new Request.Builder().url(url).headers(headers).build());
     }
 
+    public static Call newCall(String url, Headers headers, String tag) {
+        return client().newCall(new Request.Builder().url(url).headers(headers).tag(tag).build());
+    }
+
     public static Call newCall(String url, Headers headers, ArrayMap<String, String> params) {
         return client().newCall(new Request.Builder().url(buildUrl(url, params)).headers(headers).build());
     }
 
+    public static Call newCall(String url, Headers headers, ArrayMap<String, String> params, String tag) {
+        return client().newCall(new Request.Builder().url(buildUrl(url, params)).headers(headers).tag(tag).build());
+    }
+
     public static Call newCall(String url, Headers headers, RequestBody body) {
         return client().newCall(new Request.Builder().url(url).headers(headers).post(body).build());
     }
 
+    public static Call newCall(String url, Headers headers, RequestBody body, String tag) {
+        return client().newCall(new Request.Builder().url(url).headers(headers).post(body).tag(tag).build());
+    }
+
     public static Call newCall(OkHttpClient client, String url, RequestBody body) {
         return client.newCall(new Request.Builder().url(url).post(body).build());
     }
@@ -208,6 +269,8 @@ public class OkHttp {
         OkHttpClient.Builder builder = new OkHttpClient.Builder().cookieJar(OkCookieJar.get()).addInterceptor(requestInterceptor()).addInterceptor(authInterceptor()).addNetworkInterceptor(responseInterceptor()).connectTimeout(TIMEOUT, TimeUnit.MILLISECONDS).readTimeout(TIMEOUT, TimeUnit.MILLISECONDS).writeTimeout(TIMEOUT, TimeUnit.MILLISECONDS).dns(dns()).hostnameVerifier((hostname, session) -> true).sslSocketFactory(getSSLContext().getSocketFactory(), trustAllCertificates());
         HttpLoggingInterceptor logging = new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY);
         builder.proxySelector(get().proxy ? selector() : defaultSelector);
+        builder.connectionPool(pool()).dispatcher(dispatcher());
+        if (!profile().isHttp2()) builder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
         //builder.addNetworkInterceptor(logging);
         return builder;
     }
@@ -0,0 +1,87 @@
+package com.github.catvod.net;
+
+import java.util.concurrent.TimeUnit;
+
+public class OkProfile {
+
+    private int maxIdle;
+    private long keepAlive;
+    private int maxRequests;
+    private int maxRequestsPerHost;
+    private long dnsTtl;
+    private long dnsNegativeTtl;
+    private boolean http2;
+
+    public OkProfile() {
+        this.maxIdle = 16;
+        this.keepAlive = TimeUnit.MINUTES.toMillis(5);
+        this.maxRequests = 64;
+        this.maxRequestsPerHost = 16;
+        this.dnsTtl = TimeUnit.MINUTES.toMillis(10);
+        this.dnsNegativeTtl = TimeUnit.SECONDS.toMillis(30);
+        this.http2 = true;
+    }
+
+    public OkProfile maxIdle(int maxIdle) {
+        this.maxIdle = maxIdle;
+        return this;
+    }
+
+    public OkProfile keepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    public OkProfile maxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+        return this;
+    }
+
+    public OkProfile maxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        return this;
+    }
+
+    public OkProfile dnsTtl(long dnsTtl) {
+        this.dnsTtl = dnsTtl;
+        return this;
+    }
+
+    public OkProfile dnsNegativeTtl(long dnsNegativeTtl) {
+        this.dnsNegativeTtl = dnsNegativeTtl;
+        return this;
+    }
+
+    public OkProfile http2(boolean http2) {
+        this.http2 = http2;
+        return this;
+    }
+
+    public int getMaxIdle() {
+        return Math.max(1, maxIdle);
+    }
+
+    public long getKeepAlive() {
+        return Math.max(1, keepAlive);
+    }
+
+    public int getMaxRequests() {
+        return Math.max(1, maxRequests);
+    }
+
+    public int getMaxRequestsPerHost() {
+        return Math.max(1, Math.min(maxRequestsPerHost, getMaxRequests()));
+    }
+
+    public long getDnsTtl() {
+        return Math.max(0, dnsTtl);
+    }
+
+    public long getDnsNegativeTtl() {
+        return Math.max(0, dnsNegativeTtl);
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+}
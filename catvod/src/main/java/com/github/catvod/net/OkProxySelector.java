@@ -2,8 +2,6 @@ package com.github.catvod.net;
 
 import android.net.Uri;
 
-import com.github.catvod.utils.Util;
-
 import java.io.IOException;
 import java.net.Authenticator;
 import java.net.InetSocketAddress;
@@ -12,24 +10,14 @@ import java.net.Proxy;
 import java.net.ProxySelector;
 import java.net.SocketAddress;
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.List;
 
 public class OkProxySelector extends ProxySelector {
 
-    private final List<String> hosts;
     private Proxy proxy;
 
-    public OkProxySelector() {
-        this.hosts = new ArrayList<>();
-    }
-
-    public synchronized void addAll(List<String> hosts) {
-        this.hosts.addAll(hosts);
-    }
-
     public void clear() {
-        this.hosts.clear();
+        OkHttp.router().clearProxy();
     }
 
     public void setProxy(String proxy) {
@@ -38,9 +26,8 @@ public class OkProxySelector extends ProxySelector {
 
     @Override
     public List<Proxy> select(URI uri) {
-        if (proxy == null || hosts.isEmpty() || uri.getHost() == null || "127.0.0.1".equals(uri.getHost())) return List.of(Proxy.NO_PROXY);
-        for (String host : hosts) if (Util.containOrMatch(uri.getHost(), host)) return List.of(proxy);
-        return List.of(Proxy.NO_PROXY);
+        if (proxy == null || !OkHttp.router().hasProxy() || uri.getHost() == null || "127.0.0.1".equals(uri.getHost())) return List.of(Proxy.NO_PROXY);
+        return OkHttp.router().route(uri.getHost()).isProxy() ? List.of(proxy) : List.of(Proxy.NO_PROXY);
     }
 
     @Override
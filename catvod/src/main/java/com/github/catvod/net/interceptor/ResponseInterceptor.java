@@ -3,13 +3,10 @@ package com.github.catvod.net.interceptor;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.github.catvod.utils.Json;
+import com.github.catvod.net.OkHttp;
 import com.google.common.net.HttpHeaders;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.Inflater;
@@ -26,22 +23,12 @@ import okio.Okio;
 public class ResponseInterceptor implements Interceptor {
 
     private final ConcurrentHashMap<String, String> redirectMap;
-    private final ConcurrentHashMap<String, JsonObject> headerMap;
 
     public ResponseInterceptor() {
-        headerMap = new ConcurrentHashMap<>();
         redirectMap = new ConcurrentHashMap<>();
     }
 
-    public synchronized void setHeaders(List<JsonElement> items) {
-        for (JsonElement item : items) {
-            JsonObject object = Json.safeObject(item);
-            headerMap.put(object.get("host").getAsString(), object.get("header").getAsJsonObject());
-        }
-    }
-
     public void clear() {
-        headerMap.clear();
         redirectMap.clear();
     }
 
@@ -57,10 +44,10 @@ public class ResponseInterceptor implements Interceptor {
     }
 
     private Request check(Request request) {
-        String host = request.url().host();
+        Map<String, String> headers = OkHttp.router().route(request.url().host()).getHeaders();
+        if (headers == null) return request;
         Request.Builder builder = request.newBuilder();
-        if (!headerMap.containsKey(host)) return request;
-        for (Map.Entry<String, JsonElement> entry : headerMap.get(host).entrySet()) builder.header(entry.getKey(), entry.getValue().getAsString());
+        for (Map.Entry<String, String> entry : headers.entrySet()) builder.header(entry.getKey(), entry.getValue());
         return builder.build();
     }
 
@@ -0,0 +1,56 @@
+package com.github.catvod.utils;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+public class SingleFlight<V> {
+
+    private final ConcurrentHashMap<String, FutureTask<V>> calls;
+
+    public SingleFlight() {
+        this.calls = new ConcurrentHashMap<>();
+    }
+
+    public V call(String key, Callable<V> callable) throws Exception {
+        FutureTask<V> task = new FutureTask<>(callable);
+        FutureTask<V> running = calls.putIfAbsent(key, task);
+        if (running != null) return join(key, running, callable);
+        try {
+            task.run();
+            return get(task);
+        } finally {
+            calls.remove(key, task);
+        }
+    }
+
+    private V join(String key, FutureTask<V> running, Callable<V> callable) throws Exception {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            if (!isInterrupt(e.getCause())) throw unwrap(e);
+            return call(key, callable);
+        }
+    }
+
+    private V get(FutureTask<V> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private boolean isInterrupt(Throwable cause) {
+        return cause instanceof InterruptedException || cause instanceof InterruptedIOException;
+    }
+
+    private Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) return (Exception) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        return e;
+    }
+}
@@ -102,6 +102,16 @@ public class Util {
         }
     }
 
+    public static String md5(byte[] data) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("MD5").digest(data)) sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+            return sb.toString();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
     public static boolean containOrMatch(String text, String regex) {
         try {
             return text.contains(regex) || text.matches(regex);
@@ -0,0 +1,125 @@
+package com.github.catvod.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class HostMatcherTest {
+
+    private static final List<String> RULES = Arrays.asList("ads.example.com", "adserver", "*.track.io", ".*\\.stat\\.net", ".*\\.doubleclick\\..*");
+
+    @Test
+    public void exact() {
+        HostMatcher<Boolean> matcher = HostMatcher.of(RULES);
+        assertTrue(matcher.matches("ads.example.com"));
+        assertFalse(matcher.matches("example.com"));
+    }
+
+    @Test
+    public void suffix() {
+        HostMatcher<Boolean> matcher = HostMatcher.of(RULES);
+        assertTrue(matcher.matches("cdn.ads.example.com"));
+        assertTrue(matcher.matches("a.b.track.io"));
+        assertTrue(matcher.matches("x.stat.net"));
+        assertFalse(matcher.matches("track.io"));
+        assertFalse(matcher.matches("stat.net"));
+    }
+
+    @Test
+    public void contains() {
+        HostMatcher<Boolean> matcher = HostMatcher.of(RULES);
+        assertTrue(matcher.matches("adserver1.cdn.com"));
+        assertTrue(matcher.matches("badads.example.com.cn"));
+        assertFalse(matcher.matches("ad-server.com"));
+    }
+
+    @Test
+    public void regex() {
+        HostMatcher<Boolean> matcher = HostMatcher.of(RULES);
+        assertTrue(matcher.matches("ad.doubleclick.net"));
+        assertFalse(matcher.matches("doubleclick.net"));
+    }
+
+    @Test
+    public void agree() {
+        List<String> rules = rules(new Random(1), 500);
+        HostMatcher<Boolean> matcher = HostMatcher.of(rules);
+        Random random = new Random(2);
+        for (int i = 0; i < 5000; i++) {
+            String host = host(random, rules);
+            assertEquals(host, naive(rules, host), matcher.matches(host));
+        }
+    }
+
+    @Test
+    public void benchmark() {
+        List<String> rules = rules(new Random(1), 2000);
+        List<String> hosts = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) hosts.add(host(random, rules));
+        HostMatcher<Boolean> matcher = HostMatcher.of(rules);
+        int before = 0, after = 0;
+        for (String host : hosts) if (naive(rules, host)) before++;
+        for (String host : hosts) if (matcher.matches(host)) after++;
+        long start = System.nanoTime();
+        for (String host : hosts) naive(rules, host);
+        long naiveUs = (System.nanoTime() - start) / 1000 / hosts.size();
+        start = System.nanoTime();
+        for (int i = 0; i < 20; i++) for (String host : hosts) matcher.matches(host);
+        long matcherNs = (System.nanoTime() - start) / 20 / hosts.size();
+        System.out.printf(Locale.ROOT, "HostMatcher %d rules: loop %d us/host, matcher %d ns/host%n", rules.size(), naiveUs, matcherNs);
+        assertEquals(before, after);
+    }
+
+    private static boolean naive(List<String> rules, String host) {
+        for (String rule : rules) {
+            try {
+                if (host.contains(rule) || host.matches(rule)) return true;
+            } catch (Exception ignored) {
+            }
+        }
+        return false;
+    }
+
+    private static List<String> rules(Random random, int count) {
+        List<String> rules = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = word(random);
+            switch (i % 4) {
+                case 0:
+                    rules.add(name + ".com");
+                    break;
+                case 1:
+                    rules.add(name);
+                    break;
+                case 2:
+                    rules.add(".*\\." + name + "\\.net");
+                    break;
+                default:
+                    rules.add(".*\\." + name + "\\..*");
+                    break;
+            }
+        }
+        return rules;
+    }
+
+    private static String host(Random random, List<String> rules) {
+        if (random.nextInt(4) > 0) return word(random) + "." + word(random) + ".com";
+        String rule = rules.get(random.nextInt(rules.size())).replace(".*\\.", "").replace("\\.", ".").replace(".*", "org");
+        return random.nextBoolean() ? "cdn." + rule : word(random) + rule + ".cn";
+    }
+
+    private static String word(Random random) {
+        char[] chars = new char[4 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; i++) chars[i] = (char) ('a' + random.nextInt(26));
+        return new String(chars);
+    }
+}
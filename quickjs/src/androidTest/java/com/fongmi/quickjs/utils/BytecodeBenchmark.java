@@ -0,0 +1,102 @@
+package com.fongmi.quickjs.utils;
+
+import static org.junit.Assert.assertTrue;
+
+import android.os.Debug;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.github.catvod.Init;
+import com.github.catvod.utils.Asset;
+import com.github.catvod.utils.Path;
+import com.whl.quickjs.android.QuickJSLoader;
+import com.whl.quickjs.wrapper.QuickJSContext;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@RunWith(AndroidJUnit4.class)
+public class BytecodeBenchmark {
+
+    private static final String TAG = BytecodeBenchmark.class.getSimpleName();
+    private static final String[] MODULES = {"js/lib/crypto-js.js", "js/lib/cheerio.min.js"};
+    private static final int CONTEXTS = 10;
+
+    @BeforeClass
+    public static void setUp() {
+        Init.set(ApplicationProvider.getApplicationContext());
+        QuickJSLoader.init();
+        Path.clear(Path.js());
+    }
+
+    @Test
+    public void firstCall() {
+        String http = Asset.read("js/lib/http.js");
+        long source = time(ctx -> {
+            ctx.evaluate(http, "http.js");
+            for (String name : MODULES) ctx.evaluateModule(Asset.read(name), name);
+        });
+        long compile = time(this::load);
+        long cached = time(this::load);
+        log("first call: source %d ms, compile+store %d ms, bytecode %d ms", source, compile, cached);
+        assertTrue(cached <= compile);
+    }
+
+    @Test
+    public void heap() {
+        time(this::load);
+        long source = heap(ctx -> {
+            ctx.evaluate(Asset.read("js/lib/http.js"), "http.js");
+            for (String name : MODULES) ctx.evaluateModule(Asset.read(name), name);
+        });
+        long bytecode = heap(this::load);
+        log("native heap per context: source %d KB, bytecode %d KB", source, bytecode);
+    }
+
+    private void load(QuickJSContext ctx) {
+        Bytecode.get().execute(ctx, "http.js", Asset.read("js/lib/http.js"));
+        for (String name : MODULES) ctx.execute(Bytecode.get().module(ctx, name, Asset.read(name)));
+    }
+
+    private static long time(Task task) {
+        QuickJSContext ctx = QuickJSContext.create();
+        try {
+            long start = System.nanoTime();
+            task.run(ctx);
+            return (System.nanoTime() - start) / 1000000;
+        } finally {
+            ctx.destroy();
+        }
+    }
+
+    private static long heap(Task task) {
+        List<QuickJSContext> items = new ArrayList<>();
+        long start = Debug.getNativeHeapAllocatedSize();
+        try {
+            for (int i = 0; i < CONTEXTS; i++) {
+                QuickJSContext ctx = QuickJSContext.create();
+                items.add(ctx);
+                task.run(ctx);
+            }
+            return (Debug.getNativeHeapAllocatedSize() - start) / CONTEXTS / 1024;
+        } finally {
+            for (QuickJSContext ctx : items) ctx.destroy();
+        }
+    }
+
+    private static void log(String format, Object... args) {
+        Log.i(TAG, String.format(Locale.ROOT, format, args));
+    }
+
+    private interface Task {
+
+        void run(QuickJSContext ctx);
+    }
+}
@@ -14,4 +14,8 @@ function http(url, options = {}) {
             url
         }
     })
-}
\ No newline at end of file
+}
+
+function _bytes(buffer) {
+    return Array.from(new Int8Array(buffer))
+}
@@ -0,0 +1,58 @@
+package com.fongmi.quickjs.crawler;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Pool {
+
+    private static final int MAX_SIZE = 12;
+
+    private final LinkedHashMap<Spider, Boolean> spiders;
+    private int hold;
+
+    private static class Loader {
+        static volatile Pool INSTANCE = new Pool();
+    }
+
+    public static Pool get() {
+        return Loader.INSTANCE;
+    }
+
+    private Pool() {
+        this.spiders = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized void hold() {
+        hold++;
+    }
+
+    public synchronized void unhold() {
+        hold = Math.max(0, hold - 1);
+        trim(null);
+    }
+
+    public synchronized void touch(Spider spider) {
+        spiders.put(spider, true);
+        trim(spider);
+    }
+
+    private void trim(Spider current) {
+        if (hold > 0) return;
+        Iterator<Map.Entry<Spider, Boolean>> iterator = spiders.entrySet().iterator();
+        while (spiders.size() > MAX_SIZE && iterator.hasNext()) {
+            Spider eldest = iterator.next().getKey();
+            if (eldest == current || eldest.isBusy()) continue;
+            iterator.remove();
+            eldest.release();
+        }
+    }
+
+    public synchronized void remove(Spider spider) {
+        spiders.remove(spider);
+    }
+
+    public synchronized int size() {
+        return spiders.size();
+    }
+}
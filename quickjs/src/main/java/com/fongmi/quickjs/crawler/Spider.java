@@ -1,18 +1,22 @@
 package com.fongmi.quickjs.crawler;
 
 import android.content.Context;
+import android.os.Debug;
+import android.os.SystemClock;
 
 import com.fongmi.quickjs.bean.Res;
 import com.fongmi.quickjs.method.Console;
 import com.fongmi.quickjs.method.Global;
 import com.fongmi.quickjs.method.Local;
 import com.fongmi.quickjs.utils.Async;
+import com.fongmi.quickjs.utils.Bytecode;
 import com.fongmi.quickjs.utils.JSUtil;
 import com.fongmi.quickjs.utils.Module;
 import com.github.catvod.utils.Asset;
 import com.github.catvod.utils.Json;
 import com.github.catvod.utils.UriUtil;
 import com.github.catvod.utils.Util;
+import com.orhanobut.logger.Logger;
 import com.whl.quickjs.wrapper.JSArray;
 import com.whl.quickjs.wrapper.JSObject;
 import com.whl.quickjs.wrapper.QuickJSContext;
@@ -28,6 +32,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import dalvik.system.DexClassLoader;
 import java9.util.concurrent.CompletableFuture;
@@ -35,19 +40,24 @@ import java9.util.concurrent.CompletableFuture;
 public class Spider extends com.github.catvod.crawler.Spider {
 
     private final ExecutorService executor;
+    private final AtomicInteger busy;
     private final DexClassLoader dex;
     private QuickJSContext ctx;
     private JSObject jsObject;
+    private Global global;
     private final String key;
     private final String api;
+    private String source;
+    private String extend;
     private boolean cat;
 
     public Spider(String key, String api, DexClassLoader dex) throws Exception {
         this.executor = Executors.newSingleThreadExecutor();
+        this.busy = new AtomicInteger();
         this.key = key;
         this.api = api;
         this.dex = dex;
-        initializeJS();
+        guard(() -> null);
     }
 
     private void submit(Runnable runnable) {
@@ -58,14 +68,41 @@ public class Spider extends com.github.catvod.crawler.Spider {
         return executor.submit(callable);
     }
 
+    private <T> T guard(Callable<T> callable) throws Exception {
+        try {
+            busy.incrementAndGet();
+            ensure();
+            return callable.call();
+        } finally {
+            busy.decrementAndGet();
+        }
+    }
+
     private Object call(String func, Object... args) throws Exception {
+        return guard(() -> invoke(func, args));
+    }
+
+    private Object invoke(String func, Object... args) throws Exception {
         return CompletableFuture.supplyAsync(() -> Async.run(jsObject, func, args), executor).join().get();
     }
 
+    private synchronized void ensure() throws Exception {
+        Pool.get().touch(this);
+        if (executor.submit(this::create).get() && extend != null) setup();
+    }
+
+    private void setup() throws Exception {
+        if (cat) invoke("init", executor.submit(() -> cfg(extend)).get());
+        else invoke("init", Json.isObj(extend) ? executor.submit(() -> ctx.parse(extend)).get() : extend);
+    }
+
     @Override
     public void init(Context context, String extend) throws Exception {
-        if (cat) call("init", submit(() -> cfg(extend)).get());
-        else call("init", Json.isObj(extend) ? ctx.parse(extend) : extend);
+        guard(() -> {
+            this.extend = extend;
+            setup();
+            return null;
+        });
     }
 
     @Override
@@ -80,8 +117,10 @@ public class Spider extends com.github.catvod.crawler.Spider {
 
     @Override
     public String categoryContent(String tid, String pg, boolean filter, HashMap<String, String> extend) throws Exception {
-        JSObject obj = submit(() -> JSUtil.toObject(ctx, extend)).get();
-        return (String) call("category", tid, pg, filter, obj);
+        return guard(() -> {
+            JSObject obj = submit(() -> JSUtil.toObject(ctx, extend)).get();
+            return (String) invoke("category", tid, pg, filter, obj);
+        });
     }
 
     @Override
@@ -101,8 +140,10 @@ public class Spider extends com.github.catvod.crawler.Spider {
 
     @Override
     public String playerContent(String flag, String id, List<String> vipFlags) throws Exception {
-        JSArray array = submit(() -> JSUtil.toArray(ctx, vipFlags)).get();
-        return (String) call("play", flag, id, array);
+        return guard(() -> {
+            JSArray array = submit(() -> JSUtil.toArray(ctx, vipFlags)).get();
+            return (String) invoke("play", flag, id, array);
+        });
     }
 
     @Override
@@ -122,8 +163,8 @@ public class Spider extends com.github.catvod.crawler.Spider {
 
     @Override
     public Object[] proxyLocal(Map<String, String> params) throws Exception {
-        if ("catvod".equals(params.get("from"))) return proxy2(params);
-        else return submit(() -> proxy1(params)).get();
+        if ("catvod".equals(params.get("from"))) return guard(() -> proxy2(params));
+        else return guard(() -> submit(() -> proxy1(params)).get());
     }
 
     @Override
@@ -134,30 +175,51 @@ public class Spider extends com.github.catvod.crawler.Spider {
     @Override
     public void destroy() {
         try {
-            call("destroy");
+            if (jsObject != null) invoke("destroy");
         } catch (Throwable e) {
             e.printStackTrace();
         }
+        Pool.get().remove(this);
         submit(() -> {
             executor.shutdownNow();
-            jsObject.release();
-            ctx.destroy();
+            destroyCtx();
         });
     }
 
-    private void initializeJS() throws Exception {
+    boolean isBusy() {
+        return busy.get() > 0;
+    }
+
+    void release() {
         submit(() -> {
-            createCtx();
-            createFun();
-            createObj();
-            return null;
-        }).get();
+            if (!isBusy()) destroyCtx();
+        });
+    }
+
+    private boolean create() {
+        if (ctx != null) return false;
+        long time = SystemClock.elapsedRealtime();
+        long heap = Debug.getNativeHeapAllocatedSize();
+        createCtx();
+        createFun();
+        createObj();
+        Logger.t("Spider").d("%s ready in %dms, native heap %+dKB, contexts %d", key, SystemClock.elapsedRealtime() - time, (Debug.getNativeHeapAllocatedSize() - heap) / 1024, Pool.get().size());
+        return true;
+    }
+
+    private void destroyCtx() {
+        if (global != null) global.release();
+        if (jsObject != null) jsObject.release();
+        if (ctx != null) ctx.destroy();
+        global = null;
+        jsObject = null;
+        ctx = null;
     }
 
     private void createCtx() {
         ctx = QuickJSContext.create();
         ctx.setConsole(new Console());
-        ctx.evaluate(Asset.read("js/lib/http.js"));
+        Bytecode.get().execute(ctx, "http.js", Asset.read("js/lib/http.js"));
         ctx.getGlobalObject().setProperty("local", Local.class);
         ctx.setModuleLoader(new QuickJSContext.BytecodeModuleLoader() {
             @Override
@@ -167,14 +229,14 @@ public class Spider extends com.github.catvod.crawler.Spider {
 
             @Override
             public byte[] getModuleBytecode(String moduleName) {
-                return ctx.compileModule(Module.get().fetch(moduleName), moduleName);
+                return Bytecode.get().module(ctx, moduleName, moduleName.equals(api) ? source : Module.get().fetch(moduleName));
             }
         });
     }
 
     private void createFun() {
         try {
-            Global.create(ctx, executor);
+            global = Global.create(ctx, executor);
             Class<?> clz = dex.loadClass("com.github.catvod.js.Function");
             clz.getDeclaredConstructor(QuickJSContext.class).newInstance(ctx);
         } catch (Throwable e) {
@@ -187,7 +249,7 @@ public class Spider extends com.github.catvod.crawler.Spider {
         String global = "globalThis." + spider;
         String content = Module.get().fetch(api);
         cat = content.contains("__jsEvalReturn");
-        ctx.evaluateModule(content.replace(spider, global), api);
+        source = content.replace(spider, global);
         ctx.evaluateModule(String.format(Asset.read("js/lib/spider.js"), api));
         jsObject = (JSObject) ctx.getProperty(ctx.getGlobalObject(), spider);
     }
@@ -219,7 +281,7 @@ public class Spider extends com.github.catvod.crawler.Spider {
         String header = params.get("header");
         JSArray array = submit(() -> JSUtil.toArray(ctx, Arrays.asList(url.split("/")))).get();
         Object object = submit(() -> ctx.parse(header)).get();
-        String json = (String) call("proxy", array, object);
+        String json = (String) invoke("proxy", array, object);
         Res res = Res.objectFrom(json);
         Object[] result = new Object[3];
         result[0] = res.getCode();
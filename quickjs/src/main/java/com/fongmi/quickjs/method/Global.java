@@ -18,19 +18,29 @@ import com.whl.quickjs.wrapper.QuickJSContext;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.URLEncoder;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ExecutorService;
 
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.Headers;
 import okhttp3.Response;
 
 public class Global {
 
+    private static final int MAX_CALLS = 8;
+
     private final ExecutorService executor;
+    private final Queue<Runnable> pending;
     private final QuickJSContext ctx;
+    private final Set<Call> calls;
     private final Timer timer;
+    private volatile boolean released;
 
     public static Global create(QuickJSContext ctx, ExecutorService executor) {
         return new Global(ctx, executor);
@@ -38,6 +48,8 @@ public class Global {
 
     private Global(QuickJSContext ctx, ExecutorService executor) {
         this.executor = executor;
+        this.pending = new ArrayDeque<>();
+        this.calls = new HashSet<>();
         this.timer = new Timer();
         this.ctx = ctx;
         setProperty();
@@ -56,8 +68,40 @@ public class Global {
         }
     }
 
+    public void release() {
+        released = true;
+        timer.cancel();
+        cancel();
+    }
+
+    private synchronized void cancel() {
+        for (Call call : calls) call.cancel();
+        pending.clear();
+        calls.clear();
+    }
+
+    private synchronized void enqueue(Call call, Callback callback) {
+        if (released) return;
+        if (calls.size() < MAX_CALLS) start(call, callback);
+        else pending.add(() -> start(call, callback));
+    }
+
+    private void start(Call call, Callback callback) {
+        calls.add(call);
+        call.enqueue(callback);
+    }
+
+    private synchronized void finish(Call call) {
+        calls.remove(call);
+        Runnable next = pending.poll();
+        if (next != null && !released) next.run();
+    }
+
     private void submit(Runnable runnable) {
-        if (!executor.isShutdown()) executor.submit(runnable);
+        if (released || executor.isShutdown()) return;
+        executor.submit(() -> {
+            if (!released) runnable.run();
+        });
     }
 
     @Keep
@@ -104,7 +148,7 @@ public class Global {
         JSFunction complete = options.getJSFunction("complete");
         if (complete == null) return req(url, options);
         Req req = Req.objectFrom(options.stringify());
-        Connect.to(url, req).enqueue(getCallback(complete, req));
+        enqueue(Connect.to(url, req), getCallback(complete, req));
         return null;
     }
 
@@ -154,12 +198,22 @@ public class Global {
         return new Callback() {
             @Override
             public void onResponse(@NonNull Call call, @NonNull Response res) {
-                submit(() -> complete.call(Connect.success(ctx, req, res)));
+                try (res) {
+                    int code = res.code();
+                    Headers headers = res.headers();
+                    byte[] bytes = res.body().bytes();
+                    submit(() -> complete.call(Connect.success(ctx, req, code, headers, bytes)));
+                } catch (IOException e) {
+                    submit(() -> complete.call(Connect.error(ctx)));
+                } finally {
+                    finish(call);
+                }
             }
 
             @Override
             public void onFailure(@NonNull Call call, @NonNull IOException e) {
                 submit(() -> complete.call(Connect.error(ctx)));
+                finish(call);
             }
         };
     }
@@ -0,0 +1,74 @@
+package com.fongmi.quickjs.utils;
+
+import android.util.LruCache;
+
+import com.github.catvod.utils.Path;
+import com.github.catvod.utils.Util;
+import com.whl.quickjs.wrapper.QuickJSContext;
+
+import java.io.File;
+
+public class Bytecode {
+
+    private static final String VERSION = "3.2.3";
+    private static final int MAX_SIZE = 8 * 1024 * 1024;
+
+    private final LruCache<String, byte[]> cache;
+
+    private static class Loader {
+        static volatile Bytecode INSTANCE = new Bytecode();
+    }
+
+    public static Bytecode get() {
+        return Loader.INSTANCE;
+    }
+
+    private Bytecode() {
+        this.cache = new LruCache<>(MAX_SIZE) {
+            @Override
+            protected int sizeOf(String key, byte[] value) {
+                return value.length;
+            }
+        };
+    }
+
+    public byte[] module(QuickJSContext ctx, String name, String source) {
+        String key = getKey("module", name, source);
+        byte[] code = read(key);
+        if (code != null) return code;
+        return write(key, ctx.compileModule(source, name));
+    }
+
+    public Object execute(QuickJSContext ctx, String name, String source) {
+        String key = getKey("script", name, source);
+        byte[] code = read(key);
+        if (code == null) code = write(key, ctx.compile(source, name));
+        return ctx.execute(code);
+    }
+
+    private String getKey(String type, String name, String source) {
+        return Util.md5(VERSION + type + name + source);
+    }
+
+    private File getFile(String key) {
+        return Path.js(key + ".qjs");
+    }
+
+    private byte[] read(String key) {
+        byte[] code = cache.get(key);
+        if (code != null) return code;
+        File file = getFile(key);
+        if (!file.exists()) return null;
+        code = Path.readToByte(file);
+        if (code.length == 0) return null;
+        cache.put(key, code);
+        return code;
+    }
+
+    private byte[] write(String key, byte[] code) {
+        if (code == null || code.length == 0) return code;
+        cache.put(key, code);
+        Path.write(getFile(key), code);
+        return code;
+    }
+}
@@ -5,6 +5,8 @@ import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Json;
 import com.github.catvod.utils.Util;
 import com.google.common.net.HttpHeaders;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.whl.quickjs.wrapper.JSObject;
 import com.whl.quickjs.wrapper.QuickJSContext;
 
@@ -31,15 +33,22 @@ public class Connect {
 
     public static JSObject success(QuickJSContext ctx, Req req, Response res) {
         try (res) {
-            JSObject jsObject = ctx.createNewJSObject();
-            JSObject jsHeader = ctx.createNewJSObject();
-            setHeader(ctx, res, jsHeader);
-            jsObject.setProperty("code", res.code());
-            jsObject.setProperty("headers", jsHeader);
-            if (req.getBuffer() == 0) jsObject.setProperty("content", new String(res.body().bytes(), req.getCharset()));
-            if (req.getBuffer() == 1) jsObject.setProperty("content", JSUtil.toArray(ctx, res.body().bytes()));
-            if (req.getBuffer() == 2) jsObject.setProperty("content", Util.base64(res.body().bytes()));
-            if (req.getBuffer() == 3) jsObject.setProperty("content", res.body().bytes());
+            return success(ctx, req, res.code(), res.headers(), res.body().bytes());
+        } catch (Exception e) {
+            return error(ctx);
+        }
+    }
+
+    public static JSObject success(QuickJSContext ctx, Req req, int code, Headers headers, byte[] bytes) {
+        try {
+            JsonObject object = new JsonObject();
+            object.addProperty("code", code);
+            object.add("headers", getHeader(headers));
+            if (req.getBuffer() == 0) object.addProperty("content", new String(bytes, req.getCharset()));
+            if (req.getBuffer() == 2) object.addProperty("content", Util.base64(bytes));
+            JSObject jsObject = (JSObject) ctx.parse(object.toString());
+            if (req.getBuffer() == 1) jsObject.setProperty("content", JSUtil.toArray(ctx, bytes));
+            if (req.getBuffer() == 3) jsObject.setProperty("content", bytes);
             return jsObject;
         } catch (Exception e) {
             return error(ctx);
@@ -92,10 +101,12 @@ public class Connect {
         return builder.build();
     }
 
-    private static void setHeader(QuickJSContext ctx, Response res, JSObject object) {
-        for (Map.Entry<String, List<String>> entry : res.headers().toMultimap().entrySet()) {
-            if (entry.getValue().size() == 1) object.setProperty(entry.getKey(), entry.getValue().get(0));
-            if (entry.getValue().size() >= 2) object.setProperty(entry.getKey(), JSUtil.toArray(ctx, entry.getValue()));
+    private static JsonObject getHeader(Headers headers) {
+        JsonObject object = new JsonObject();
+        for (Map.Entry<String, List<String>> entry : headers.toMultimap().entrySet()) {
+            if (entry.getValue().size() == 1) object.addProperty(entry.getKey(), entry.getValue().get(0));
+            if (entry.getValue().size() >= 2) object.add(entry.getKey(), new Gson().toJsonTree(entry.getValue()));
         }
+        return object;
     }
 }
@@ -1,6 +1,9 @@
 package com.fongmi.quickjs.utils;
 
+import com.github.catvod.utils.Json;
+import com.google.gson.Gson;
 import com.whl.quickjs.wrapper.JSArray;
+import com.whl.quickjs.wrapper.JSFunction;
 import com.whl.quickjs.wrapper.JSObject;
 import com.whl.quickjs.wrapper.QuickJSContext;
 
@@ -10,23 +13,27 @@ import java.util.Map;
 public class JSUtil {
 
     public static JSArray toArray(QuickJSContext ctx, List<String> items) {
-        JSArray array = ctx.createNewJSArray();
-        if (items == null || items.isEmpty()) return array;
-        for (int i = 0; i < items.size(); i++) array.set(items.get(i), i);
-        return array;
+        if (items == null || items.isEmpty()) return ctx.createNewJSArray();
+        return (JSArray) ctx.parse(new Gson().toJson(items));
     }
 
     public static JSArray toArray(QuickJSContext ctx, byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return ctx.createNewJSArray();
+        JSFunction function = ctx.getGlobalObject().getJSFunction("_bytes");
+        if (function == null) return loop(ctx, bytes);
+        JSArray array = (JSArray) function.call((Object) bytes);
+        function.release();
+        return array;
+    }
+
+    private static JSArray loop(QuickJSContext ctx, byte[] bytes) {
         JSArray array = ctx.createNewJSArray();
-        if (bytes == null || bytes.length == 0) return array;
         for (int i = 0; i < bytes.length; i++) array.set((int) bytes[i], i);
         return array;
     }
 
     public static JSObject toObject(QuickJSContext ctx, Map<String, String> map) {
-        JSObject obj = ctx.createNewJSObject();
-        if (map == null || map.isEmpty()) return obj;
-        for (String s : map.keySet()) obj.setProperty(s, map.get(s));
-        return obj;
+        if (map == null || map.isEmpty()) return ctx.createNewJSObject();
+        return (JSObject) ctx.parse(Json.toObject(map).toString());
     }
 }
@@ -1,18 +1,27 @@
 package com.fongmi.quickjs.utils;
 
 import android.net.Uri;
+import android.text.TextUtils;
 
+import com.github.catvod.net.OkCache;
 import com.github.catvod.net.OkHttp;
 import com.github.catvod.utils.Asset;
-import com.github.catvod.utils.Path;
 
-import java.io.File;
-import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Module {
 
     private final ConcurrentHashMap<String, String> cache;
+    private final ConcurrentHashMap<String, Object> locks;
+    private final ExecutorService executor;
+    private final AtomicInteger miss;
+    private final AtomicInteger hit;
 
     private static class Loader {
         static volatile Module INSTANCE = new Module();
@@ -24,34 +33,64 @@ public class Module {
 
     public Module() {
         this.cache = new ConcurrentHashMap<>();
+        this.locks = new ConcurrentHashMap<>();
+        this.executor = Executors.newFixedThreadPool(4);
+        this.miss = new AtomicInteger();
+        this.hit = new AtomicInteger();
     }
 
-    public String fetch(String name) {
-        if (cache.contains(name)) return cache.get(name);
-        if (name.startsWith("http")) cache.put(name, request(name));
-        if (name.startsWith("assets")) cache.put(name, Asset.read(name));
-        if (name.startsWith("lib/")) cache.put(name, Asset.read("js/" + name));
-        return cache.get(name);
+    private Object lock(String name) {
+        Object lock = locks.get(name);
+        if (lock != null) return lock;
+        locks.putIfAbsent(name, new Object());
+        return locks.get(name);
     }
 
-    private String request(String url) {
-        try {
-            Uri uri = Uri.parse(url);
-            byte[] data = OkHttp.bytes(url);
-            File file = Path.js(uri.getLastPathSegment());
-            boolean cache = !"127.0.0.1".equals(uri.getHost());
-            if (cache) new Thread(() -> Path.write(file, data)).start();
-            return new String(data, StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            return cache(url);
+    public String fetch(String name) {
+        String content = cache.get(name);
+        if (content != null) return hit(content);
+        synchronized (lock(name)) {
+            content = cache.get(name);
+            if (content != null) return hit(content);
+            miss.incrementAndGet();
+            content = load(name);
+            if (!TextUtils.isEmpty(content)) cache.put(name, content);
+            return content;
         }
     }
 
-    private String cache(String url) {
+    public void prefetch(Collection<String> names) {
+        for (String name : new HashSet<>(names)) if (!cache.containsKey(name)) executor.execute(() -> fetch(name));
+    }
+
+    public void clear() {
+        cache.clear();
+        locks.clear();
+    }
+
+    public String getStat() {
+        int hit = this.hit.get();
+        int total = hit + miss.get();
+        return String.format(Locale.getDefault(), "module: %d / %d (%d%%)", hit, total, total == 0 ? 0 : hit * 100 / total);
+    }
+
+    private String hit(String content) {
+        hit.incrementAndGet();
+        return content;
+    }
+
+    private String load(String name) {
+        if (name.startsWith("http")) return request(name);
+        if (name.startsWith("assets")) return Asset.read(name);
+        if (name.startsWith("lib/")) return Asset.read("js/" + name);
+        return null;
+    }
+
+    private String request(String url) {
         try {
             Uri uri = Uri.parse(url);
-            File file = Path.js(uri.getLastPathSegment());
-            return file.exists() ? Path.read(file) : "";
+            if ("127.0.0.1".equals(uri.getHost())) return OkHttp.string(url);
+            return OkHttp.cache().fetch(OkCache.Type.JS, url).string();
         } catch (Exception e) {
             return "";
         }